@@ -0,0 +1,62 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Бенчмарк входа: стоимость проверки PBKDF2 при разном числе итераций и полный путь через AuthService.
+// Хеши пользователей вычисляются с iterations итераций, поэтому параметр влияет и на authenticate; число итераций
+// по умолчанию в форке не больше параметра, и хеши не пересчитываются при входе.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dauth.pbkdf2.iterations=10000")
+public class AuthenticationBenchmark {
+    @Param({"10000", "210000"})
+    int iterations;
+
+    @Param({"100000"})
+    int users;
+
+    PasswordHasher hasher;
+    String stored;
+    AuthenticationSystem system;
+    AuthService service;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        hasher = new PasswordHasher(iterations);
+        stored = hasher.hash(SyntheticUsers.PASSWORD);
+        system = new AuthenticationSystem(SyntheticUsers.write(users, "csv", stored));
+        service = new DefaultAuthService(system);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.close();
+    }
+
+    @Benchmark
+    public boolean verifyHash() {
+        return hasher.verify(SyntheticUsers.PASSWORD, stored);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean verifyHashConcurrent() {
+        return hasher.verify(SyntheticUsers.PASSWORD, stored);
+    }
+
+    @Benchmark
+    public AuthResult authenticate() {
+        return service.authenticate(SyntheticUsers.randomUsername(users), SyntheticUsers.PASSWORD).join();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public AuthResult authenticateConcurrent() {
+        return service.authenticate(SyntheticUsers.randomUsername(users), SyntheticUsers.PASSWORD).join();
+    }
+}
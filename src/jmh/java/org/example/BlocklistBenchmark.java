@@ -0,0 +1,58 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Бенчмарк проверки пароля по списку запрещенных паролей: фильтр Блума и точная проверка по файлу.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlocklistBenchmark {
+    @Param({"1000000"})
+    int entries;
+
+    @Param({"false", "true"})
+    boolean exact;
+
+    PasswordBlocklist blocklist;
+    String[] listed;
+    String[] unlisted;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // Пароли вида pw0000001 в порядке возрастания: файл уже отсортирован побайтно
+        Path file = Files.createTempFile("blocklist", ".txt");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                writer.write(String.format("pw%07d%n", i));
+            }
+        }
+        blocklist = PasswordBlocklist.load(file, 0.001, exact);
+        listed = new String[1024];
+        unlisted = new String[1024];
+        for (int i = 0; i < listed.length; i++) {
+            listed[i] = String.format("pw%07d", ThreadLocalRandom.current().nextInt(entries));
+            unlisted[i] = "Str0ng!" + ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    @Benchmark
+    public boolean listedPassword() {
+        return blocklist.contains(listed[ThreadLocalRandom.current().nextInt(listed.length)]);
+    }
+
+    @Benchmark
+    public boolean unlistedPassword() {
+        return blocklist.contains(unlisted[ThreadLocalRandom.current().nextInt(unlisted.length)]);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Бенчмарк поиска пользователя AuthenticationSystem.findUser на базах разного размера.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int users;
+
+    @Param({"csv", "binary"})
+    String format;
+
+    AuthenticationSystem system;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // Настоящий хеш: пароли в открытом виде пересчитывались бы при первом обращении к пользователю
+        system = new AuthenticationSystem(SyntheticUsers.write(users, format, PasswordHasher.getDefault().hash(SyntheticUsers.PASSWORD)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.close();
+    }
+
+    @Benchmark
+    public User findExisting() {
+        return system.findUser(SyntheticUsers.randomUsername(users));
+    }
+
+    @Benchmark
+    public User findMissing() {
+        return system.findUser("missing" + users);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public User findExistingConcurrent() {
+        return system.findUser(SyntheticUsers.randomUsername(users));
+    }
+}
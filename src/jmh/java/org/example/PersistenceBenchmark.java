@@ -0,0 +1,74 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Бенчмарк хранения: полная загрузка базы (loadUsers) и сохранение одного изменения (saveUser/saveUsers).
+// Система, созданная в load, закрывается вне измерения, чтобы пулы проверки и хранилища не накапливались.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int users;
+
+    @Param({"csv", "journal", "binary"})
+    String format;
+
+    String dataFile;
+    AuthenticationSystem system;
+    AuthenticationSystem loaded; // Система, созданная последним вызовом load
+    final AtomicInteger counter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        System.setProperty("auth.storage", format);
+        dataFile = SyntheticUsers.write(users, format, PasswordHasher.getDefault().hash(SyntheticUsers.PASSWORD));
+        system = new AuthenticationSystem(dataFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.close();
+        System.clearProperty("auth.storage");
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeLoaded() {
+        if (loaded != null) {
+            loaded.close();
+            loaded = null;
+        }
+    }
+
+    @Benchmark
+    public AuthenticationSystem load() {
+        loaded = new AuthenticationSystem(dataFile);
+        return loaded;
+    }
+
+    @Benchmark
+    public void saveChange() {
+        User user = system.findUser(SyntheticUsers.randomUsername(users));
+        user.setBlocked(counter.incrementAndGet() % 2 == 0);
+        system.saveUser(user);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void saveChangeConcurrent() {
+        User user = system.findUser(SyntheticUsers.randomUsername(users));
+        user.setBlocked(counter.incrementAndGet() % 2 == 0);
+        system.saveUser(user);
+    }
+
+    @Benchmark
+    public void saveAll() {
+        system.saveUsers();
+    }
+}
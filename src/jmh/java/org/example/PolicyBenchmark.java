@@ -0,0 +1,54 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Бенчмарк проверки пароля по политике: User.isPasswordValid и скомпилированная PasswordPolicy.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyBenchmark {
+    @Param({"ab12!!cd", "aaaa", "Str0ng!Passw0rd#2024"})
+    String password;
+
+    User user;
+    PasswordPolicy extended;
+    char[] chars;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        user = new User("bench", "");
+        extended = PasswordPolicy.DEFAULT
+                .with(PasswordRule.MAX_LENGTH, 64)
+                .with(PasswordRule.MIN_UPPER, 1)
+                .with(PasswordRule.MIN_LOWER, 1)
+                .with(PasswordRule.MAX_REPEAT, 2)
+                .with(PasswordRule.MAX_SEQUENCE, 3);
+        chars = password.toCharArray();
+    }
+
+    @Benchmark
+    public boolean userIsPasswordValid() {
+        return user.isPasswordValid(password);
+    }
+
+    @Benchmark
+    public int extendedPolicy() {
+        return extended.check(password);
+    }
+
+    @Benchmark
+    public int extendedPolicyChars() {
+        return extended.check(chars);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int extendedPolicyConcurrent() {
+        return extended.check(password);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Класс SyntheticUsers создает синтетические базы пользователей для бенчмарков.
+// Все пользователи получают один и тот же заранее вычисленный хеш, чтобы генерация 1 млн строк не занимала часы.
+final class SyntheticUsers {
+    static final String PASSWORD = "bench12!!"; // Пароль всех синтетических пользователей
+
+    private SyntheticUsers() {
+    }
+
+    // Метод для получения имени пользователя по номеру.
+    static String username(int i) {
+        return "user" + i;
+    }
+
+    // Метод для получения имени случайного существующего пользователя.
+    static String randomUsername(int count) {
+        return username(ThreadLocalRandom.current().nextInt(count));
+    }
+
+    // Метод для создания списка пользователей с общим хешем пароля.
+    static List<User> create(int count, String passwordHash) {
+        List<User> users = new ArrayList<>(count + 1);
+        users.add(new Admin("admin", passwordHash));
+        for (int i = 0; i < count; i++) {
+            users.add(new User(username(i), passwordHash));
+        }
+        return users;
+    }
+
+    // Метод для записи базы в каталог target/bench-data в выбранном формате; возвращает путь к файлу.
+    static String write(int count, String format, String passwordHash) throws IOException {
+        Path directory = Paths.get("target", "bench-data");
+        Files.createDirectories(directory);
+        Path file = directory.resolve("users-" + count + "-" + format + (format.equals("binary") ? ".bin" : ".txt"));
+        Files.deleteIfExists(Paths.get(file + ".journal"));
+        Files.deleteIfExists(Paths.get(file + ".journal.old"));
+        List<User> users = create(count, passwordHash);
+        if (format.equals("binary")) {
+            BinaryUserStore.write(file, users);
+        } else {
+            CsvUserStore.write(file.toFile(), users);
+        }
+        return file.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package org.example;
+
+// Класс Admin представляет администратора.
+class Admin extends User {
+    // Конструктор для создания объекта администратора.
+    public Admin(String username, String password) {
+        super(username, password); // Вызов конструктора родительского класса
+        setTemplate(PolicyTemplates.getDefault().adminTemplate()); // Администраторы получают свой шаблон политики
+    }
+
+    // Переопределенный метод toString для строкового представления администратора.
+    @Override
+    public String toString() {
+        return "Администратор: " + getUsername();
+    }
+}
@@ -0,0 +1,417 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Класс AuditLog — журнал аудита входов и действий администраторов с защитой от подмены.
+// Вызов record на горячем пути — только создание события и один CAS в RingBuffer: форматирование,
+// хеширование и запись в файл выполняет отдельный поток пакетами. Каждая строка содержит SHA-256
+// от хеша предыдущей строки и своего текста, поэтому изменение, удаление или вставка строки
+// обнаруживаются проверкой (AuditReader, команда audit-verify), в том числе на границах файлов:
+// первая строка каждого файла (FILE_START) продолжает цепочку предыдущего. Файлы только дописываются;
+// новый файл начинается при каждом запуске и при превышении размера -Dauth.audit.maxBytes.
+// Если буфер переполнен, событие не ждет места, а учитывается в записи DROPPED, тоже входящей в цепочку.
+//
+// Формат строки (поля через табуляцию; табуляция, перевод строки и \ экранируются):
+//   seq  time  type  actor  subject  source  outcome  detail  hash
+final class AuditLog {
+    // Тип события аудита.
+    enum Type {
+        LOGIN, LOGOUT, CREDENTIALS, REGISTER, BLOCK, PASSWORD_CHANGE, PASSWORD_RESET, POLICY, TEMPLATE_POLICY,
+        TEMPLATE_ASSIGN, RESTRICTIONS, IMPORT, FILE_START, DROPPED
+    }
+
+    static final String GENESIS = "0".repeat(64); // Хеш перед первой записью цепочки
+    static final int FIELDS = 9; // Число полей строки
+    static final String PREV_HASH = "prevHash="; // Метка хеша предыдущего файла в записи FILE_START
+    // Время в фиксированном формате UTC: строки времени сравниваются лексикографически
+    static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private static final Logger LOG = Logger.getLogger(AuditLog.class.getName());
+    private static final int BATCH = 1024; // Максимум событий в одной записи файла
+    private static final int MAX_FIELD = 1024; // Ограничение длины поля
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5); // Пауза потока записи без событий
+    private static final AuditLog DISABLED = new AuditLog(); // Журнал, отключенный свойством auth.audit.enabled
+    private static final ConcurrentHashMap<Path, AuditLog> OPEN = new ConcurrentHashMap<>(); // Открытые журналы по каталогу
+    private static final ThreadLocal<String> ACTOR = new ThreadLocal<>(); // Исполнитель действий текущего потока
+
+    static {
+        // При завершении программы оставшиеся в буфере события дописываются в файл
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (AuditLog log : OPEN.values()) {
+                log.close();
+            }
+        }, "audit-shutdown"));
+    }
+
+    // Класс Entry — событие до записи в файл.
+    private static final class Entry {
+        final long time; // Время события (мс)
+        final Type type;
+        final String actor; // Кто выполнил действие
+        final String subject; // Над кем выполнено действие
+        final String source; // Источник запроса
+        final String outcome; // Исход операции
+        final String detail; // Подробности
+
+        Entry(long time, Type type, String actor, String subject, String source, String outcome, String detail) {
+            this.time = time;
+            this.type = type;
+            this.actor = actor;
+            this.subject = subject;
+            this.source = source;
+            this.outcome = outcome;
+            this.detail = detail;
+        }
+    }
+
+    // Класс Scope задает исполнителя действий потока до выхода из блока try и затем восстанавливает прежнего.
+    static final class Scope implements AutoCloseable {
+        private final String previous; // Прежний исполнитель
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                ACTOR.remove();
+            } else {
+                ACTOR.set(previous);
+            }
+        }
+    }
+
+    private final Path directory; // Каталог файлов журнала
+    private final RingBuffer<Entry> ring; // Буфер событий (null — журнал отключен)
+    private final long maxBytes; // Размер файла, после которого начинается новый
+    private final boolean fsync; // Признак сброса каждой записи на диск
+    private final LongAdder dropped = new LongAdder(); // События, не поместившиеся в буфер
+    private final LongAdder written = new LongAdder(); // Записанные события
+    private final Thread writer; // Поток записи
+    private volatile boolean closed; // Признак закрытия журнала
+    private int references; // Число владельцев, получивших журнал через open (изменяется под блокировкой OPEN)
+
+    // Состояние потока записи
+    private MessageDigest digest; // SHA-256 для цепочки
+    private long sequence; // Номер последней записи
+    private String lastHash = GENESIS; // Хеш последней записи
+    private int fileIndex; // Номер текущего файла
+    private FileChannel channel; // Текущий файл
+    private long fileBytes; // Размер текущего файла
+    private long reportedDrops; // Пропуски, уже отраженные записью DROPPED
+    private long formattedMillis = -1; // Время последней отформатированной записи
+    private String formattedTime; // Его текст (события одной миллисекунды форматируются один раз)
+
+    // Конструктор для создания отключенного журнала.
+    private AuditLog() {
+        this.directory = null;
+        this.ring = null;
+        this.maxBytes = 0;
+        this.fsync = false;
+        this.writer = null;
+    }
+
+    // Конструктор для создания журнала в каталоге; поток записи запускается методом start.
+    private AuditLog(Path directory, int capacity, long maxBytes, boolean fsync) {
+        this.directory = directory;
+        this.ring = new RingBuffer<>(capacity);
+        this.maxBytes = maxBytes;
+        this.fsync = fsync;
+        this.writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+    }
+
+    // Метод для получения журнала каталога; в процессе один журнал на каталог. Каждый вызов open
+    // должен завершаться вызовом release, когда журнал больше не нужен.
+    // При -Dauth.audit.enabled=false или ошибке открытия возвращается отключенный журнал.
+    static AuditLog open(Path directory) {
+        if (!Boolean.parseBoolean(System.getProperty("auth.audit.enabled", "true"))) {
+            return DISABLED;
+        }
+        return OPEN.compute(directory.toAbsolutePath().normalize(), (path, log) -> {
+            if (log == null) {
+                log = new AuditLog(path, Integer.getInteger("auth.audit.bufferSize", 1 << 16),
+                        Long.getLong("auth.audit.maxBytes", 64L << 20), Boolean.parseBoolean(System.getProperty("auth.audit.fsync", "true")));
+                try {
+                    log.start();
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Журнал аудита недоступен: {0}", e.getMessage());
+                    return DISABLED;
+                }
+            }
+            if (log != DISABLED) {
+                log.references++;
+            }
+            return log;
+        });
+    }
+
+    // Метод для освобождения журнала, полученного через open; последний владелец закрывает журнал.
+    public void release() {
+        if (ring == null) {
+            return;
+        }
+        boolean[] last = new boolean[1];
+        OPEN.computeIfPresent(directory, (path, log) -> {
+            if (log != this || --references > 0) {
+                return log;
+            }
+            last[0] = true;
+            return null;
+        });
+        if (last[0]) {
+            close(); // Дописывание буфера выполняется вне блокировки таблицы журналов
+        }
+    }
+
+    // Метод для задания исполнителя действий текущего потока: try (AuditLog.Scope ignored = AuditLog.actingAs(admin)) {...}
+    static Scope actingAs(String actor) {
+        Scope scope = new Scope(ACTOR.get());
+        ACTOR.set(actor);
+        return scope;
+    }
+
+    // Метод для получения исполнителя действий текущего потока (null, если не задан).
+    static String actor() {
+        return ACTOR.get();
+    }
+
+    // Метод для записи события; не блокируется и не выполняет ввод-вывод.
+    public void record(Type type, String actor, String subject, String source, String outcome, String detail) {
+        if (ring == null || closed) {
+            return;
+        }
+        if (!ring.offer(new Entry(System.currentTimeMillis(), type, actor, subject, source, outcome, detail))) {
+            dropped.increment();
+        }
+    }
+
+    public boolean isEnabled() {return ring != null;}
+    public Path getDirectory() {return directory;}
+    public long getWritten() {return written.sum();}
+    public long getDropped() {return dropped.sum();}
+
+    // Метод для ожидания записи событий, переданных до вызова (для команд и завершения работы).
+    public void flush() {
+        if (ring == null) {
+            return;
+        }
+        long target = ring.offered();
+        while (ring.consumed() < target && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_NANOS);
+        }
+    }
+
+    // Метод для закрытия журнала: поток записи дописывает буфер и закрывает файл.
+    public void close() {
+        if (ring == null || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Метод для открытия журнала: восстановление цепочки по последнему файлу и начало нового файла.
+    private void start() throws IOException {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        Files.createDirectories(directory);
+        List<Path> files = AuditReader.files(directory);
+        String previousFile = "-";
+        for (int i = files.size() - 1; i >= 0; i--) {
+            // Оборванная при сбое последняя строка не входит в цепочку: продолжение идет от последней полной
+            String line = AuditReader.lastLine(files.get(i));
+            if (line != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length != FIELDS) {
+                    throw new IOException("Некорректная последняя запись в " + files.get(i));
+                }
+                sequence = Long.parseLong(fields[0]);
+                lastHash = fields[FIELDS - 1];
+                previousFile = files.get(i).getFileName().toString();
+                break;
+            }
+        }
+        fileIndex = files.isEmpty() ? 0 : AuditReader.indexOf(files.get(files.size() - 1));
+        openNextFile(previousFile);
+        AuthMetrics.getDefault().registerGauge("auth_audit_records_total", written::sum);
+        AuthMetrics.getDefault().registerGauge("auth_audit_dropped_total", dropped::sum);
+        writer.start();
+    }
+
+    // Метод потока записи: события забираются пачками, при отсутствии событий поток засыпает.
+    private void run() {
+        List<Entry> batch = new ArrayList<>(BATCH);
+        while (true) {
+            boolean stopping = closed; // Читается до выборки: все события, переданные до close, будут записаны
+            ring.drainTo(batch, BATCH);
+            long drops = dropped.sum();
+            if (!batch.isEmpty() || drops != reportedDrops) {
+                write(batch, drops);
+                batch.clear();
+                continue;
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(this, IDLE_NANOS);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Ошибка закрытия журнала аудита: {0}", e.getMessage());
+        }
+    }
+
+    // Метод для записи пачки событий одной операцией записи (и одним сбросом на диск).
+    private void write(List<Entry> batch, long drops) {
+        long sequenceBefore = sequence;
+        String hashBefore = lastHash;
+        StringBuilder text = new StringBuilder(batch.size() * 160 + 160);
+        if (drops != reportedDrops) {
+            append(text, new Entry(System.currentTimeMillis(), Type.DROPPED, null, null, null, null,
+                    "Пропущено событий при переполнении буфера: " + (drops - reportedDrops)));
+        }
+        for (Entry entry : batch) {
+            append(text, entry);
+        }
+        try {
+            writeFully(text);
+            reportedDrops = drops;
+            written.add(batch.size());
+            if (fileBytes >= maxBytes) {
+                openNextFile(currentFile().getFileName().toString());
+            }
+        } catch (IOException e) {
+            // Цепочка возвращается к последней записанной строке, а пачка учитывается как пропуск:
+            // следующий файл продолжит цепочку, и в нем появится запись DROPPED
+            LOG.log(Level.WARNING, "Ошибка записи журнала аудита: {0}", e.getMessage());
+            sequence = sequenceBefore;
+            lastHash = hashBefore;
+            dropped.add(batch.size());
+            try {
+                openNextFile(currentFile().getFileName().toString());
+            } catch (IOException again) {
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1)); // Повтор после паузы
+            }
+        }
+    }
+
+    // Метод для записи текста в текущий файл.
+    private void writeFully(CharSequence text) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+        fileBytes += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    // Метод для начала нового файла: первая запись FILE_START продолжает цепочку предыдущего файла.
+    private void openNextFile(String previousFile) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        fileIndex++;
+        channel = FileChannel.open(currentFile(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        fileBytes = 0;
+        long sequenceBefore = sequence;
+        String hashBefore = lastHash;
+        StringBuilder text = new StringBuilder(256);
+        append(text, new Entry(System.currentTimeMillis(), Type.FILE_START, null, null, null, null,
+                "prev=" + previousFile + " " + PREV_HASH + lastHash));
+        try {
+            writeFully(text);
+        } catch (IOException e) {
+            sequence = sequenceBefore;
+            lastHash = hashBefore;
+            throw e;
+        }
+    }
+
+    // Метод для получения пути текущего файла.
+    private Path currentFile() {
+        return directory.resolve(AuditReader.fileName(fileIndex));
+    }
+
+    // Метод для добавления строки события с очередным номером и хешем цепочки.
+    private void append(StringBuilder text, Entry entry) {
+        int start = text.length();
+        if (entry.time != formattedMillis) {
+            formattedMillis = entry.time;
+            formattedTime = TIME.format(Instant.ofEpochMilli(entry.time));
+        }
+        text.append(++sequence).append('\t').append(formattedTime).append('\t').append(entry.type.name());
+        for (String field : new String[]{entry.actor, entry.subject, entry.source, entry.outcome, entry.detail}) {
+            text.append('\t');
+            escape(text, field);
+        }
+        lastHash = chain(digest, lastHash, text.substring(start));
+        text.append('\t').append(lastHash).append('\n');
+    }
+
+    // Метод для вычисления хеша строки: SHA-256 от хеша предыдущей строки и текста строки без хеша.
+    static String chain(MessageDigest digest, String previousHash, String body) {
+        digest.update(previousHash.getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) '\n');
+        digest.update(body.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Метод для экранирования поля; null записывается пустой строкой, длинные значения обрезаются.
+    static void escape(StringBuilder text, String field) {
+        if (field == null) {
+            return;
+        }
+        int length = Math.min(field.length(), MAX_FIELD);
+        for (int i = 0; i < length; i++) {
+            char c = field.charAt(i);
+            switch (c) {
+                case '\t': text.append("\\t"); break;
+                case '\n': text.append("\\n"); break;
+                case '\r': text.append("\\r"); break;
+                case '\\': text.append("\\\\"); break;
+                default: text.append(c);
+            }
+        }
+    }
+
+    // Метод для получения экранированного значения поля (для сравнения с полями строк файла).
+    static String escape(String field) {
+        StringBuilder text = new StringBuilder();
+        escape(text, field);
+        return text.toString();
+    }
+}
@@ -0,0 +1,321 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Класс AuditReader проверяет и читает файлы журнала аудита без загрузки их в память: файлы читаются
+// потоком по строке, а при фильтре по времени файлы вне интервала пропускаются целиком по времени их
+// первой записи. Используется командами audit-verify и audit-read.
+final class AuditReader {
+    private static final Pattern FILE_NAME = Pattern.compile("audit-(\\d{6,})\\.log"); // Имена файлов журнала
+    private static final int BUFFER_SIZE = 1 << 16; // Буфер чтения
+
+    private AuditReader() {
+    }
+
+    // Класс Filter — условия отбора записей; null в поле означает любое значение.
+    static final class Filter {
+        Set<String> types; // Имена типов событий
+        String actor; // Исполнитель
+        String subject; // Пользователь, над которым выполнено действие
+        String source; // Источник запроса
+        String outcome; // Исход операции
+        String from; // Начало интервала (включительно) в формате AuditLog.TIME
+        String to; // Конец интервала (не включительно) в формате AuditLog.TIME
+
+        // Метод для разбора условия вида имя=значение (type=LOGIN,BLOCK, actor=admin, from=2026-01-31 и т. п.).
+        void parse(String condition) {
+            int eq = condition.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Ожидалось условие имя=значение: " + condition);
+            }
+            String name = condition.substring(0, eq);
+            String value = condition.substring(eq + 1);
+            switch (name) {
+                case "type":
+                    types = new HashSet<>();
+                    for (String type : value.split(",")) {
+                        types.add(AuditLog.Type.valueOf(type.trim().toUpperCase()).name());
+                    }
+                    break;
+                case "actor": actor = AuditLog.escape(value); break;
+                case "subject": subject = AuditLog.escape(value); break;
+                case "source": source = AuditLog.escape(value); break;
+                case "outcome": outcome = value.toUpperCase(); break;
+                case "from": from = time(value); break;
+                case "to": to = time(value); break;
+                default: throw new IllegalArgumentException("Неизвестное условие: " + name);
+            }
+        }
+
+        // Метод для приведения момента времени (ISO-8601 или дата) к формату журнала.
+        private static String time(String value) {
+            try {
+                return AuditLog.TIME.format(Instant.parse(value));
+            } catch (DateTimeParseException e) {
+                return AuditLog.TIME.format(LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC));
+            }
+        }
+
+        // Метод для проверки записи по полям строки.
+        boolean matches(String[] fields) {
+            return (types == null || types.contains(fields[2]))
+                    && (actor == null || actor.equals(fields[3]))
+                    && (subject == null || subject.equals(fields[4]))
+                    && (source == null || source.equals(fields[5]))
+                    && (outcome == null || outcome.equals(fields[6]))
+                    && (from == null || fields[1].compareTo(from) >= 0)
+                    && (to == null || fields[1].compareTo(to) < 0);
+        }
+    }
+
+    // Класс Result — итог проверки цепочки.
+    static final class Result {
+        long records; // Проверено записей
+        int files; // Проверено файлов
+        long firstSequence; // Номер первой записи
+        long lastSequence; // Номер последней записи
+        String anchor = AuditLog.GENESIS; // Хеш, от которого начинается проверенная цепочка
+        String head = AuditLog.GENESIS; // Хеш последней записи
+        final List<String> warnings = new ArrayList<>(); // Предупреждения (оборванные при сбое строки)
+        String error; // Первое нарушение целостности (null — цепочка цела)
+
+        public boolean isValid() {return error == null;}
+
+        // Переопределенный метод toString для вывода итога проверки.
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            for (String warning : warnings) {
+                out.append("Предупреждение: ").append(warning).append('\n');
+            }
+            if (error != null) {
+                return out.append("Нарушение целостности: ").append(error).toString();
+            }
+            out.append("Цепочка цела. Файлов: ").append(files).append(", записей: ").append(records);
+            if (records > 0) {
+                out.append(" (").append(firstSequence).append('–').append(lastSequence).append(')');
+            }
+            if (!anchor.equals(AuditLog.GENESIS)) {
+                out.append("\nЦепочка начинается не с первой записи (ранние файлы удалены), исходный хеш: ").append(anchor);
+            }
+            return out.append("\nХеш последней записи: ").append(head).toString();
+        }
+    }
+
+    // Метод для получения имени файла журнала по номеру.
+    static String fileName(int index) {
+        return String.format("audit-%06d.log", index);
+    }
+
+    // Метод для получения номера файла журнала по пути.
+    static int indexOf(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    // Метод для получения файлов журнала каталога по возрастанию номера.
+    static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "audit-*.log")) {
+            for (Path file : stream) {
+                if (indexOf(file) >= 0) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort((a, b) -> Integer.compare(indexOf(a), indexOf(b)));
+        return files;
+    }
+
+    // Метод для чтения последней полной строки файла по его концу (null, если полных строк нет).
+    static String lastLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int length = (int) Math.min(size, BUFFER_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining() && channel.read(buffer, size - length + buffer.position()) > 0) {
+                // Чтение хвоста файла
+            }
+            byte[] bytes = buffer.array();
+            int end = length - 1;
+            while (end >= 0 && bytes[end] != '\n') {
+                end--; // Оборванная строка после последнего перевода строки пропускается
+            }
+            if (end < 0) {
+                return null;
+            }
+            int begin = end - 1;
+            while (begin >= 0 && bytes[begin] != '\n') {
+                begin--;
+            }
+            if (begin < 0 && length < size) {
+                throw new IOException("Слишком длинная строка в конце " + file);
+            }
+            return new String(bytes, begin + 1, end - begin - 1, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Метод для проверки признака оборванной последней строки (файл не заканчивается переводом строки).
+    private static boolean hasTruncatedTail(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    // Метод для открытия файла на чтение по строкам.
+    private static BufferedReader open(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // Метод для проверки цепочки хешей всех файлов каталога. Проверяются хеш каждой строки, непрерывность
+    // номеров и продолжение цепочки в первой строке каждого файла; хеш последней записи стоит хранить
+    // отдельно, чтобы обнаружить и удаление последних записей.
+    static Result verify(Path directory) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        Result result = new Result();
+        String expectedHash = null;
+        long expectedSequence = -1;
+        for (Path file : files(directory)) {
+            result.files++;
+            boolean truncated = hasTruncatedTail(file);
+            try (BufferedReader reader = open(file)) {
+                String line = reader.readLine();
+                long number = 0;
+                while (line != null) {
+                    String next = reader.readLine();
+                    number++;
+                    String where = file.getFileName() + ", строка " + number;
+                    if (next == null && truncated) {
+                        result.warnings.add(where + ": запись оборвана при сбое и не входит в цепочку");
+                        break;
+                    }
+                    String[] fields = line.split("\t", -1);
+                    if (fields.length != AuditLog.FIELDS) {
+                        result.error = where + ": некорректное число полей";
+                        return result;
+                    }
+                    long sequence;
+                    try {
+                        sequence = Long.parseLong(fields[0]);
+                        AuditLog.Type.valueOf(fields[2]);
+                    } catch (IllegalArgumentException e) {
+                        result.error = where + ": некорректная запись";
+                        return result;
+                    }
+                    if (number == 1) {
+                        // Первая запись файла объявляет хеш, которым закончился предыдущий файл
+                        String detail = fields[7];
+                        int mark = detail.indexOf(AuditLog.PREV_HASH);
+                        if (!fields[2].equals(AuditLog.Type.FILE_START.name()) || mark < 0) {
+                            result.error = where + ": файл не начинается записью FILE_START";
+                            return result;
+                        }
+                        String declared = detail.substring(mark + AuditLog.PREV_HASH.length());
+                        if (expectedHash == null) {
+                            expectedHash = declared;
+                            result.anchor = declared;
+                        } else if (!declared.equals(expectedHash)) {
+                            result.error = where + ": файл не продолжает цепочку предыдущего (удалены или изменены записи)";
+                            return result;
+                        }
+                    }
+                    if (expectedSequence >= 0 && sequence != expectedSequence + 1) {
+                        result.error = where + ": пропуск номеров записей (" + expectedSequence + " → " + sequence + ")";
+                        return result;
+                    }
+                    String hash = AuditLog.chain(digest, expectedHash, line.substring(0, line.lastIndexOf('\t')));
+                    if (!hash.equals(fields[AuditLog.FIELDS - 1])) {
+                        result.error = where + ": хеш не совпадает (запись изменена)";
+                        return result;
+                    }
+                    if (result.records == 0) {
+                        result.firstSequence = sequence;
+                    }
+                    result.records++;
+                    result.lastSequence = sequence;
+                    expectedHash = hash;
+                    expectedSequence = sequence;
+                    line = next;
+                }
+            }
+        }
+        if (expectedHash != null) {
+            result.head = expectedHash;
+        }
+        return result;
+    }
+
+    // Метод для потокового чтения записей, подходящих под фильтр; возвращает число найденных записей.
+    // Строки передаются в sink без поля хеша.
+    static long read(Path directory, Filter filter, Consumer<String> sink) throws IOException {
+        List<Path> files = files(directory);
+        String[] starts = new String[files.size()]; // Время первой записи каждого файла
+        for (int i = 0; i < files.size(); i++) {
+            try (BufferedReader reader = open(files.get(i))) {
+                String first = reader.readLine();
+                starts[i] = first == null ? "" : first.split("\t", 3)[1];
+            }
+        }
+        long found = 0;
+        for (int i = 0; i < files.size(); i++) {
+            if (filter.to != null && starts[i].compareTo(filter.to) >= 0) {
+                break; // Следующие файлы начаты позже конца интервала
+            }
+            if (filter.from != null && i + 1 < files.size() && starts[i + 1].compareTo(filter.from) < 0) {
+                continue; // Все записи файла сделаны до начала следующего файла, то есть раньше интервала
+            }
+            try (BufferedReader reader = open(files.get(i))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", -1);
+                    if (fields.length != AuditLog.FIELDS) {
+                        continue; // Оборванная при сбое строка
+                    }
+                    if (filter.matches(fields)) {
+                        sink.accept(line.substring(0, line.lastIndexOf('\t')));
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
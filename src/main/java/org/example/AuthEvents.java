@@ -0,0 +1,71 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Класс AuthEvents содержит пользовательские события JDK Flight Recorder для горячих путей аутентификации.
+// В записи JFR они отображаются рядом с событиями GC и JIT, что позволяет сопоставлять всплески задержек.
+// Пока запись не запущена, begin/commit почти ничего не стоят.
+final class AuthEvents {
+    private AuthEvents() {
+    }
+
+    // Событие попытки входа: от вызова authenticate до готового результата.
+    @Name("org.example.Login")
+    @Label("Login")
+    @Category("Authentication")
+    static final class Login extends Event {
+        @Label("Username")
+        String username;
+
+        @Label("Source")
+        String source;
+
+        @Label("Outcome")
+        String outcome;
+    }
+
+    // Событие вычисления или проверки хеша пароля в пуле проверки.
+    @Name("org.example.PasswordHash")
+    @Label("Password Hash")
+    @Category("Authentication")
+    static final class PasswordHash extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Iterations")
+        int iterations;
+    }
+
+    // Событие пакетной записи файла пользователей, объединившей несколько сохранений.
+    @Name("org.example.GroupCommit")
+    @Label("Group Commit")
+    @Category("Authentication")
+    static final class GroupCommit extends Event {
+        @Label("Requests")
+        int requests;
+
+        @Label("Bytes Written")
+        @DataAmount
+        long bytes;
+    }
+
+    // Событие записи пользователей в хранилище.
+    @Name("org.example.PersistenceWrite")
+    @Label("Persistence Write")
+    @Category("Authentication")
+    static final class PersistenceWrite extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Store")
+        String store;
+
+        @Label("Bytes Written")
+        @DataAmount
+        long bytes;
+    }
+}
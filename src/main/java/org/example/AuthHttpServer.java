@@ -0,0 +1,366 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Класс AuthHttpServer предоставляет AuthService по HTTP через встроенный com.sun.net.httpserver.
+// Каждый запрос выполняется в отдельном виртуальном потоке; параметры передаются в строке запроса
+// или в теле application/x-www-form-urlencoded, ответ возвращается в формате JSON. Пароли принимаются
+// только в теле запроса: строка запроса попадает в журналы прокси и историю. По умолчанию сервер
+// слушает только локальный интерфейс.
+//
+//   POST /login    username, password                 -> token
+//   POST /session  token                              (проверка сеанса)
+//   POST /logout   token
+//   POST /register username
+//   POST /block    token | admin, adminPassword; username
+//   POST /policy   token | admin, adminPassword; username, minLength, maxLength, minDigits, minSpecialChars,
+//                  minUpper, minLower, maxRepeat, maxSequence (любое подмножество)
+//                  либо enabled=true|false для всех пользователей;
+//                  template=id с username назначает шаблон, без username — меняет политику шаблона
+//   GET  /metrics  метрики в текстовом формате Prometheus
+// Токен администратора избавляет от повторной проверки пароля при каждом запросе; пароль администратора
+// проверяется для одной операции и сеанса не создает.
+class AuthHttpServer {
+    private static final Logger LOG = Logger.getLogger(AuthHttpServer.class.getName());
+
+    // Параметры с паролями, недопустимые в строке запроса
+    private static final String[] SECRET_PARAMETERS = {"password", "adminPassword"};
+    // Имена параметров /policy в порядке PasswordRule
+    private static final String[] POLICY_PARAMETERS = {
+            "minLength", "maxLength", "minDigits", "minSpecialChars", "minUpper", "minLower", "maxRepeat", "maxSequence"};
+
+    private final AuthService service; // Сервис аутентификации
+    private final HttpServer server;   // HTTP-сервер JDK
+    private final ExecutorService executor; // Исполнитель: виртуальный поток на запрос
+    private final Semaphore hashing; // Ограничение одновременных операций с хешированием паролей
+
+    // Конструктор для создания сервера на указанном порту локального интерфейса.
+    public AuthHttpServer(AuthService service, int port) throws IOException {
+        this(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    // Конструктор для создания сервера на указанном адресе.
+    public AuthHttpServer(AuthService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(address, Integer.getInteger("auth.http.backlog", 1024));
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        // Виртуальные потоки дешево ждут разрешения, не переполняя очередь пула проверки паролей
+        this.hashing = new Semaphore(Integer.getInteger("auth.http.maxInFlight", 512));
+        server.setExecutor(executor);
+        server.createContext("/login", handler(this::login));
+        server.createContext("/session", handler(this::session));
+        server.createContext("/logout", handler(this::logout));
+        server.createContext("/register", handler(this::register));
+        server.createContext("/block", handler(this::block));
+        server.createContext("/policy", handler(this::policy));
+        server.createContext("/metrics", this::metrics);
+    }
+
+    // Метод для запуска сервера.
+    public void start() {
+        server.start();
+        LOG.info("Сервер аутентификации запущен на " + server.getAddress() + ".");
+    }
+
+    // Метод для получения адреса, на котором принимаются соединения.
+    public InetSocketAddress getAddress() {return server.getAddress();}
+
+    // Метод для остановки сервера.
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // Обработчик выдачи метрик для Prometheus.
+    private void metrics(HttpExchange exchange) throws IOException {
+        try {
+            byte[] bytes = AuthMetrics.getDefault().dumpPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Интерфейс обработчика конечной точки: параметры запроса -> результат.
+    interface Endpoint {
+        AuthResult handle(Map<String, String> params, HttpExchange exchange) throws InterruptedException;
+    }
+
+    // Метод для обертки конечной точки в HttpHandler с разбором параметров и записью ответа.
+    private HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            try {
+                AuthResult result;
+                if (!exchange.getRequestMethod().equals("POST")) {
+                    result = AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Поддерживается только метод POST.");
+                    respond(exchange, 405, result);
+                    return;
+                }
+                Map<String, String> query = new HashMap<>();
+                Map<String, String> params;
+                try {
+                    parseForm(exchange.getRequestURI().getRawQuery(), query);
+                    params = parameters(exchange, query);
+                } catch (IllegalArgumentException e) {
+                    // Некорректная percent-кодировка (например, "%zz") — ошибка клиента, а не сервера
+                    result = AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Некорректная кодировка параметров запроса.");
+                    respond(exchange, 400, result);
+                    return;
+                }
+                for (String secret : SECRET_PARAMETERS) {
+                    if (query.containsKey(secret)) {
+                        result = AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Пароль передается только в теле запроса.");
+                        respond(exchange, 400, result);
+                        return;
+                    }
+                }
+                try {
+                    result = endpoint.handle(params, exchange);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result = AuthResult.failure(AuthResult.Status.BUSY, null, "Запрос прерван.");
+                }
+                respond(exchange, statusCode(result.getStatus()), result);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Ошибка обработки " + exchange.getRequestURI().getPath(), e);
+                respond(exchange, 500, AuthResult.failure(AuthResult.Status.INTERNAL_ERROR, null, "Внутренняя ошибка сервера."));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    // Конечная точка входа пользователя.
+    private AuthResult login(Map<String, String> params, HttpExchange exchange) throws InterruptedException {
+        return authenticate(params.get("username"), params.get("password"), exchange, true);
+    }
+
+    // Конечная точка проверки сеанса.
+    private AuthResult session(Map<String, String> params, HttpExchange exchange) {
+        return service.validateSession(params.get("token"));
+    }
+
+    // Конечная точка завершения сеанса.
+    private AuthResult logout(Map<String, String> params, HttpExchange exchange) {
+        return service.logout(params.get("token"));
+    }
+
+    // Конечная точка регистрации пользователя.
+    private AuthResult register(Map<String, String> params, HttpExchange exchange) {
+        return service.register(params.get("username"));
+    }
+
+    // Конечная точка блокировки пользователя администратором.
+    private AuthResult block(Map<String, String> params, HttpExchange exchange) throws InterruptedException {
+        AuthResult admin = authenticateAdmin(params, exchange);
+        if (!admin.isSuccess()) {
+            return admin;
+        }
+        try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUser().getUsername())) {
+            return service.block(params.get("username"));
+        }
+    }
+
+    // Конечная точка настройки ограничений на пароль администратором; действия записываются в журнал аудита от его имени.
+    private AuthResult policy(Map<String, String> params, HttpExchange exchange) throws InterruptedException {
+        AuthResult admin = authenticateAdmin(params, exchange);
+        if (!admin.isSuccess()) {
+            return admin;
+        }
+        try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUser().getUsername())) {
+            return policy(params);
+        }
+    }
+
+    // Метод для выполнения настройки ограничений по параметрам запроса.
+    private AuthResult policy(Map<String, String> params) {
+        if (params.containsKey("enabled")) {
+            return service.setRestrictionsEnabled(Boolean.parseBoolean(params.get("enabled")));
+        }
+        String templateId = params.get("template");
+        if (templateId != null && !params.containsKey("username")) {
+            return templatePolicy(templateId, params);
+        }
+        if (templateId != null) {
+            AuthResult assigned = service.assignTemplate(params.get("username"), templateId);
+            if (!assigned.isSuccess() || !hasPolicyParameters(params)) {
+                return assigned;
+            }
+        }
+        User user = service.findUser(params.get("username"));
+        if (user == null) {
+            return AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден.");
+        }
+        try {
+            // Неуказанные правила сохраняют текущие значения политики пользователя
+            PasswordPolicy policy = user.getPasswordPolicy();
+            for (int i = 0; i < POLICY_PARAMETERS.length; i++) {
+                String value = params.get(POLICY_PARAMETERS[i]);
+                if (value != null) {
+                    policy = policy.with(PasswordRule.values()[i], Integer.parseInt(value));
+                }
+            }
+            return service.setPolicy(user.getUsername(), policy);
+        } catch (NumberFormatException e) {
+            return AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Некорректный ввод. Пожалуйста, введите числа.");
+        }
+    }
+
+    // Метод для изменения политики шаблона; неуказанные правила сохраняют текущие значения шаблона.
+    private AuthResult templatePolicy(String templateId, Map<String, String> params) {
+        PolicyTemplate existing = null;
+        for (PolicyTemplate template : service.listTemplates()) {
+            if (template.getId().equals(templateId)) {
+                existing = template;
+            }
+        }
+        try {
+            PasswordPolicy policy = existing != null ? existing.getPolicy() : PasswordPolicy.DEFAULT;
+            for (int i = 0; i < POLICY_PARAMETERS.length; i++) {
+                String value = params.get(POLICY_PARAMETERS[i]);
+                if (value != null) {
+                    policy = policy.with(PasswordRule.values()[i], Integer.parseInt(value));
+                }
+            }
+            return service.setTemplatePolicy(templateId, policy);
+        } catch (NumberFormatException e) {
+            return AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Некорректный ввод. Пожалуйста, введите числа.");
+        }
+    }
+
+    // Метод для проверки наличия параметров правил политики.
+    private static boolean hasPolicyParameters(Map<String, String> params) {
+        for (String name : POLICY_PARAMETERS) {
+            if (params.containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Метод для проверки администратора по токену сеанса либо по параметрам admin и adminPassword
+    // (без создания сеанса).
+    private AuthResult authenticateAdmin(Map<String, String> params, HttpExchange exchange) throws InterruptedException {
+        AuthResult result = params.containsKey("token")
+                ? service.validateSession(params.get("token"))
+                : authenticate(params.get("admin"), params.get("adminPassword"), exchange, false);
+        if (result.isSuccess() && !(result.getUser() instanceof Admin)) {
+            return AuthResult.failure(AuthResult.Status.BLOCKED, result.getUser(), "Операция доступна только администратору.");
+        }
+        return result;
+    }
+
+    // Метод для входа (issueSession) или проверки учетных данных с ограничением числа одновременных проверок хеша;
+    // источником попытки считается адрес клиента.
+    private AuthResult authenticate(String username, String password, HttpExchange exchange, boolean issueSession) throws InterruptedException {
+        if (username == null || password == null) {
+            return AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Не указаны имя пользователя или пароль.");
+        }
+        hashing.acquire();
+        try {
+            String source = exchange.getRemoteAddress().getAddress().getHostAddress();
+            return (issueSession ? service.authenticate(username, password, source)
+                    : service.verifyCredentials(username, password, source)).join();
+        } finally {
+            hashing.release();
+        }
+    }
+
+    // Метод для сопоставления исхода операции с кодом ответа HTTP.
+    static int statusCode(AuthResult.Status status) {
+        switch (status) {
+            case OK: return 200;
+            case INVALID_INPUT: return 400;
+            case WRONG_PASSWORD:
+            case INVALID_SESSION: return 401;
+            case BLOCKED: return 403;
+            case UNKNOWN_USER: return 404;
+            case ALREADY_EXISTS: return 409;
+            case POLICY_VIOLATION: return 422;
+            case LOCKED_OUT: return 423;
+            case BUSY: return 503;
+            case INTERNAL_ERROR:
+            default: return 500;
+        }
+    }
+
+    // Метод для разбора параметров тела формы поверх уже разобранной строки запроса.
+    static Map<String, String> parameters(HttpExchange exchange, Map<String, String> query) throws IOException {
+        Map<String, String> params = new HashMap<>(query);
+        try (InputStream body = exchange.getRequestBody()) {
+            parseForm(new String(body.readNBytes(64 * 1024), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    // Метод для разбора строки формата application/x-www-form-urlencoded; при некорректной
+    // percent-кодировке выбрасывает IllegalArgumentException.
+    static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    // Метод для записи результата в формате JSON.
+    private static void respond(HttpExchange exchange, int code, AuthResult result) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"status\":\"").append(result.getStatus()).append("\",\"message\":\"").append(escape(result.getMessage())).append('"');
+        if (result.getUser() != null) {
+            json.append(",\"username\":\"").append(escape(result.getUser().getUsername())).append('"');
+            json.append(",\"admin\":").append(result.getUser() instanceof Admin);
+        }
+        if (result.getToken() != null) {
+            json.append(",\"token\":\"").append(result.getToken()).append('"');
+        }
+        json.append("}\n");
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Метод для экранирования строки JSON.
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package org.example;
+
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Класс AuthMetrics собирает метрики горячих путей аутентификации: исходы входа, задержки поиска,
+// проверки хеша и записи в хранилище, объем записанных данных. Счетчики — LongAdder, задержки —
+// LatencyHistogram, поэтому запись метрики не создает конкуренции между потоками.
+// Метрики доступны через JMX (org.example:type=AuthMetrics), в текстовом формате Prometheus
+// и дополняются событиями JFR из AuthEvents.
+class AuthMetrics implements AuthMetricsMBean {
+    private static final Logger LOG = Logger.getLogger(AuthMetrics.class.getName());
+    // Байты, записанные текущим потоком: позволяют приписать объем записи конкретному событию JFR
+    private static final ThreadLocal<long[]> THREAD_BYTES = ThreadLocal.withInitial(() -> new long[1]);
+    private static final AuthMetrics DEFAULT = register(new AuthMetrics());
+
+    private final LongAdder[] logins = new LongAdder[AuthResult.Status.values().length]; // Исходы входа по статусу
+    private final LongAdder lockouts = new LongAdder(); // Временные блокировки входа
+    private final LongAdder persistWrites = new LongAdder(); // Операции записи в хранилище
+    private final LongAdder persistErrors = new LongAdder(); // Ошибки записи в хранилище
+    private final LongAdder bytesWritten = new LongAdder(); // Байты, записанные в хранилище
+    private final LongAdder corruptRecords = new LongAdder(); // Поврежденные записи, пропущенные при загрузке
+    private final LongAdder commits = new LongAdder(); // Пакетные записи файла пользователей
+    private final LongAdder committedRequests = new LongAdder(); // Запросы на сохранение, вошедшие в пакеты
+    private final LongAdder edtStalls = new LongAdder(); // Блокировки потока интерфейса дольше порога
+    private final LatencyHistogram login = new LatencyHistogram();  // Вход целиком
+    private final LatencyHistogram lookup = new LatencyHistogram(); // Поиск пользователя
+    private final LatencyHistogram hashVerify = new LatencyHistogram(); // Проверка хеша пароля
+    private final LatencyHistogram hashCompute = new LatencyHistogram(); // Вычисление хеша нового пароля
+    private final LatencyHistogram persistWrite = new LatencyHistogram(); // Запись в хранилище
+    private final LatencyHistogram edtLatency = new LatencyHistogram(); // Задержка потока обработки событий Swing
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>(); // Внешние показатели по имени
+
+    // Конструктор для создания набора метрик.
+    AuthMetrics() {
+        for (int i = 0; i < logins.length; i++) {
+            logins[i] = new LongAdder();
+        }
+    }
+
+    // Метод для получения общего набора метрик процесса.
+    public static AuthMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    // Метод для регистрации набора метрик в платформенном MBean-сервере.
+    private static AuthMetrics register(AuthMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(metrics, AuthMetricsMBean.class), new ObjectName("org.example:type=AuthMetrics"));
+        } catch (Exception | LinkageError e) {
+            LOG.log(Level.WARNING, "Не удалось зарегистрировать метрики в JMX: {0}", e.getMessage());
+        }
+        return metrics;
+    }
+
+    // Метод для учета исхода входа и его длительности.
+    public void recordLogin(AuthResult.Status status, long nanos) {
+        logins[status.ordinal()].increment();
+        login.record(nanos);
+    }
+
+    // Метод для учета временной блокировки входа.
+    public void recordLockout() {
+        lockouts.increment();
+    }
+
+    // Метод для учета длительности поиска пользователя.
+    public void recordLookup(long nanos) {
+        lookup.record(nanos);
+    }
+
+    // Метод для учета длительности проверки хеша пароля.
+    public void recordHashVerify(long nanos) {
+        hashVerify.record(nanos);
+    }
+
+    // Метод для учета длительности вычисления хеша нового пароля.
+    public void recordHashCompute(long nanos) {
+        hashCompute.record(nanos);
+    }
+
+    // Метод для учета операции записи в хранилище.
+    public void recordPersist(long nanos, boolean failed) {
+        persistWrites.increment();
+        if (failed) {
+            persistErrors.increment();
+        }
+        persistWrite.record(nanos);
+    }
+
+    // Метод для учета поврежденных записей, пропущенных при загрузке хранилища.
+    public void recordCorruptRecords(int count) {
+        corruptRecords.add(count);
+    }
+
+    // Метод для учета пакетной записи, объединившей requests запросов на сохранение.
+    public void recordGroupCommit(int requests) {
+        commits.increment();
+        committedRequests.add(requests);
+    }
+
+    // Метод для учета задержки выполнения пробы в потоке обработки событий Swing.
+    public void recordEdtLatency(long nanos) {
+        edtLatency.record(nanos);
+    }
+
+    // Метод для учета блокировки потока интерфейса дольше порога.
+    public void recordEdtStall() {
+        edtStalls.increment();
+    }
+
+    // Метод для учета байтов, записанных хранилищем.
+    public void recordBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+        THREAD_BYTES.get()[0] += bytes;
+    }
+
+    // Метод для получения числа байтов, записанных текущим потоком с момента запуска.
+    static long threadBytesWritten() {
+        return THREAD_BYTES.get()[0];
+    }
+
+    // Метод для регистрации внешнего показателя (например, числа сеансов); имя в формате Prometheus.
+    public void registerGauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    // Метод для получения значения внешнего показателя (0, если он не зарегистрирован).
+    private long gauge(String name) {
+        LongSupplier supplier = gauges.get(name);
+        return supplier == null ? 0 : supplier.getAsLong();
+    }
+
+    public long getLogins(AuthResult.Status status) {return logins[status.ordinal()].sum();}
+    public LatencyHistogram getLoginHistogram() {return login;}
+    public LatencyHistogram getLookupHistogram() {return lookup;}
+    public LatencyHistogram getHashVerifyHistogram() {return hashVerify;}
+    public LatencyHistogram getPersistHistogram() {return persistWrite;}
+    public LatencyHistogram getEdtLatencyHistogram() {return edtLatency;}
+
+    @Override public long getLoginSuccess() {return getLogins(AuthResult.Status.OK);}
+    @Override public long getLoginWrongPassword() {return getLogins(AuthResult.Status.WRONG_PASSWORD);}
+    @Override public long getLoginBlocked() {return getLogins(AuthResult.Status.BLOCKED);}
+    @Override public long getLoginUnknownUser() {return getLogins(AuthResult.Status.UNKNOWN_USER);}
+    @Override public long getLoginLockedOut() {return getLogins(AuthResult.Status.LOCKED_OUT);}
+    @Override public long getLoginBusy() {return getLogins(AuthResult.Status.BUSY);}
+    @Override public long getLockouts() {return lockouts.sum();}
+    @Override public long getActiveSessions() {return gauge("auth_sessions_active");}
+
+    @Override public double getLoginMeanMicros() {return login.getMean() / 1000;}
+    @Override public long getLoginP99Micros() {return login.percentile(0.99) / 1000;}
+    @Override public long getLookupP99Nanos() {return lookup.percentile(0.99);}
+    @Override public double getHashVerifyMeanMicros() {return hashVerify.getMean() / 1000;}
+    @Override public long getHashVerifyP99Micros() {return hashVerify.percentile(0.99) / 1000;}
+
+    @Override public long getPersistWrites() {return persistWrites.sum();}
+    @Override public long getPersistErrors() {return persistErrors.sum();}
+    @Override public long getPersistBytesWritten() {return bytesWritten.sum();}
+    @Override public long getPersistCorruptRecords() {return corruptRecords.sum();}
+    @Override public long getPersistWriteP99Micros() {return persistWrite.percentile(0.99) / 1000;}
+
+    @Override public long getEdtLatencyP99Micros() {return edtLatency.percentile(0.99) / 1000;}
+    @Override public long getEdtStalls() {return edtStalls.sum();}
+
+    // Метод для получения всех метрик в текстовом формате Prometheus (version 0.0.4).
+    @Override
+    public String dumpPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP auth_login_total Login attempts by outcome.\n# TYPE auth_login_total counter\n");
+        for (AuthResult.Status status : AuthResult.Status.values()) {
+            long value = getLogins(status);
+            if (value > 0 || status.ordinal() <= AuthResult.Status.LOCKED_OUT.ordinal()) {
+                out.append("auth_login_total{outcome=\"").append(status.name().toLowerCase(Locale.ROOT)).append("\"} ")
+                        .append(value).append('\n');
+            }
+        }
+        counter(out, "auth_lockout_total", "Temporary login lockouts.", lockouts.sum());
+        counter(out, "auth_persist_writes_total", "Writes to the user store.", persistWrites.sum());
+        counter(out, "auth_persist_errors_total", "Failed writes to the user store.", persistErrors.sum());
+        counter(out, "auth_persist_bytes_total", "Bytes written to the user store.", bytesWritten.sum());
+        counter(out, "auth_persist_corrupt_records_total", "Corrupt records skipped when loading the user store.", corruptRecords.sum());
+        counter(out, "auth_persist_group_commits_total", "Batched file writes.", commits.sum());
+        counter(out, "auth_persist_group_commit_requests_total", "Save requests merged into batched writes.", committedRequests.sum());
+        counter(out, "auth_ui_edt_stalls_total", "Swing event thread stalls above the threshold.", edtStalls.sum());
+        summary(out, "auth_login_seconds", "Login latency including password verification.", login);
+        summary(out, "auth_lookup_seconds", "User lookup latency.", lookup);
+        summary(out, "auth_hash_verify_seconds", "Password hash verification time.", hashVerify);
+        summary(out, "auth_hash_compute_seconds", "New password hash computation time.", hashCompute);
+        summary(out, "auth_persist_write_seconds", "User store write latency.", persistWrite);
+        summary(out, "auth_ui_edt_latency_seconds", "Swing event thread dispatch latency.", edtLatency);
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            out.append("# TYPE ").append(gauge.getKey()).append(' ')
+                    .append(gauge.getKey().endsWith("_total") ? "counter" : "gauge").append('\n');
+            out.append(gauge.getKey()).append(' ').append(gauge.getValue().getAsLong()).append('\n');
+        }
+        return out.toString();
+    }
+
+    // Метод для записи счетчика в формате Prometheus.
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    // Метод для записи гистограммы как summary с квантилями в секундах.
+    private static void summary(StringBuilder out, String name, String help, LatencyHistogram histogram) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.percentile(quantile))).append('\n');
+        }
+        out.append(name).append("_sum ").append(seconds(histogram.getSum())).append('\n');
+        out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+
+    // Метод для перевода наносекунд в секунды.
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+// Интерфейс AuthMetricsMBean описывает атрибуты метрик, доступные через JMX (jconsole, VisualVM).
+// JMX требует, чтобы интерфейс MBean был открытым, поэтому он объявлен public.
+public interface AuthMetricsMBean {
+    long getLoginSuccess();
+    long getLoginWrongPassword();
+    long getLoginBlocked();
+    long getLoginUnknownUser();
+    long getLoginLockedOut();
+    long getLoginBusy();
+    long getLockouts();
+    long getActiveSessions();
+
+    double getLoginMeanMicros();
+    long getLoginP99Micros();
+    long getLookupP99Nanos();
+    double getHashVerifyMeanMicros();
+    long getHashVerifyP99Micros();
+
+    long getPersistWrites();
+    long getPersistErrors();
+    long getPersistBytesWritten();
+    long getPersistCorruptRecords();
+    long getPersistWriteP99Micros();
+
+    long getEdtLatencyP99Micros();
+    long getEdtStalls();
+
+    // Метод для получения всех метрик в текстовом формате Prometheus.
+    String dumpPrometheus();
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+// Класс AuthResult описывает результат операции сервиса аутентификации вместо диалогового окна.
+final class AuthResult {
+    // Перечисление возможных исходов операции.
+    enum Status {
+        OK,               // Операция выполнена
+        UNKNOWN_USER,     // Пользователь не найден
+        BLOCKED,          // Пользователь заблокирован
+        WRONG_PASSWORD,   // Неверный пароль
+        LOCKED_OUT,       // Превышено количество попыток входа
+        ALREADY_EXISTS,   // Пользователь уже существует
+        POLICY_VIOLATION, // Пароль не соответствует ограничениям
+        INVALID_INPUT,    // Некорректные входные данные
+        BUSY,             // Пул проверки паролей перегружен
+        INVALID_SESSION,  // Сеанс не найден, истек или отозван
+        INTERNAL_ERROR    // Непредвиденная ошибка сервиса
+    }
+
+    private final Status status; // Исход операции
+    private final User user;     // Пользователь, к которому относится операция (может быть null)
+    private final String message; // Сообщение для отображения
+    private final String token;   // Токен сеанса после успешного входа (иначе null)
+
+    // Конструктор для создания результата.
+    private AuthResult(Status status, User user, String message, String token) {
+        this.status = status;
+        this.user = user;
+        this.message = message;
+        this.token = token;
+    }
+
+    // Метод для создания успешного результата.
+    static AuthResult ok(User user, String message) {
+        return new AuthResult(Status.OK, user, message, null);
+    }
+
+    // Метод для создания результата успешного входа с выданным токеном сеанса.
+    static AuthResult session(User user, String message, String token) {
+        return new AuthResult(Status.OK, user, message, token);
+    }
+
+    // Метод для создания неуспешного результата.
+    static AuthResult failure(Status status, User user, String message) {
+        return new AuthResult(status, user, message, null);
+    }
+
+    public Status getStatus() {return status;}
+    public User getUser() {return user;}
+    public String getMessage() {return message;}
+    public String getToken() {return token;}
+    public boolean isSuccess() {return status == Status.OK;}
+
+    // Переопределенный метод toString для строкового представления результата.
+    @Override
+    public String toString() {
+        return status + ": " + message;
+    }
+}
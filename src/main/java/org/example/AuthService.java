@@ -0,0 +1,84 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Интерфейс AuthService описывает потокобезопасный сервис аутентификации без привязки к Swing.
+// Операции, требующие вычисления хеша пароля, возвращают CompletableFuture.
+interface AuthService {
+    // Метод для входа пользователя по имени и паролю с локального источника.
+    default CompletableFuture<AuthResult> authenticate(String username, String password) {
+        return authenticate(username, password, "local");
+    }
+
+    // Метод для входа пользователя; source — источник запроса (например, адрес клиента) для учета попыток.
+    CompletableFuture<AuthResult> authenticate(String username, String password, String source);
+
+    // Метод для проверки имени и пароля без выдачи сеанса (подтверждение полномочий для одной операции);
+    // неудачные попытки учитываются так же, как при входе.
+    CompletableFuture<AuthResult> verifyCredentials(String username, String password, String source);
+
+    // Метод для проверки токена сеанса, выданного при входе; хранилище пользователей не используется.
+    AuthResult validateSession(String token);
+
+    // Метод для завершения сеанса.
+    AuthResult logout(String token);
+
+    // Метод для регистрации пользователя с пустым паролем.
+    AuthResult register(String username);
+
+    // Метод для блокировки пользователя.
+    AuthResult block(String username);
+
+    // Метод для смены пароля пользователем с проверкой старого пароля с локального источника.
+    default CompletableFuture<AuthResult> changePassword(String username, String oldPassword, String newPassword) {
+        return changePassword(username, oldPassword, newPassword, "local");
+    }
+
+    // Метод для смены пароля пользователем; неверный старый пароль учитывается в попытках source так же, как при входе.
+    CompletableFuture<AuthResult> changePassword(String username, String oldPassword, String newPassword, String source);
+
+    // Метод для установки нового пароля без проверки старого (смена пароля администратором).
+    CompletableFuture<AuthResult> resetPassword(String username, String newPassword);
+
+    // Метод для настройки индивидуальных ограничений на пароль пользователя.
+    AuthResult setPolicy(String username, int minLength, int maxLength, int minDigits, int minSpecialChars);
+
+    // Метод для установки политики паролей пользователя целиком (включая дополнительные правила);
+    // политика, отличная от шаблона пользователя, сохраняется как его индивидуальная настройка.
+    AuthResult setPolicy(String username, PasswordPolicy policy);
+
+    // Метод для включения/отключения ограничений на пароли для всех пользователей.
+    AuthResult setRestrictionsEnabled(boolean enabled);
+
+    // Метод для получения списка шаблонов политик паролей.
+    List<PolicyTemplate> listTemplates();
+
+    // Метод для создания шаблона или изменения его политики для всех участников.
+    AuthResult setTemplatePolicy(String templateId, PasswordPolicy policy);
+
+    // Метод для назначения пользователю шаблона политики.
+    AuthResult assignTemplate(String username, String templateId);
+
+    // Метод для пакетного импорта пользователей; progress позволяет отменить импорт до сохранения.
+    ImportReport importUsers(Reader input, UserImporter.Format format, TaskProgress progress) throws IOException;
+
+    // Метод для поиска пользователя по имени.
+    User findUser(String username);
+
+    // Метод для получения списка пользователей в порядке добавления.
+    List<User> listUsers();
+
+    // Метод для поиска имен пользователей по началу имени с учетом опечаток (поиск при вводе).
+    List<String> suggestUsernames(String query, int limit);
+
+    // Метод для получения неизменяемого снимка пользователей с номером версии.
+    UserSnapshot snapshotUsers();
+
+    // Метод для получения страницы пользователей, подходящих под запрос.
+    default UserPage listUsers(UserQuery query, int offset, int limit) {
+        return snapshotUsers().page(query, offset, limit);
+    }
+}
@@ -0,0 +1,490 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Класс AuthenticationSystem управляет аутентификацией и хранением данных.
+// Система владеет пулом проверки паролей, хранилищем и ссылкой на журнал аудита и освобождает их в close.
+class AuthenticationSystem implements AutoCloseable {
+    private static final int MIGRATION_BATCH = 64; // Паролей в одной порции фонового переноса
+    private UserIndex users; // Индекс пользователей по имени
+    private final NameIndex names = new NameIndex(); // Префиксный индекс имен для поиска
+    private final PolicyTemplates templates = PolicyTemplates.getDefault(); // Шаблоны политик паролей
+    private UserStore store;   // Хранилище пользователей
+    private PasswordVerifier verifier; // Пул проверки хешей паролей
+    private final AuditLog audit; // Журнал аудита (каталог audit рядом с файлом пользователей)
+    private volatile UserSnapshot lazySnapshot; // Последний снимок ленивого хранилища (по версии индекса)
+    private final CompletableFuture<Integer> plaintextMigration; // Фоновый перенос паролей в открытом виде
+    private volatile boolean closing; // Система закрывается: фоновый перенос прекращается
+
+    // Конструктор для инициализации системы аутентификации.
+    public AuthenticationSystem(String dataFile) {
+        this(dataFile, false);
+    }
+
+    // Конструктор для инициализации системы аутентификации; при caseInsensitiveNames имена не зависят от регистра.
+    public AuthenticationSystem(String dataFile, boolean caseInsensitiveNames) {
+        // Шаблоны читаются до пользователей, чтобы ссылки на них сразу получили сохраненные политики
+        Path dataPath = Paths.get(dataFile);
+        boolean templatesSaved = true; // Файл шаблонов уже есть (при ошибке чтения перенос не выполняется)
+        try {
+            templatesSaved = templates.load(Paths.get(System.getProperty("auth.policiesFile", dataPath.resolveSibling("policies.txt").toString())));
+        } catch (IOException e) {
+            System.out.println("Ошибка при чтении шаблонов политик: " + e.getMessage());
+        }
+        this.store = UserStore.open(dataFile); // Открывается до журнала аудита: ошибка режима не оставляет его занятым
+        this.audit = AuditLog.open(Paths.get(System.getProperty("auth.auditDir", dataPath.resolveSibling("audit").toString())));
+        this.verifier = new PasswordVerifier(PasswordHasher.getDefault());
+        this.users = new UserIndex(caseInsensitiveNames);
+        List<String> loadedNames = new ArrayList<>();
+        List<User> loaded = loadUsers(); // Загрузка пользователей из файла
+        for (User user : loaded) {
+            if (users.add(user)) {
+                loadedNames.add(user.getUsername());
+            }
+        }
+        boolean migrated = !templatesSaved && migrateRestrictions(loaded);
+        if (migrated && !store.isLazy()) {
+            saveUsers();
+        }
+        if (store.isLazy()) {
+            // Имена берутся из индекса файла без декодирования записей
+            try {
+                loadedNames.addAll(store.usernames());
+            } catch (IOException e) {
+                System.out.println("Ошибка при чтении данных о пользователях.");
+            }
+        }
+        names.addAll(loadedNames); // Индекс строится одной сортировкой
+        if (users.size() == 0 && store.lazySize() == 0) {
+            // При первом запуске создаем администратора с пустым паролем (хранится хешем)
+            users.add(new Admin("admin", verifier.getHasher().hash("")));
+            names.add("admin");
+            saveUsers();
+        }
+        // Пароли старого формата в открытом виде заменяются хешами в фоне: запуск и вход его не ждут
+        this.plaintextMigration = migratePlaintext(loaded);
+    }
+
+    // Метод для фонового переноса паролей в открытом виде в хеши с сохранением всех пользователей после него.
+    // Хеши вычисляются в пуле проверки порциями, чтобы очередь оставалась доступной для входа; ход переноса
+    // выводится в консоль. Пароль, смененный или пересчитанный при входе во время переноса, не перезаписывается.
+    private CompletableFuture<Integer> migratePlaintext(List<User> loaded) {
+        List<User> plaintext = new ArrayList<>();
+        for (User user : loaded) {
+            if (!PasswordHasher.isHashed(user.getPassword())) {
+                plaintext.add(user);
+            }
+        }
+        if (plaintext.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            int migrated = 0;
+            int reported = 0; // Последний выведенный десяток процентов
+            for (int from = 0; from < plaintext.size() && !closing; from += MIGRATION_BATCH) {
+                int to = Math.min(from + MIGRATION_BATCH, plaintext.size());
+                List<CompletableFuture<Boolean>> batch = new ArrayList<>();
+                for (User user : plaintext.subList(from, to)) {
+                    String stored = user.getPassword();
+                    if (!PasswordHasher.isHashed(stored)) {
+                        // Переполненная очередь пропускает пользователя: пароль заменится при входе или следующем запуске
+                        batch.add(verifier.hash(stored).thenApply(hash -> user.compareAndSetPassword(stored, hash))
+                                .exceptionally(error -> false));
+                    }
+                }
+                for (CompletableFuture<Boolean> done : batch) {
+                    if (done.join()) {
+                        migrated++;
+                    }
+                }
+                int percent = (int) (100L * to / plaintext.size());
+                if (percent / 10 > reported) {
+                    reported = percent / 10;
+                    System.out.println("Перенос паролей в хеши: " + to + " из " + plaintext.size() + " (" + percent + "%).");
+                }
+            }
+            if (migrated > 0) {
+                saveUsers();
+            }
+            return migrated;
+        }, task -> {
+            Thread thread = new Thread(task, "password-migration");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    // Метод для получения фонового переноса паролей; future завершается числом замененных после записи на диск.
+    public CompletableFuture<Integer> getPlaintextMigration() {return plaintextMigration;}
+
+    // Метод для переноса флага ограничений старого формата в шаблоны при первом запуске без файла шаблонов.
+    // Раньше флаг задавался общим переключением и одинаков у всех пользователей: такой флаг становится
+    // флагом шаблонов, и переключение снова действует на всех. Различающиеся флаги остаются собственными.
+    // Возвращает true, если флаг перенесен.
+    private boolean migrateRestrictions(List<User> loaded) {
+        Boolean flag = null;
+        try {
+            List<User> all = new ArrayList<>(loaded);
+            if (store.isLazy()) {
+                // Записи проверяются без добавления в индекс, чтобы не загружать всех пользователей в память
+                for (String username : store.usernames()) {
+                    all.add(store.lookup(username));
+                }
+            }
+            for (User user : all) {
+                boolean enabled = user.isPasswordRestrictionsEnabled();
+                if (flag != null && flag != enabled) {
+                    return false;
+                }
+                flag = enabled;
+            }
+        } catch (IOException e) {
+            System.out.println("Ошибка при чтении данных о пользователях.");
+            return false;
+        }
+        if (flag == null || flag == templates.defaultTemplate().isRestrictionsEnabled()) {
+            return false;
+        }
+        templates.setRestrictionsEnabled(flag);
+        for (User user : loaded) {
+            user.setPasswordRestrictionsEnabled(flag); // Флаг совпал с шаблоном: собственный флаг удаляется
+        }
+        savePolicies();
+        return true;
+    }
+
+    // Метод для загрузки пользователей из хранилища.
+    private List<User> loadUsers() {
+        try {
+            return store.load();
+        } catch (IOException e) {
+            System.out.println("Данные о пользователях не найдены. Начинаем с пустого списка.");
+            return new ArrayList<>();
+        }
+    }
+
+    // Метод для сохранения всех пользователей в хранилище; возвращает управление после записи на диск.
+    public void saveUsers() {
+        await(saveUsersAsync());
+    }
+
+    // Метод для сохранения изменения одного пользователя; в режиме журнала пишется только эта запись.
+    public void saveUser(User user) {
+        await(saveUserAsync(user));
+    }
+
+    // Метод для асинхронного сохранения всех пользователей; future завершается после записи на диск.
+    public CompletableFuture<Void> saveUsersAsync() {
+        users.touch();
+        return track("saveAll", () -> store.saveAllAsync(this::getUsers));
+    }
+
+    // Метод для асинхронного сохранения изменения одного пользователя; одновременные сохранения
+    // объединяются хранилищем в одну запись.
+    public CompletableFuture<Void> saveUserAsync(User user) {
+        users.touch();
+        return track("saveUser", () -> store.saveUserAsync(user, this::getUsers));
+    }
+
+    // Метод для ожидания сохранения; ошибка уже выведена и учтена в метриках.
+    private static void await(CompletableFuture<Void> done) {
+        try {
+            done.join();
+        } catch (CompletionException ignored) {
+        }
+    }
+
+    // Метод для замера записи в хранилище: метрики, событие JFR и сообщение об ошибке.
+    private CompletableFuture<Void> track(String operation, Supplier<CompletableFuture<Void>> write) {
+        AuthEvents.PersistenceWrite event = new AuthEvents.PersistenceWrite();
+        Thread caller = Thread.currentThread();
+        long callerBytes = AuthMetrics.threadBytesWritten();
+        event.begin();
+        long start = System.nanoTime();
+        return write.get().whenComplete((ignored, error) -> {
+            event.end();
+            AuthMetrics.getDefault().recordPersist(System.nanoTime() - start, error != null);
+            if (error != null) {
+                System.out.println("Ошибка при сохранении данных о пользователях.");
+            }
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.store = store.getClass().getSimpleName();
+                // Пакетная запись CSV выполняется в потоке записи и отражается событием GroupCommit
+                event.bytes = Thread.currentThread() == caller ? AuthMetrics.threadBytesWritten() - callerBytes : 0;
+                event.commit();
+            }
+        });
+    }
+
+    // Метод для асинхронной проверки пароля в пуле проверки.
+    // Если хеш пользователя вычислен с меньшим числом итераций, чем текущее, он пересчитывается и сохраняется,
+    // но только если пароль не сменили во время проверки: иначе пересчет вернул бы старый пароль.
+    public CompletableFuture<Boolean> verifyPassword(User user, String password) {
+        String stored = user.getPassword();
+        return verifyPassword(stored, password).thenApply(valid -> {
+            if (valid) {
+                rehashIfNeeded(user, stored, password);
+            }
+            return valid;
+        });
+    }
+
+    // Метод для асинхронной проверки пароля по сохраненной форме stored без пересчета хеша.
+    public CompletableFuture<Boolean> verifyPassword(String stored, String password) {
+        return verifier.verify(password, stored);
+    }
+
+    // Метод для пересчета хеша, проверенного по stored, если он вычислен с меньшим числом итераций.
+    // Хеш вычисляется в пуле проверки, поэтому вызывающий не ждет ни пересчета, ни записи.
+    public void rehashIfNeeded(User user, String stored, String password) {
+        if (verifier.getHasher().needsRehash(stored)) {
+            rehash(user, stored, password);
+        }
+    }
+
+    // Метод для замены хеша stored хешем password в пуле проверки и сохранения пользователя, если пароль
+    // не сменили за это время; при переполнении очереди замена откладывается до следующего обращения.
+    private void rehash(User user, String stored, String password) {
+        verifier.hash(password).thenAccept(hash -> {
+            if (user.compareAndSetPassword(stored, hash)) {
+                saveUserAsync(user);
+            }
+        });
+    }
+
+    // Метод для вычисления хеша нового пароля в пуле проверки и сохранения пользователя;
+    // future завершается после записи на диск, не занимая поток пула проверки ожиданием.
+    // changed выполняется под блокировкой пользователя сразу после замены хеша, до записи на диск.
+    public CompletableFuture<Void> updatePassword(User user, String newPassword, Runnable changed) {
+        return verifier.hash(newPassword).thenCompose(hash -> {
+            synchronized (user) {
+                user.setPasswordHash(hash);
+                changed.run();
+            }
+            return saveUserAsync(user);
+        });
+    }
+
+    // Метод для поиска пользователя по имени.
+    public User findUser(String username) {
+        User user = users.get(username);
+        if (user == null && username != null && store.isLazy()) {
+            // Запись декодируется из файла только при первом обращении
+            try {
+                user = store.lookup(username);
+            } catch (IOException e) {
+                System.out.println("Ошибка при чтении данных о пользователе.");
+            }
+            if (user != null && !users.addLoaded(user)) {
+                user = users.get(username);
+            } else if (user != null && !PasswordHasher.isHashed(user.getPassword())) {
+                hashPlaintext(user);
+            }
+        }
+        return user;
+    }
+
+    // Метод для замены пароля старого формата, прочитанного из файла при обращении, хешем в пуле проверки.
+    private void hashPlaintext(User user) {
+        String stored = user.getPassword();
+        rehash(user, stored, stored);
+    }
+
+    // Метод для добавления нового пользователя; возвращает false, если пользователь уже существует.
+    public boolean addUser(String username) {
+        if (findUser(username) != null) {
+            return false;
+        }
+        User user = new User(username, verifier.getHasher().hash("")); // Пустой пароль тоже хранится хешем
+        if (!users.add(user)) {
+            return false;
+        }
+        names.add(username);
+        saveUser(user); // Сохраняем изменения в файл
+        return true;
+    }
+
+    // Метод для пакетного добавления пользователей одной записью в хранилище; возвращает уже существующих.
+    public List<User> addUsers(List<User> newUsers) {
+        List<User> rejected = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        for (User user : newUsers) {
+            if (findUser(user.getUsername()) != null || !users.add(user)) {
+                rejected.add(user);
+            } else {
+                added.add(user.getUsername());
+            }
+        }
+        names.addAll(added);
+        if (rejected.size() < newUsers.size()) {
+            saveUsers(); // Одна запись вместо отдельного сохранения каждого пользователя
+        }
+        return rejected;
+    }
+
+    // Метод для блокировки пользователя; возвращает false, если пользователь не найден.
+    // blocked выполняется под блокировкой пользователя сразу после установки флага, до записи на диск.
+    public boolean blockUser(String username, Consumer<User> blocked) {
+        User user = findUser(username);
+        if (user == null) {
+            return false;
+        }
+        synchronized (user) {
+            user.setBlocked(true); // Блокируем пользователя
+            blocked.accept(user);
+        }
+        saveUser(user); // Сохраняем изменения в файл
+        return true;
+    }
+
+    // Метод для включения/отключения ограничений на пароли: флаг меняется в шаблонах, а не у каждого
+    // пользователя, и перезаписывается только файл шаблонов. Собственные флаги пользователей (они появляются
+    // только при импорте и в строках старого формата с различающимися флагами) сохраняются.
+    public void togglePasswordRestrictions(boolean enabled) {
+        templates.setRestrictionsEnabled(enabled);
+        savePolicies();
+    }
+
+    public AuditLog getAudit() {return audit;}
+
+    // Метод для завершения работы: остановка фонового переноса паролей, ожидание начатых проверок паролей,
+    // закрытие хранилища (поставленные сохранения дописываются) и освобождение журнала аудита.
+    @Override
+    public void close() {
+        closing = true;
+        plaintextMigration.exceptionally(error -> 0).join(); // Перенос завершает текущую порцию и запись
+        verifier.shutdown();
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.out.println("Ошибка при закрытии хранилища пользователей: " + e.getMessage());
+        }
+        audit.release();
+    }
+
+    // Метод для получения списка шаблонов политик.
+    public List<PolicyTemplate> getTemplates() {
+        return templates.list();
+    }
+
+    // Метод для получения шаблона по идентификатору.
+    public PolicyTemplate findTemplate(String id) {
+        return templates.get(id);
+    }
+
+    // Метод для создания шаблона или изменения его политики; действует сразу для всех участников.
+    public PolicyTemplate defineTemplate(String id, PasswordPolicy policy) {
+        PolicyTemplate template = templates.define(id, policy);
+        savePolicies();
+        return template;
+    }
+
+    // Метод для назначения пользователю шаблона; сохраняется только запись пользователя.
+    public boolean assignTemplate(String username, PolicyTemplate template) {
+        User user = findUser(username);
+        if (user == null) {
+            return false;
+        }
+        user.setTemplate(template);
+        saveUser(user);
+        return true;
+    }
+
+    // Метод для сохранения файла шаблонов.
+    private void savePolicies() {
+        users.touch(); // Действующие ограничения изменились: снимки для интерфейса устарели
+        try {
+            templates.save();
+        } catch (IOException e) {
+            System.out.println("Ошибка при сохранении шаблонов политик.");
+        }
+    }
+
+    // Метод для поиска имен пользователей для автодополнения: сначала имена, начинающиеся с query
+    // (без учета регистра), затем, если их меньше limit, похожие имена с учетом опечаток.
+    public List<String> suggestUsernames(String query, int limit) {
+        String prefix = query.trim();
+        List<String> result = names.prefix(prefix, limit);
+        if (result.size() < limit && prefix.length() >= 3) {
+            // Допускаем одну опечатку в коротком запросе и две в длинном
+            for (String name : names.fuzzy(prefix, prefix.length() < 5 ? 1 : 2, limit, true)) {
+                if (result.size() == limit) {
+                    break;
+                }
+                if (!result.contains(name)) {
+                    result.add(name);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Метод для получения снимка пользователей. Для ленивого хранилища снимок строится по индексу имен файла
+    // без декодирования записей: пользователи загружаются при обращении к их позициям (видимая страница).
+    // Построенный снимок переиспользуется, пока версия индекса не изменилась (добавление или сохранение).
+    public UserSnapshot snapshot() {
+        UserSnapshot snapshot = users.snapshot();
+        if (!store.isLazy()) {
+            return snapshot;
+        }
+        UserSnapshot cached = lazySnapshot;
+        if (cached != null && cached.getVersion() == snapshot.getVersion()) {
+            return cached;
+        }
+        try {
+            // Порядок записей файла совпадает с порядком добавления; еще не сохраненные пользователи идут в конце
+            List<String> ordered = new ArrayList<>(store.usernames());
+            Set<String> inFile = new HashSet<>(ordered);
+            for (User user : snapshot.asList()) {
+                if (!inFile.contains(user.getUsername())) {
+                    ordered.add(user.getUsername());
+                }
+            }
+            cached = UserSnapshot.lazy(ordered, this::findUser, snapshot.getVersion());
+            lazySnapshot = cached;
+            return cached;
+        } catch (IOException e) {
+            System.out.println("Ошибка при чтении данных о пользователях.");
+            return snapshot;
+        }
+    }
+
+    // Метод для получения списка всех пользователей в порядке добавления.
+    public List<User> getUsers() {
+        if (store.isLazy()) {
+            // Порядок записей файла совпадает с порядком добавления; недостающие записи декодируются,
+            // а еще не сохраненные пользователи добавляются в конец
+            try {
+                List<User> userList = new ArrayList<>();
+                Set<User> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (String username : store.usernames()) {
+                    User user = findUser(username);
+                    userList.add(user);
+                    listed.add(user);
+                }
+                for (User user : users.values()) {
+                    if (!listed.contains(user)) {
+                        userList.add(user);
+                    }
+                }
+                return userList;
+            } catch (IOException e) {
+                System.out.println("Ошибка при чтении данных о пользователях.");
+            }
+        }
+        return users.values();
+    }
+}
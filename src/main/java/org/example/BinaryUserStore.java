@@ -0,0 +1,555 @@
+package org.example;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+// Класс BinaryUserStore хранит пользователей в двоичном файле с записями фиксированной длины.
+// Файл отображается в память через FileChannel.map, а запись декодируется только при обращении к ней.
+//
+// Формат файла:
+//   заголовок (HEADER_SIZE байт): magic, version, recordCount, indexOffset, indexCrc, indexedCount
+//   записи (RECORD_SIZE байт каждая) в порядке добавления пользователей, затем свободные места для новых
+//   индекс: номера первых indexedCount записей (int), отсортированные по байтам имени пользователя,
+//   и свободное место для его роста
+//
+// Новая запись занимает свободное место и попадает в хвост — записи вне индекса, которые ищутся по
+// словарю в памяти. Индекс переписывается, только когда хвост вырастает до доли индекса (TAIL_RATIO),
+// а файл растет вдвое, когда кончаются свободные места, поэтому добавление n пользователей по одному
+// пишет O(n) байтов индекса и отображает файл заново O(log n) раз. Файл отображается одним буфером,
+// поэтому его размер ограничен 2 ГБ (MAX_RECORDS записей).
+class BinaryUserStore implements UserStore {
+    private static final Logger LOG = Logger.getLogger(BinaryUserStore.class.getName());
+
+    static final int MAGIC = 0x48505542; // "HPUB"
+    static final int VERSION = 2; // Версия 1 — без indexedCount и свободных мест (читается)
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 256;
+    static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / (RECORD_SIZE + 4); // Записи и индекс в пределах 2 ГБ
+    private static final int MIN_CAPACITY = 16; // Свободные места после первого роста файла
+    private static final int MIN_TAIL = 64; // Хвост такого размера не требует перезаписи индекса
+    private static final int TAIL_RATIO = 8; // Индекс переписывается, когда хвост больше 1/TAIL_RATIO индекса
+    static final int MAX_USERNAME_BYTES = 64;
+    static final int MAX_PASSWORD_BYTES = 128;
+
+    // Смещения полей внутри записи
+    private static final int FLAGS = 0;
+    private static final int USERNAME_LENGTH = 1;
+    private static final int PASSWORD_LENGTH = 2;
+    private static final int MIN_PASSWORD_LENGTH = 4;
+    private static final int MAX_PASSWORD_LENGTH = 8;
+    private static final int MIN_DIGIT = 12;
+    private static final int MIN_SPECIAL_CHARS = 16;
+    private static final int EXTRA_RULES = 20; // Дополнительные правила политики (short): MIN_UPPER, MIN_LOWER, MAX_REPEAT, MAX_SEQUENCE
+    private static final int USERNAME = 32;
+    private static final int PASSWORD = USERNAME + MAX_USERNAME_BYTES;
+    private static final int TEMPLATE_LENGTH = PASSWORD + MAX_PASSWORD_BYTES; // Длина идентификатора шаблона (0 — запись старого формата)
+    private static final int TEMPLATE = TEMPLATE_LENGTH + 1; // Идентификатор шаблона политики (до 31 байта)
+
+    // Правила политики, хранящиеся в поле EXTRA_RULES
+    private static final PasswordRule[] EXTRA = {
+            PasswordRule.MIN_UPPER, PasswordRule.MIN_LOWER, PasswordRule.MAX_REPEAT, PasswordRule.MAX_SEQUENCE};
+
+    // Биты поля флагов
+    private static final int FLAG_ADMIN = 1;
+    private static final int FLAG_BLOCKED = 2;
+    private static final int FLAG_RESTRICTIONS = 4;
+    private static final int FLAG_RESTRICTIONS_OVERRIDE = 8; // FLAG_RESTRICTIONS задан самим пользователем, а не шаблоном
+    private static final int FLAG_POLICY_OVERRIDE = 16; // Поля ограничений содержат собственную политику пользователя
+
+    private final Path file; // Файл базы пользователей
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // Чтение параллельно, запись монопольно
+    private FileChannel channel; // Канал открытого файла
+    private MappedByteBuffer buffer; // Отображение файла в память
+    private int recordCount; // Количество записей
+    private int indexedCount; // Записи в отсортированном индексе (остальные — хвост)
+    private int capacity; // Мест для записей перед индексом (и для номеров в индексе)
+    private long indexOffset; // Смещение индекса имен
+    private int indexCrc; // Контрольная сумма индекса из заголовка
+    private final Map<String, Integer> tail = new HashMap<>(); // Хвост: имя -> номер записи вне индекса
+
+    // Конструктор для создания хранилища поверх двоичного файла.
+    public BinaryUserStore(String dataFile) {
+        this.file = Paths.get(dataFile);
+    }
+
+    // Метод для открытия файла; записи не декодируются, проверяется только заголовок и индекс.
+    @Override
+    public List<User> load() throws IOException {
+        if (!Files.exists(file)) {
+            throw new FileNotFoundException(file.toString());
+        }
+        lock.writeLock().lock();
+        try {
+            map();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new ArrayList<>(); // Пользователи загружаются лениво через lookup
+    }
+
+    // Метод для отображения файла в память и проверки индекса.
+    private void map() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Файл пользователей больше 2 ГБ не поддерживается: " + file);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        int version = size < HEADER_SIZE ? 0 : buffer.getInt(4);
+        if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC || (version != 1 && version != VERSION)) {
+            throw new IOException("Неизвестный формат файла пользователей: " + file);
+        }
+        recordCount = buffer.getInt(8);
+        indexOffset = buffer.getLong(12);
+        indexCrc = buffer.getInt(20);
+        indexedCount = version == 1 ? recordCount : buffer.getInt(24);
+        tail.clear();
+        if (recordCount < 0 || HEADER_SIZE + (long) RECORD_SIZE * recordCount > size) {
+            throw new IOException("Поврежден заголовок файла пользователей: " + file);
+        }
+        if (indexedCount < 0 || indexedCount > recordCount || indexOffset < HEADER_SIZE + (long) RECORD_SIZE * recordCount
+                || indexOffset + 4L * indexedCount > size || indexCrc() != indexCrc) {
+            // Запись индекса была прервана сбоем: записи целы, индекс строится заново
+            LOG.warning("Индекс файла пользователей поврежден, выполняется перестроение: " + file);
+            rebuildIndex();
+            return;
+        }
+        capacity = (int) Math.min((indexOffset - HEADER_SIZE) / RECORD_SIZE, (size - indexOffset) / 4);
+        for (int i = indexedCount; i < recordCount; i++) {
+            tail.put(new String(usernameBytes(i), StandardCharsets.UTF_8), i);
+        }
+    }
+
+    // Метод для вычисления контрольной суммы индекса.
+    private int indexCrc() {
+        CRC32 crc = new CRC32();
+        ByteBuffer index = buffer.duplicate();
+        index.position((int) indexOffset).limit((int) indexOffset + 4 * indexedCount);
+        crc.update(index);
+        return (int) crc.getValue();
+    }
+
+    // Метод для перестроения индекса по записям; свободные места после перестроения не остаются.
+    private void rebuildIndex() throws IOException {
+        long offset = HEADER_SIZE + (long) RECORD_SIZE * recordCount;
+        byte[][] names = new byte[recordCount][];
+        for (int i = 0; i < recordCount; i++) {
+            names[i] = usernameBytes(i);
+        }
+        int[] index = sortedIndex(names);
+        writeIndex(index, offset);
+        channel.truncate(offset + 4L * index.length);
+        remap(recordCount);
+    }
+
+    // Метод для повторного отображения файла после изменения его размера.
+    private void remap(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        capacity = newCapacity;
+    }
+
+    // Метод для сортировки номеров записей по байтам имени пользователя.
+    private static int[] sortedIndex(byte[][] names) {
+        Integer[] order = new Integer[names.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> names[i], Arrays::compareUnsigned));
+        int[] index = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            index[i] = order[i];
+        }
+        return index;
+    }
+
+    // Метод для записи индекса всех записей по смещению offset и заголовка; хвост после записи пуст.
+    private void writeIndex(int[] index, long offset) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(4 * index.length);
+        bytes.asIntBuffer().put(index);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array());
+        writeFully(bytes, offset);
+        channel.force(false);
+        // Заголовок обновляется последним, чтобы сбой не оставил ссылку на недописанный индекс
+        recordCount = index.length;
+        indexedCount = index.length;
+        indexOffset = offset;
+        indexCrc = (int) crc.getValue();
+        tail.clear();
+        writeHeader();
+    }
+
+    // Метод для записи заголовка по текущему состоянию.
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(recordCount).putLong(indexOffset).putInt(indexCrc).putInt(indexedCount);
+        header.clear();
+        writeFully(header, 0);
+        channel.force(false);
+    }
+
+    // Метод для получения номера записи по позиции в отсортированном индексе.
+    private int indexAt(int position) {
+        return buffer.getInt((int) indexOffset + 4 * position);
+    }
+
+    // Метод для слияния отсортированного индекса с хвостом в новый индекс всех записей.
+    private int[] mergedIndex() {
+        Integer[] added = tail.values().toArray(new Integer[0]);
+        byte[][] names = new byte[recordCount][];
+        for (Integer record : added) {
+            names[record] = usernameBytes(record);
+        }
+        Arrays.sort(added, Comparator.comparing(i -> names[i], Arrays::compareUnsigned));
+        int[] index = new int[recordCount];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < index.length; k++) {
+            if (j == added.length || (i < indexedCount && compare(indexAt(i), names[added[j]]) < 0)) {
+                index[k] = indexAt(i++);
+            } else {
+                index[k] = added[j++];
+            }
+        }
+        return index;
+    }
+
+    // Метод для увеличения файла вдвое: индекс переносится за новые свободные места и включает хвост.
+    private void grow() throws IOException {
+        if (recordCount >= MAX_RECORDS) {
+            throw new IOException("Файл пользователей заполнен: двоичный формат вмещает не более " + MAX_RECORDS + " записей (2 ГБ).");
+        }
+        int newCapacity = (int) Math.min(MAX_RECORDS, Math.max(MIN_CAPACITY, 2L * capacity));
+        long offset = HEADER_SIZE + (long) RECORD_SIZE * newCapacity;
+        long size = offset + 4L * newCapacity;
+        int[] index = mergedIndex();
+        if (channel.size() < size) {
+            writeFully(ByteBuffer.allocate(1), size - 1); // Файл увеличивается до полного размера одной записью
+        }
+        writeIndex(index, offset);
+        remap(newCapacity);
+    }
+
+    // Метод для записи буфера в канал по указанному смещению.
+    private void writeFully(ByteBuffer bytes, long position) throws IOException {
+        AuthMetrics.getDefault().recordBytesWritten(bytes.remaining());
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    // Метод для получения байтов имени пользователя из записи.
+    private byte[] usernameBytes(int record) {
+        int base = HEADER_SIZE + record * RECORD_SIZE;
+        byte[] name = new byte[buffer.get(base + USERNAME_LENGTH) & 0xFF];
+        buffer.get(base + USERNAME, name);
+        return name;
+    }
+
+    // Метод для сравнения имени в записи с искомым именем без декодирования строки.
+    private int compare(int record, byte[] key) {
+        int base = HEADER_SIZE + record * RECORD_SIZE;
+        int length = buffer.get(base + USERNAME_LENGTH) & 0xFF;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(base + USERNAME + i) & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    // Метод для двоичного поиска в индексе; возвращает позицию в индексе или -(точка вставки) - 1.
+    private int search(byte[] key) {
+        int low = 0;
+        int high = indexedCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(indexAt(mid), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Метод для поиска номера записи пользователя по имени: в индексе, затем в хвосте.
+    private int recordOf(String username) {
+        int position = search(username.getBytes(StandardCharsets.UTF_8));
+        if (position >= 0) {
+            return indexAt(position);
+        }
+        Integer record = tail.get(username);
+        return record == null ? -1 : record;
+    }
+
+    // Метод для декодирования записи в объект User или Admin.
+    private User decode(int record) {
+        int base = HEADER_SIZE + record * RECORD_SIZE;
+        int flags = buffer.get(base + FLAGS);
+        String username = new String(usernameBytes(record), StandardCharsets.UTF_8);
+        byte[] password = new byte[buffer.getShort(base + PASSWORD_LENGTH)];
+        buffer.get(base + PASSWORD, password);
+        String passwordString = new String(password, StandardCharsets.UTF_8);
+        User user = (flags & FLAG_ADMIN) != 0 ? new Admin(username, passwordString) : new User(username, passwordString);
+        user.setBlocked((flags & FLAG_BLOCKED) != 0);
+        boolean restrictions = (flags & FLAG_RESTRICTIONS) != 0;
+        byte[] template = new byte[buffer.get(base + TEMPLATE_LENGTH)];
+        if (template.length > 0) {
+            buffer.get(base + TEMPLATE, template);
+            user.setTemplate(PolicyTemplates.getDefault().resolve(new String(template, StandardCharsets.UTF_8)));
+            if ((flags & FLAG_RESTRICTIONS_OVERRIDE) != 0) {
+                user.setPasswordRestrictionsEnabled(restrictions);
+            }
+            if ((flags & FLAG_POLICY_OVERRIDE) != 0) {
+                user.setPasswordPolicy(readPolicy(base));
+            }
+        } else {
+            // Запись старого формата: флаг ограничений и полная политика становятся собственными,
+            // только если отличаются от шаблона
+            user.setPasswordRestrictionsEnabled(restrictions);
+            user.setPasswordPolicy(readPolicy(base));
+        }
+        return user;
+    }
+
+    // Метод для чтения политики из полей ограничений записи.
+    private PasswordPolicy readPolicy(int base) {
+        PasswordPolicy policy = PasswordPolicy.of(buffer.getInt(base + MIN_PASSWORD_LENGTH), buffer.getInt(base + MAX_PASSWORD_LENGTH),
+                buffer.getInt(base + MIN_DIGIT), buffer.getInt(base + MIN_SPECIAL_CHARS));
+        for (int i = 0; i < EXTRA.length; i++) {
+            policy = policy.with(EXTRA[i], buffer.getShort(base + EXTRA_RULES + 2 * i));
+        }
+        return policy;
+    }
+
+    // Метод для кодирования пользователя в запись фиксированной длины.
+    // Шаблон хранится идентификатором в свободных байтах в конце записи; поля ограничений
+    // и флаг ограничений заполняются только при отличиях пользователя от шаблона.
+    static ByteBuffer encode(User user) throws IOException {
+        byte[] username = user.getUsername().getBytes(StandardCharsets.UTF_8);
+        byte[] password = user.getPassword().getBytes(StandardCharsets.UTF_8);
+        byte[] template = user.getTemplate().getId().getBytes(StandardCharsets.UTF_8);
+        if (username.length > MAX_USERNAME_BYTES || password.length > MAX_PASSWORD_BYTES) {
+            throw new IOException("Имя или пароль пользователя " + user.getUsername() + " не помещаются в запись.");
+        }
+        PolicyOverride override = user.getOverride();
+        Boolean restrictions = override == null ? null : override.getRestrictionsEnabled();
+        PasswordPolicy policy = override == null ? null : override.getPolicy();
+        int flags = (user instanceof Admin ? FLAG_ADMIN : 0)
+                | (user.isBlocked() ? FLAG_BLOCKED : 0)
+                | (restrictions != null ? FLAG_RESTRICTIONS_OVERRIDE | (restrictions ? FLAG_RESTRICTIONS : 0) : 0)
+                | (policy != null ? FLAG_POLICY_OVERRIDE : 0);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(FLAGS, (byte) flags);
+        record.put(USERNAME_LENGTH, (byte) username.length);
+        record.putShort(PASSWORD_LENGTH, (short) password.length);
+        if (policy != null) {
+            record.putInt(MIN_PASSWORD_LENGTH, policy.get(PasswordRule.MIN_LENGTH));
+            record.putInt(MAX_PASSWORD_LENGTH, policy.get(PasswordRule.MAX_LENGTH));
+            record.putInt(MIN_DIGIT, policy.get(PasswordRule.MIN_DIGITS));
+            record.putInt(MIN_SPECIAL_CHARS, policy.get(PasswordRule.MIN_SPECIAL));
+            for (int i = 0; i < EXTRA.length; i++) {
+                record.putShort(EXTRA_RULES + 2 * i, (short) Math.min(Short.MAX_VALUE, policy.get(EXTRA[i])));
+            }
+        }
+        record.put(USERNAME, username);
+        record.put(PASSWORD, password);
+        record.put(TEMPLATE_LENGTH, (byte) template.length);
+        record.put(TEMPLATE, template);
+        return record;
+    }
+
+    // Признак ленивого хранилища: пользователи декодируются по запросу.
+    @Override
+    public boolean isLazy() {
+        return true;
+    }
+
+    // Метод для получения количества записей в файле.
+    @Override
+    public int lazySize() {
+        lock.readLock().lock();
+        try {
+            return recordCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Метод для поиска и декодирования одной записи по имени пользователя.
+    @Override
+    public User lookup(String username) {
+        lock.readLock().lock();
+        try {
+            int record = buffer == null ? -1 : recordOf(username);
+            return record < 0 ? null : decode(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Метод для получения имен пользователей в порядке записей файла.
+    @Override
+    public List<String> usernames() {
+        lock.readLock().lock();
+        try {
+            List<String> names = new ArrayList<>(recordCount);
+            for (int i = 0; i < recordCount; i++) {
+                names.add(new String(usernameBytes(i), StandardCharsets.UTF_8));
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Метод для сохранения одного пользователя: запись обновляется на месте или добавляется в конец.
+    @Override
+    public void saveUser(User user, Supplier<List<User>> allUsers) throws IOException {
+        ByteBuffer record = encode(user);
+        lock.writeLock().lock();
+        try {
+            if (buffer == null) {
+                writeFile(allUsers.get());
+                return;
+            }
+            int existing = recordOf(user.getUsername());
+            if (existing >= 0) {
+                writeRecord(existing, record);
+                return;
+            }
+            // Новая запись занимает свободное место и попадает в хвост; заголовок обновляется после записи
+            if (recordCount == capacity) {
+                grow();
+            }
+            writeRecord(recordCount, record);
+            tail.put(user.getUsername(), recordCount);
+            recordCount++;
+            if (tail.size() > Math.max(MIN_TAIL, indexedCount / TAIL_RATIO)) {
+                writeIndex(mergedIndex(), indexOffset); // Индекс растет на месте: для него зарезервировано capacity номеров
+            } else {
+                writeHeader();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Метод для записи записи на ее место в отображенном файле со сбросом на диск.
+    private void writeRecord(int number, ByteBuffer record) {
+        int base = HEADER_SIZE + number * RECORD_SIZE; // Не переполняется: number < MAX_RECORDS
+        buffer.put(base, record, 0, RECORD_SIZE);
+        buffer.force(base, RECORD_SIZE);
+        AuthMetrics.getDefault().recordBytesWritten(RECORD_SIZE);
+    }
+
+    // Метод для полной записи всех пользователей в новый файл.
+    @Override
+    public void saveAll(List<User> users) throws IOException {
+        lock.writeLock().lock();
+        try {
+            writeFile(users);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Метод для записи файла во временный файл, атомарной замены и повторного отображения.
+    private void writeFile(List<User> users) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        write(temp, users);
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        buffer = null;
+        tail.clear();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    // Метод для записи пользователей в двоичный файл.
+    static void write(Path target, List<User> users) throws IOException {
+        if (users.size() > MAX_RECORDS) {
+            throw new IOException("Двоичный формат вмещает не более " + MAX_RECORDS + " записей (2 ГБ), пользователей: " + users.size());
+        }
+        byte[][] names = new byte[users.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = users.get(i).getUsername().getBytes(StandardCharsets.UTF_8);
+        }
+        int[] index = sortedIndex(names);
+        long indexOffset = HEADER_SIZE + (long) RECORD_SIZE * users.size();
+        ByteBuffer indexBytes = ByteBuffer.allocate(4 * index.length);
+        indexBytes.asIntBuffer().put(index);
+        CRC32 crc = new CRC32();
+        crc.update(indexBytes.array());
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(users.size()).putLong(indexOffset).putInt((int) crc.getValue()).putInt(users.size());
+            header.clear();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (User user : users) {
+                ByteBuffer record = encode(user);
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            while (indexBytes.hasRemaining()) {
+                out.write(indexBytes);
+            }
+            out.force(true);
+        }
+        AuthMetrics.getDefault().recordBytesWritten(indexOffset + 4L * index.length);
+    }
+
+    // Метод для однократного преобразования CSV-файла пользователей в двоичный формат.
+    static int convert(String csvFile, String binaryFile) throws IOException {
+        List<User> users = new CsvUserStore(csvFile).load();
+        PasswordHasher.getDefault().hashPlaintext(users); // Пароли в открытом виде в двоичный файл не переносятся
+        write(Paths.get(binaryFile), users);
+        return users.size();
+    }
+
+    // Метод для закрытия файла.
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            buffer = null;
+            tail.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+// Класс BloomFilter — компактный вероятностный набор на массиве long[].
+// Ответ "нет" всегда точен, ответ "возможно" ошибочен с заданной вероятностью.
+// Размер подбирается по ожидаемому числу элементов: около 14,4 бита на элемент при вероятности ошибки 0,1%.
+// Ключом служит 64-битный хеш, из которого двойным хешированием получаются позиции всех битов.
+final class BloomFilter {
+    private final long[] bits;    // Битовый массив
+    private final long bitCount;  // Число битов
+    private final int hashes;     // Число хеш-функций
+
+    // Конструктор для создания фильтра под ожидаемое число элементов и вероятность ложного срабатывания.
+    public BloomFilter(long expectedEntries, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Вероятность ошибки должна быть в интервале (0, 1).");
+        }
+        long entries = Math.max(1, expectedEntries);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long words = Math.max(1, (optimalBits + 63) >>> 6);
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком большой фильтр: " + optimalBits + " бит.");
+        }
+        this.bits = new long[(int) words];
+        this.bitCount = words << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+    }
+
+    // Метод для добавления элемента по его хешу.
+    public void put(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // Метод для проверки элемента по его хешу; false означает, что элемента точно нет.
+    public boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getHashes() {return hashes;}
+    public long getBitCount() {return bitCount;}
+    public long getMemoryBytes() {return (long) bits.length * Long.BYTES;}
+
+    // Метод для вычисления 64-битного хеша байтов [offset, offset + length) из буфера (абсолютное чтение).
+    static long hash(ByteBuffer buffer, int offset, int length) {
+        long h = 0x9E3779B97F4A7C15L ^ length;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            h = (h ^ (buffer.get(i) & 0xFF)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    // Метод для перемешивания битов хеша (финализатор MurmurHash3).
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
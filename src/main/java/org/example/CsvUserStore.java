@@ -0,0 +1,127 @@
+package org.example;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Класс CsvUserStore хранит пользователей в текстовом файле формата CSV.
+// Запись выполняется через GroupCommitWriter: одновременные сохранения объединяются в одну атомарную замену файла.
+class CsvUserStore implements UserStore {
+    private final String dataFile; // Имя файла для хранения данных
+    private final GroupCommitWriter writer; // Поток пакетной записи
+
+    // Конструктор для создания хранилища поверх файла.
+    public CsvUserStore(String dataFile) {
+        this.dataFile = dataFile;
+        this.writer = new GroupCommitWriter(Paths.get(dataFile));
+    }
+
+    // Метод для загрузки пользователей из файла.
+    @Override
+    public List<User> load() throws IOException {
+        List<User> userList = new ArrayList<>(); // Создаем пустой список пользователей
+        try (BufferedReader reader = new BufferedReader(new FileReader(dataFile))) {
+            String line;
+            // Читаем файл построчно
+            while ((line = reader.readLine()) != null) {
+                userList.add(parse(line));
+            }
+        }
+        return userList;
+    }
+
+    // Метод для полной перезаписи файла пользователей; возвращает управление после записи на диск.
+    @Override
+    public void saveAll(List<User> users) throws IOException {
+        await(writer.submit(() -> users));
+    }
+
+    // Метод для сохранения изменения одного пользователя в общем пакете записи.
+    @Override
+    public void saveUser(User user, Supplier<List<User>> allUsers) throws IOException {
+        await(writer.submit(allUsers));
+    }
+
+    // Метод для асинхронной полной записи в общем пакете.
+    @Override
+    public CompletableFuture<Void> saveAllAsync(Supplier<List<User>> allUsers) {
+        return writer.submit(allUsers);
+    }
+
+    // Метод для асинхронного сохранения изменения одного пользователя в общем пакете.
+    @Override
+    public CompletableFuture<Void> saveUserAsync(User user, Supplier<List<User>> allUsers) {
+        return writer.submit(allUsers);
+    }
+
+    // Метод для ожидания записи пакета с пробросом ошибки ввода-вывода.
+    private static void await(CompletableFuture<Void> done) throws IOException {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Метод для остановки потока записи после завершения поставленных сохранений.
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    // Метод для записи пользователей в указанный файл.
+    static void write(File file, List<User> users) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (User user : users) {
+                writer.write(format(user));
+                writer.newLine(); // Переход на новую строку
+            }
+        }
+        AuthMetrics.getDefault().recordBytesWritten(file.length());
+    }
+
+    // Метод для разбора строки формата username,password,isBlocked,passwordRestrictionsEnabled[,template[,policy]].
+    // Начиная с колонки template флаг ограничений хранится только как отличие от шаблона (пусто — флаг шаблона),
+    // а policy — собственная политика вида 6;12;2;2;0;0;0;0, если она есть.
+    // В строках старого формата из четырех колонок флаг становится собственным флагом пользователя,
+    // только если отличается от флага шаблона; общий шаблон при чтении строки не меняется, а единый
+    // для всех строк флаг переносится в шаблоны после загрузки (AuthenticationSystem.migrateRestrictions).
+    static User parse(String line) {
+        String[] parts = line.split(",", -1); // Разделяем строку по запятой
+        String username = parts[0];      // Имя пользователя
+        String password = parts[1];      // Пароль
+        boolean isBlocked = Boolean.parseBoolean(parts[2]); // Флаг блокировки
+        // Создаем объект User или Admin в зависимости от роли
+        User user = (username.equals("admin")) ? new Admin(username, password) : new User(username, password);
+        user.setBlocked(isBlocked);
+        PolicyTemplates templates = PolicyTemplates.getDefault();
+        if (parts.length > 4) {
+            user.setTemplate(templates.resolve(parts[4]));
+            if (!parts[3].isEmpty()) {
+                user.setPasswordRestrictionsEnabled(Boolean.parseBoolean(parts[3]));
+            }
+            if (parts.length > 5 && !parts[5].isEmpty()) {
+                user.setPasswordPolicy(PasswordPolicy.decode(parts[5]));
+            }
+        } else {
+            user.setPasswordRestrictionsEnabled(Boolean.parseBoolean(parts[3])); // Флаг ограничений старого формата
+        }
+        return user;
+    }
+
+    // Метод для записи пользователя в строку формата username,password,isBlocked,passwordRestrictionsEnabled,template[,policy];
+    // поля ограничений заполняются только при отличиях от шаблона.
+    static String format(User user) {
+        PolicyOverride override = user.getOverride();
+        String restrictions = override == null || override.getRestrictionsEnabled() == null ? "" : override.getRestrictionsEnabled().toString();
+        String line = user.getUsername() + "," + user.getPassword() + "," + user.isBlocked() + "," + restrictions + "," + user.getTemplate().getId();
+        return override == null || override.getPolicy() == null ? line : line + "," + override.getPolicy().encode();
+    }
+}
@@ -0,0 +1,442 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+// Класс DefaultAuthService реализует AuthService поверх AuthenticationSystem.
+// Состояние пользователей хранится в конкурентном индексе, счетчики попыток — в LockoutTracker,
+// поэтому методы сервиса можно вызывать из многих потоков одновременно.
+// После успешного входа выдается токен сеанса; блокировка пользователя и смена пароля отзывают его сеансы.
+class DefaultAuthService implements AuthService {
+    private final AuthenticationSystem system; // Система аутентификации и хранения
+    private final LockoutTracker lockout; // Учет неудачных попыток и временная блокировка входа
+    private final SessionManager sessions; // Выданные сеансы
+    private final PasswordBlocklist blocklist; // Список запрещенных паролей
+    private final AuthMetrics metrics = AuthMetrics.getDefault(); // Метрики входа
+    private final AuditLog audit; // Журнал аудита входов и действий администраторов
+
+    // Конструктор для создания сервиса поверх системы аутентификации.
+    public DefaultAuthService(AuthenticationSystem system) {
+        this(system, new LockoutTracker(), new SessionManager());
+    }
+
+    // Конструктор для создания сервиса с заданным трекером неудачных попыток.
+    public DefaultAuthService(AuthenticationSystem system, LockoutTracker lockout) {
+        this(system, lockout, new SessionManager());
+    }
+
+    // Конструктор для создания сервиса с заданными трекером попыток и менеджером сеансов.
+    public DefaultAuthService(AuthenticationSystem system, LockoutTracker lockout, SessionManager sessions) {
+        this(system, lockout, sessions, PasswordBlocklist.getDefault());
+    }
+
+    // Конструктор для создания сервиса с заданными трекером попыток, менеджером сеансов и списком запрещенных паролей.
+    public DefaultAuthService(AuthenticationSystem system, LockoutTracker lockout, SessionManager sessions,
+                              PasswordBlocklist blocklist) {
+        this.system = system;
+        this.lockout = lockout;
+        this.sessions = sessions;
+        this.blocklist = blocklist;
+        this.audit = system.getAudit();
+        metrics.registerGauge("auth_sessions_active", sessions::size);
+    }
+
+    // Метод для входа пользователя; source — источник запроса для учета попыток.
+    // Исход и длительность каждой попытки учитываются в метриках и событии JFR.
+    @Override
+    public CompletableFuture<AuthResult> authenticate(String username, String password, String source) {
+        AuthEvents.Login event = new AuthEvents.Login();
+        event.begin();
+        long start = System.nanoTime();
+        return attempt(username, password, source, true).thenApply(result -> {
+            metrics.recordLogin(result.getStatus(), System.nanoTime() - start);
+            audit.record(AuditLog.Type.LOGIN, username, username, source, result.getStatus().name(), null);
+            if (event.shouldCommit()) {
+                event.username = username;
+                event.source = source;
+                event.outcome = result.getStatus().name();
+                event.commit();
+            }
+            return result;
+        });
+    }
+
+    // Метод для проверки имени и пароля без выдачи сеанса (учетные данные администратора в запросе);
+    // исход каждой проверки записывается в журнал аудита, как и вход.
+    @Override
+    public CompletableFuture<AuthResult> verifyCredentials(String username, String password, String source) {
+        return attempt(username, password, source, false).thenApply(result -> {
+            audit.record(AuditLog.Type.CREDENTIALS, username, username, source, result.getStatus().name(), null);
+            return result;
+        });
+    }
+
+    // Метод для проверки попытки входа; issueSession — выдавать ли сеанс при верном пароле.
+    private CompletableFuture<AuthResult> attempt(String username, String password, String source, boolean issueSession) {
+        // Блокировка проверяется до поиска пользователя, чтобы перебор имен тоже ограничивался
+        long lockedFor = lockout.lockedFor(username, source);
+        if (lockedFor > 0) {
+            return CompletableFuture.completedFuture(lockedOut(null, lockedFor));
+        }
+        long lookupStart = System.nanoTime();
+        User user = system.findUser(username);
+        metrics.recordLookup(System.nanoTime() - lookupStart);
+        if (user == null) {
+            if (lockout.recordUnknownUser(source) == 0) {
+                metrics.recordLockout();
+            }
+            return CompletableFuture.completedFuture(AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден."));
+        }
+        if (user.isBlocked()) {
+            return CompletableFuture.completedFuture(AuthResult.failure(AuthResult.Status.BLOCKED, user, "Пользователь заблокирован."));
+        }
+        // Попытка учитывается до проверки хеша: параллельные запросы не могут превысить порог, пока она идет
+        if (!lockout.tryAcquire(username, source)) {
+            metrics.recordLockout();
+            return CompletableFuture.completedFuture(lockedOut(user, lockout.lockedFor(username, source)));
+        }
+        String stored = user.getPassword();
+        return system.verifyPassword(stored, password).handle((valid, error) -> {
+            if (error != null) {
+                lockout.release(username, source); // Пароль не проверялся — попытка не засчитывается
+                return AuthResult.failure(AuthResult.Status.BUSY, user, "Система занята. Повторите попытку.");
+            }
+            if (valid) {
+                lockout.recordSuccess(username, source);
+                // Блокировка и смена пароля могли завершиться во время проверки и уже отозвать сеансы.
+                // Проверка и выдача сеанса выполняются под блокировкой пользователя, под которой блокировка
+                // и смена пароля меняют состояние и отзывают сеансы, поэтому revokeAll отзовет и этот сеанс.
+                String token;
+                synchronized (user) {
+                    if (user.isBlocked()) {
+                        return AuthResult.failure(AuthResult.Status.BLOCKED, user, "Пользователь заблокирован.");
+                    }
+                    if (!user.getPassword().equals(stored)) {
+                        return AuthResult.failure(AuthResult.Status.WRONG_PASSWORD, user, "Пароль был изменен. Выполните вход с новым паролем.");
+                    }
+                    token = issueSession ? sessions.issue(user) : null;
+                }
+                AuthResult result = token == null
+                        ? AuthResult.ok(user, "Учетные данные подтверждены.")
+                        : AuthResult.session(user, "Вход выполнен успешно.", token);
+                system.rehashIfNeeded(user, stored, password); // Пересчет идет в пуле проверки и не задерживает ответ
+                return result;
+            }
+            int attemptsLeft = lockout.recordFailure(username, source);
+            if (attemptsLeft == 0) {
+                metrics.recordLockout();
+                return lockedOut(user, lockout.lockedFor(username, source));
+            }
+            return AuthResult.failure(AuthResult.Status.WRONG_PASSWORD, user, "Неверный пароль. Осталось попыток: " + attemptsLeft);
+        });
+    }
+
+    // Метод для создания результата временной блокировки входа.
+    private static AuthResult lockedOut(User user, long lockedForMillis) {
+        return AuthResult.failure(AuthResult.Status.LOCKED_OUT, user,
+                "Превышено количество попыток. Повторите через " + Math.max(1, (lockedForMillis + 999) / 1000) + " с.");
+    }
+
+    public LockoutTracker getLockoutTracker() {return lockout;}
+    public SessionManager getSessionManager() {return sessions;}
+
+    // Метод для проверки токена сеанса.
+    @Override
+    public AuthResult validateSession(String token) {
+        User user = sessions.validate(token);
+        if (user == null) {
+            return AuthResult.failure(AuthResult.Status.INVALID_SESSION, null, "Сеанс недействителен. Выполните вход.");
+        }
+        return AuthResult.ok(user, "Сеанс действителен.");
+    }
+
+    // Метод для завершения сеанса.
+    @Override
+    public AuthResult logout(String token) {
+        User user = sessions.validate(token);
+        if (!sessions.revoke(token)) {
+            return AuthResult.failure(AuthResult.Status.INVALID_SESSION, null, "Сеанс не найден.");
+        }
+        String username = user == null ? null : user.getUsername();
+        return audit(AuditLog.Type.LOGOUT, username, username, AuthResult.ok(null, "Сеанс завершен."), null);
+    }
+
+    // Метод для регистрации пользователя с пустым паролем.
+    @Override
+    public AuthResult register(String username) {
+        if (!User.isValidUsername(username)) {
+            return audit(AuditLog.Type.REGISTER, username, AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Некорректное имя пользователя."), null);
+        }
+        if (!system.addUser(username)) {
+            return audit(AuditLog.Type.REGISTER, username, AuthResult.failure(AuthResult.Status.ALREADY_EXISTS, null, "Пользователь уже существует."), null);
+        }
+        return audit(AuditLog.Type.REGISTER, username, AuthResult.ok(system.findUser(username), "Пользователь " + username + " успешно добавлен."), null);
+    }
+
+    // Метод для блокировки пользователя.
+    @Override
+    public AuthResult block(String username) {
+        // Заблокированный пользователь теряет все сеансы сразу, не дожидаясь записи на диск
+        if (!system.blockUser(username, blocked -> sessions.revokeAll(blocked.getUsername()))) {
+            return audit(AuditLog.Type.BLOCK, username, AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден."), null);
+        }
+        User user = system.findUser(username);
+        return audit(AuditLog.Type.BLOCK, username, AuthResult.ok(user, "Пользователь " + username + " успешно заблокирован."), null);
+    }
+
+    // Метод для смены пароля пользователем с проверкой старого пароля.
+    @Override
+    public CompletableFuture<AuthResult> changePassword(String username, String oldPassword, String newPassword, String source) {
+        return checkAndChangePassword(username, oldPassword, newPassword, source)
+                .thenApply(result -> audit(AuditLog.Type.PASSWORD_CHANGE, username, username, result, null));
+    }
+
+    // Метод для проверки старого пароля и сохранения нового; попытки ограничиваются так же, как вход.
+    private CompletableFuture<AuthResult> checkAndChangePassword(String username, String oldPassword, String newPassword, String source) {
+        long lockedFor = lockout.lockedFor(username, source);
+        if (lockedFor > 0) {
+            return CompletableFuture.completedFuture(lockedOut(null, lockedFor));
+        }
+        User user = system.findUser(username);
+        if (user == null) {
+            if (lockout.recordUnknownUser(source) == 0) {
+                metrics.recordLockout();
+            }
+            return CompletableFuture.completedFuture(AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден."));
+        }
+        if (!lockout.tryAcquire(username, source)) {
+            metrics.recordLockout();
+            return CompletableFuture.completedFuture(lockedOut(user, lockout.lockedFor(username, source)));
+        }
+        return system.verifyPassword(user, oldPassword).handle((valid, error) -> {
+            if (error != null) {
+                lockout.release(username, source); // Пароль не проверялся — попытка не засчитывается
+                return CompletableFuture.completedFuture(AuthResult.failure(AuthResult.Status.BUSY, user, "Система занята. Повторите попытку."));
+            }
+            if (!valid) {
+                int attemptsLeft = lockout.recordFailure(username, source);
+                if (attemptsLeft == 0) {
+                    metrics.recordLockout();
+                    return CompletableFuture.completedFuture(lockedOut(user, lockout.lockedFor(username, source)));
+                }
+                return CompletableFuture.completedFuture(AuthResult.failure(AuthResult.Status.WRONG_PASSWORD, user,
+                        "Неверный старый пароль. Осталось попыток: " + attemptsLeft));
+            }
+            lockout.recordSuccess(username, source);
+            AuthResult violation = checkPolicy(user, newPassword);
+            if (violation != null) {
+                return CompletableFuture.completedFuture(violation);
+            }
+            return storePassword(user, newPassword);
+        }).thenCompose(result -> result);
+    }
+
+    // Метод для установки нового пароля без проверки старого (смена пароля администратором).
+    @Override
+    public CompletableFuture<AuthResult> resetPassword(String username, String newPassword) {
+        String actor = AuditLog.actor(); // Исполнитель запоминается до перехода в пул проверки
+        return checkAndResetPassword(username, newPassword)
+                .thenApply(result -> audit(AuditLog.Type.PASSWORD_RESET, actor, username, result, null));
+    }
+
+    // Метод для проверки нового пароля по политике и его сохранения.
+    private CompletableFuture<AuthResult> checkAndResetPassword(String username, String newPassword) {
+        User user = system.findUser(username);
+        if (user == null) {
+            return CompletableFuture.completedFuture(AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден."));
+        }
+        AuthResult violation = checkPolicy(user, newPassword);
+        if (violation != null) {
+            return CompletableFuture.completedFuture(violation);
+        }
+        return storePassword(user, newPassword);
+    }
+
+    // Метод для проверки нового пароля при смене пользователем и администратором; возвращает null, если пароль допустим.
+    // Политика проверяется, только если ограничения пользователя включены, а список запрещенных паролей —
+    // всегда: отключение ограничений не должно разрешать заведомо скомпрометированные пароли.
+    private AuthResult checkPolicy(User user, String newPassword) {
+        PasswordPolicy policy = user.getPasswordPolicy();
+        int violations = user.isPasswordRestrictionsEnabled() ? policy.check(newPassword) : 0;
+        if (violations != 0) {
+            return AuthResult.failure(AuthResult.Status.POLICY_VIOLATION, user,
+                    "Пароль не соответствует ограничениям: " + policy.describe(violations) + ".");
+        }
+        if (blocklist.contains(newPassword)) {
+            return AuthResult.failure(AuthResult.Status.POLICY_VIOLATION, user,
+                    "Пароль входит в список распространенных или скомпрометированных паролей.");
+        }
+        return null;
+    }
+
+    // Метод для вычисления хеша нового пароля в пуле проверки и сохранения пользователя.
+    // Сеансы пользователя отзываются вместе с заменой хеша, до записи на диск: старые токены
+    // недействительны и во время записи, и после ее ошибки.
+    private CompletableFuture<AuthResult> storePassword(User user, String newPassword) {
+        String username = user.getUsername();
+        return system.updatePassword(user, newPassword, () -> sessions.revokeAll(username)).handle((ignored, error) -> {
+            if (error != null && error.getCause() instanceof IOException) {
+                return AuthResult.failure(AuthResult.Status.BUSY, user, "Ошибка при сохранении данных о пользователях.");
+            }
+            if (error != null) {
+                return AuthResult.failure(AuthResult.Status.BUSY, user, "Система занята. Повторите попытку.");
+            }
+            return AuthResult.ok(user, "Пароль успешно изменен.");
+        });
+    }
+
+    // Метод для настройки индивидуальных ограничений на пароль пользователя.
+    @Override
+    public AuthResult setPolicy(String username, int minLength, int maxLength, int minDigits, int minSpecialChars) {
+        User user = system.findUser(username);
+        if (user == null) {
+            return AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден.");
+        }
+        PasswordPolicy policy;
+        boolean valid;
+        synchronized (user) {
+            // Чтение и изменение политики атомарны, а запись на диск выполняется уже без блокировки
+            policy = user.getPasswordPolicy()
+                    .with(PasswordRule.MIN_LENGTH, minLength)
+                    .with(PasswordRule.MAX_LENGTH, maxLength)
+                    .with(PasswordRule.MIN_DIGITS, minDigits)
+                    .with(PasswordRule.MIN_SPECIAL, minSpecialChars);
+            valid = isValid(policy);
+            if (valid) {
+                user.setPasswordPolicy(policy);
+            }
+        }
+        return audit(AuditLog.Type.POLICY, username, valid ? savePolicy(user) : invalidPolicy(user), policy.encode());
+    }
+
+    // Метод для установки политики паролей пользователя целиком.
+    @Override
+    public AuthResult setPolicy(String username, PasswordPolicy policy) {
+        User user = system.findUser(username);
+        if (user == null) {
+            return audit(AuditLog.Type.POLICY, username, AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден."), null);
+        }
+        return audit(AuditLog.Type.POLICY, username, setPolicy(user, policy), policy.encode());
+    }
+
+    // Метод для проверки и сохранения политики пользователя.
+    private AuthResult setPolicy(User user, PasswordPolicy policy) {
+        if (!isValid(policy)) {
+            return invalidPolicy(user);
+        }
+        user.setPasswordPolicy(policy);
+        return savePolicy(user);
+    }
+
+    // Метод для сохранения измененной политики пользователя.
+    private AuthResult savePolicy(User user) {
+        system.saveUser(user);
+        return AuthResult.ok(user, "Ограничения успешно обновлены для пользователя " + user.getUsername() + ".");
+    }
+
+    // Метод для создания результата некорректной политики.
+    private static AuthResult invalidPolicy(User user) {
+        return AuthResult.failure(AuthResult.Status.INVALID_INPUT, user, "Некорректные значения ограничений.");
+    }
+
+    // Метод для проверки значений политики.
+    private static boolean isValid(PasswordPolicy policy) {
+        for (PasswordRule rule : PasswordRule.values()) {
+            if (policy.get(rule) < 0) {
+                return false;
+            }
+        }
+        return !policy.enabled(PasswordRule.MAX_LENGTH) || policy.get(PasswordRule.MAX_LENGTH) >= policy.get(PasswordRule.MIN_LENGTH);
+    }
+
+    // Метод для получения списка шаблонов политик.
+    @Override
+    public List<PolicyTemplate> listTemplates() {
+        return system.getTemplates();
+    }
+
+    // Метод для создания шаблона или изменения его политики.
+    @Override
+    public AuthResult setTemplatePolicy(String templateId, PasswordPolicy policy) {
+        if (!PolicyTemplates.isValidId(templateId)) {
+            return audit(AuditLog.Type.TEMPLATE_POLICY, templateId, AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Некорректный идентификатор шаблона."), null);
+        }
+        if (!isValid(policy)) {
+            return audit(AuditLog.Type.TEMPLATE_POLICY, templateId, AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Некорректные значения ограничений."), policy.encode());
+        }
+        system.defineTemplate(templateId, policy);
+        return audit(AuditLog.Type.TEMPLATE_POLICY, templateId, AuthResult.ok(null, "Шаблон " + templateId + " обновлен."), policy.encode());
+    }
+
+    // Метод для назначения пользователю шаблона политики.
+    @Override
+    public AuthResult assignTemplate(String username, String templateId) {
+        PolicyTemplate template = system.findTemplate(templateId);
+        if (template == null) {
+            return audit(AuditLog.Type.TEMPLATE_ASSIGN, username, AuthResult.failure(AuthResult.Status.INVALID_INPUT, null, "Шаблон не найден."), templateId);
+        }
+        if (!system.assignTemplate(username, template)) {
+            return audit(AuditLog.Type.TEMPLATE_ASSIGN, username, AuthResult.failure(AuthResult.Status.UNKNOWN_USER, null, "Пользователь не найден."), templateId);
+        }
+        return audit(AuditLog.Type.TEMPLATE_ASSIGN, username, AuthResult.ok(system.findUser(username), "Пользователю " + username + " назначен шаблон " + templateId + "."), templateId);
+    }
+
+    // Метод для включения/отключения ограничений на пароли для всех пользователей.
+    @Override
+    public AuthResult setRestrictionsEnabled(boolean enabled) {
+        system.togglePasswordRestrictions(enabled);
+        return audit(AuditLog.Type.RESTRICTIONS, null,
+                AuthResult.ok(null, "Ограничения на пароли " + (enabled ? "включены" : "отключены") + " для всех пользователей."), String.valueOf(enabled));
+    }
+
+    // Метод для пакетного импорта пользователей.
+    @Override
+    public ImportReport importUsers(Reader input, UserImporter.Format format, TaskProgress progress) throws IOException {
+        try {
+            ImportReport report = new UserImporter(system).importUsers(input, format, progress);
+            audit.record(AuditLog.Type.IMPORT, AuditLog.actor(), null, null, AuthResult.Status.OK.name(), report.toString());
+            return report;
+        } catch (IOException | RuntimeException e) {
+            audit.record(AuditLog.Type.IMPORT, AuditLog.actor(), null, null, e instanceof CancellationException ? "CANCELLED" : "FAILED", e.getMessage());
+            throw e;
+        }
+    }
+
+    // Метод для записи результата операции в журнал аудита; исполнитель задается AuditLog.actingAs.
+    private AuthResult audit(AuditLog.Type type, String subject, AuthResult result, String detail) {
+        return audit(type, AuditLog.actor(), subject, result, detail);
+    }
+
+    // Метод для записи результата операции с заданным исполнителем в журнал аудита.
+    private AuthResult audit(AuditLog.Type type, String actor, String subject, AuthResult result, String detail) {
+        audit.record(type, actor, subject, null, result.getStatus().name(), detail);
+        return result;
+    }
+
+    // Метод для поиска пользователя по имени.
+    @Override
+    public User findUser(String username) {
+        return system.findUser(username);
+    }
+
+    // Метод для получения списка пользователей в порядке добавления.
+    @Override
+    public List<User> listUsers() {
+        return system.getUsers();
+    }
+
+    // Метод для поиска имен пользователей при вводе.
+    @Override
+    public List<String> suggestUsernames(String query, int limit) {
+        return system.suggestUsernames(query, limit);
+    }
+
+    // Метод для получения неизменяемого снимка пользователей.
+    @Override
+    public UserSnapshot snapshotUsers() {
+        return system.snapshot();
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import java.awt.EventQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Класс EdtMonitor измеряет отзывчивость интерфейса: каждые PERIOD_MILLIS в очередь событий Swing ставится
+// проба, а время от постановки до выполнения записывается в AuthMetrics (auth_ui_edt_latency_seconds).
+// Новая проба ставится только после выполнения предыдущей, поэтому долгая блокировка учитывается целиком,
+// а не теряется между пробами. Если проба ждет дольше порога (-Dauth.ui.stallMillis, по умолчанию 200 мс),
+// в журнал выводится стек потока интерфейса — по нему находится обработчик, выполняющий долгую работу.
+final class EdtMonitor {
+    static final long PERIOD_MILLIS = 50; // Период постановки проб
+
+    private static final Logger LOG = Logger.getLogger(EdtMonitor.class.getName());
+
+    private final AuthMetrics metrics; // Метрики для записи задержек
+    private final long stallNanos; // Порог сообщения о блокировке
+    private final ScheduledExecutorService timer; // Поток постановки проб
+    private volatile long posted; // Время постановки ожидающей пробы (0 — пробы нет)
+    private volatile Thread edt; // Поток обработки событий (известен после первой пробы)
+    private boolean reported; // Признак того, что о текущей блокировке уже сообщено (только поток таймера)
+
+    // Конструктор для создания монитора.
+    private EdtMonitor(AuthMetrics metrics, long stallMillis) {
+        this.metrics = metrics;
+        this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallMillis);
+        this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "edt-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Метод для запуска монитора с метриками процесса.
+    static EdtMonitor start() {
+        return start(AuthMetrics.getDefault(), Long.getLong("auth.ui.stallMillis", 200));
+    }
+
+    // Метод для запуска монитора с заданными метриками и порогом блокировки.
+    static EdtMonitor start(AuthMetrics metrics, long stallMillis) {
+        EdtMonitor monitor = new EdtMonitor(metrics, stallMillis);
+        monitor.timer.scheduleAtFixedRate(monitor::tick, PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        return monitor;
+    }
+
+    // Метод для постановки пробы или проверки ожидающей.
+    private void tick() {
+        long pending = posted;
+        long now = System.nanoTime();
+        if (pending != 0) {
+            if (!reported && now - pending > stallNanos) {
+                reported = true;
+                metrics.recordEdtStall();
+                reportStall(now - pending);
+            }
+            return;
+        }
+        reported = false;
+        posted = now;
+        EventQueue.invokeLater(this::probe);
+    }
+
+    // Метод пробы, выполняемый в потоке обработки событий.
+    private void probe() {
+        edt = Thread.currentThread();
+        metrics.recordEdtLatency(System.nanoTime() - posted);
+        posted = 0;
+    }
+
+    // Метод для вывода стека заблокированного потока интерфейса.
+    private void reportStall(long nanos) {
+        StringBuilder message = new StringBuilder("Интерфейс не отвечает ")
+                .append(TimeUnit.NANOSECONDS.toMillis(nanos)).append(" мс");
+        Thread thread = edt;
+        if (thread != null) {
+            StackTraceElement[] stack = thread.getStackTrace();
+            for (int i = 0; i < Math.min(stack.length, 8); i++) {
+                message.append("\n    at ").append(stack[i]);
+            }
+        }
+        LOG.log(Level.WARNING, message.toString());
+    }
+
+    // Метод для остановки монитора.
+    public void stop() {
+        timer.shutdownNow();
+    }
+}
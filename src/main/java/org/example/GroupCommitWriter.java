@@ -0,0 +1,185 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Класс GroupCommitWriter объединяет запросы на сохранение, пришедшие почти одновременно, в одну запись файла.
+// Запросы ставятся в очередь; поток записи забирает первый, ждет остальные не дольше окна объединения,
+// затем один раз получает текущее состояние пользователей и пишет его во временный файл с force
+// и атомарной заменой. Будущие результаты всех запросов пакета завершаются после записи на диск,
+// поэтому при росте числа одновременных изменений растет размер пакета, а не число перезаписей файла.
+class GroupCommitWriter implements Closeable {
+    // Класс Request — запрос на сохранение и его будущий результат.
+    private static final class Request {
+        final Supplier<List<User>> users; // Источник состояния пользователей
+        final CompletableFuture<Void> done = new CompletableFuture<>(); // Завершается после записи на диск
+
+        Request(Supplier<List<User>> users) {
+            this.users = users;
+        }
+    }
+
+    private static final Request STOP = new Request(null); // Признак остановки потока записи
+
+    private final Path target; // Файл пользователей
+    private final long windowNanos; // Окно объединения запросов
+    private final int maxBatch; // Максимальное число запросов в пакете
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>(); // Очередь запросов
+    private Thread thread; // Поток записи (создается при первом запросе)
+    private volatile boolean closed; // Признак закрытия
+
+    // Конструктор для создания писателя с окном объединения из свойства auth.store.commitWindowMillis.
+    // По умолчанию окно нулевое: пакет составляют запросы, накопившиеся за время предыдущей записи,
+    // и одиночное сохранение не ждет напрасно.
+    public GroupCommitWriter(Path target) {
+        this(target, Long.getLong("auth.store.commitWindowMillis", 0), 1024);
+    }
+
+    // Конструктор для создания писателя с заданным окном объединения и размером пакета.
+    public GroupCommitWriter(Path target, long windowMillis, int maxBatch) {
+        this.target = target;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatch = maxBatch;
+    }
+
+    // Метод для постановки сохранения в очередь; users вызывается в потоке записи уже после
+    // объединения, поэтому запись включает все изменения, сделанные до вызова submit.
+    public CompletableFuture<Void> submit(Supplier<List<User>> users) {
+        Request request = new Request(users);
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Хранилище пользователей закрыто."));
+            }
+            if (thread == null) {
+                thread = new Thread(this::run, "user-store-writer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            queue.add(request);
+        }
+        return request.done;
+    }
+
+    // Метод потока записи: пакет запросов -> одна запись файла.
+    private void run() {
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Request first = queue.take();
+                if (first == STOP) {
+                    return;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                boolean stop = false;
+                while (batch.size() < maxBatch) {
+                    long wait = deadline - System.nanoTime();
+                    Request next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == STOP) {
+                        stop = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+                batch.clear();
+                if (stop) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                fail(batch, new IOException("Запись прервана."));
+                return;
+            }
+        }
+    }
+
+    // Метод для записи пакета: состояние берется у последнего запроса как самое свежее.
+    private void commit(List<Request> batch) {
+        AuthEvents.GroupCommit event = new AuthEvents.GroupCommit();
+        long bytes = AuthMetrics.threadBytesWritten();
+        event.begin();
+        try {
+            writeAtomically(target, batch.get(batch.size() - 1).users.get());
+            AuthMetrics.getDefault().recordGroupCommit(batch.size());
+            if (event.shouldCommit()) {
+                event.requests = batch.size();
+                event.bytes = AuthMetrics.threadBytesWritten() - bytes;
+                event.commit();
+            }
+            for (Request request : batch) {
+                request.done.complete(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(batch, e);
+        }
+    }
+
+    // Метод для завершения запросов пакета с ошибкой.
+    private static void fail(List<Request> batch, Exception error) {
+        for (Request request : batch) {
+            request.done.completeExceptionally(error);
+        }
+    }
+
+    // Метод для записи пользователей во временный файл с force и атомарной заменой целевого файла:
+    // при сбое на диске остается либо старый, либо новый файл целиком.
+    static void writeAtomically(Path target, List<User> users) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        CsvUserStore.write(temp.toFile(), users);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // Запись каталога фиксирует само переименование; не все платформы позволяют открыть каталог
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null) {
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Метод для остановки потока записи после записи уже поставленных запросов.
+    @Override
+    public void close() throws IOException {
+        Thread writer;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writer = thread;
+            if (writer != null) {
+                queue.add(STOP);
+            }
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Ожидание записи прервано.");
+            }
+        }
+    }
+}
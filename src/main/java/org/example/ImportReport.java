@@ -0,0 +1,70 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Класс ImportReport содержит итоги пакетного импорта и ошибки по строкам.
+class ImportReport {
+    // Класс Error описывает отклоненную строку импорта.
+    static final class Error {
+        final int line;        // Номер строки входного файла (0 — ошибка при сохранении)
+        final String username; // Имя пользователя из строки (может быть null)
+        final String message;  // Причина отклонения
+
+        Error(int line, String username, String message) {
+            this.line = line;
+            this.username = username;
+            this.message = message;
+        }
+
+        // Переопределенный метод toString для строкового представления ошибки.
+        @Override
+        public String toString() {
+            return line + "," + (username == null ? "" : username) + "," + message;
+        }
+    }
+
+    private final List<Error> errors = new ArrayList<>(); // Ошибки по строкам
+    private int rowsRead; // Количество прочитанных строк данных
+    private int imported; // Количество добавленных пользователей
+
+    // Метод для учета прочитанной строки.
+    void rowRead() {
+        rowsRead++;
+    }
+
+    // Метод для добавления ошибки строки.
+    void reject(int line, String username, String message) {
+        errors.add(new Error(line, username, message));
+    }
+
+    // Метод для добавления готовой ошибки строки.
+    void reject(Error error) {
+        errors.add(error);
+    }
+
+    void setImported(int imported) {this.imported = imported;}
+    public int getRowsRead() {return rowsRead;}
+    public int getImported() {return imported;}
+    public List<Error> getErrors() {return errors;}
+
+    // Метод для записи отчета об ошибках в формате line,username,message, отсортированного по номеру строки.
+    public void writeErrors(Writer writer) throws IOException {
+        List<Error> sorted = new ArrayList<>(errors);
+        sorted.sort((a, b) -> Integer.compare(a.line, b.line));
+        writer.write("line,username,message\n");
+        for (Error error : sorted) {
+            writer.write(error.toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    // Переопределенный метод toString для краткого итога импорта.
+    @Override
+    public String toString() {
+        return "Прочитано строк: " + rowsRead + ", добавлено пользователей: " + imported + ", ошибок: " + errors.size();
+    }
+}
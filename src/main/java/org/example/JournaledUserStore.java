@@ -0,0 +1,206 @@
+package org.example;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+// Класс JournaledUserStore хранит снимок пользователей и журнал изменений, дописываемый в конец файла.
+// Каждое изменение добавляет одну запись в журнал; при превышении порога журнал в фоне сворачивается в снимок.
+class JournaledUserStore implements UserStore {
+    private static final Logger LOG = Logger.getLogger(JournaledUserStore.class.getName());
+
+    private final Path snapshotFile; // Файл снимка в формате CSV
+    private final Path journalFile;  // Текущий журнал изменений
+    private final Path rotatedFile;  // Журнал, который сворачивается в снимок
+    private final long compactThreshold; // Размер журнала в байтах, после которого запускается свертка
+    private final Object lock = new Object(); // Блокировка записи в журнал
+    private final Object snapshotLock = new Object(); // Блокировка записи снимка (берется раньше lock)
+    private final AtomicBoolean compacting = new AtomicBoolean(); // Флаг выполняющейся свертки
+    private final ExecutorService compactor; // Фоновый поток свертки
+    private FileChannel journal; // Открытый канал журнала
+
+    // Конструктор для создания хранилища с журналом рядом с файлом снимка.
+    public JournaledUserStore(String dataFile, long compactThreshold) {
+        this.snapshotFile = Paths.get(dataFile);
+        this.journalFile = Paths.get(dataFile + ".journal");
+        this.rotatedFile = Paths.get(dataFile + ".journal.old");
+        this.compactThreshold = compactThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Метод для загрузки пользователей: читается снимок, затем повторяются записи журналов.
+    @Override
+    public List<User> load() throws IOException {
+        Map<String, User> users = new LinkedHashMap<>();
+        if (Files.exists(snapshotFile)) {
+            for (User user : new CsvUserStore(snapshotFile.toString()).load()) {
+                users.put(user.getUsername(), user);
+            }
+        }
+        boolean replayed = replay(rotatedFile, users) | replay(journalFile, users);
+        List<User> result = new ArrayList<>(users.values());
+        if (replayed) {
+            // Сворачиваем восстановленное состояние, чтобы следующий запуск читал только снимок
+            writeSnapshot(result);
+        }
+        // Журналы удаляются, даже если в них не нашлось целых записей: иначе следующая запись была бы
+        // дописана сразу за оборванной строкой и не прошла бы проверку при следующей загрузке
+        Files.deleteIfExists(rotatedFile);
+        Files.deleteIfExists(journalFile);
+        if (users.isEmpty() && !Files.exists(snapshotFile)) {
+            throw new FileNotFoundException(snapshotFile.toString());
+        }
+        return result;
+    }
+
+    // Метод для повтора записей журнала; поврежденные записи (оборванные при сбое) пропускаются
+    // и учитываются в метрике auth_persist_corrupt_records_total.
+    private boolean replay(Path file, Map<String, User> users) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        boolean any = false;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.lastIndexOf('|');
+                if (separator < 0 || !checksum(line.substring(0, separator)).equals(line.substring(separator + 1))) {
+                    skipped++;
+                    continue;
+                }
+                User user = CsvUserStore.parse(line.substring(0, separator));
+                users.put(user.getUsername(), user);
+                any = true;
+            }
+        }
+        if (skipped > 0) {
+            AuthMetrics.getDefault().recordCorruptRecords(skipped);
+            LOG.log(Level.WARNING, "Пропущено поврежденных записей журнала {0}: {1}", new Object[]{file, skipped});
+        }
+        return any;
+    }
+
+    // Метод для полной записи пользователей: снимок заменяется атомарно, журнал очищается.
+    @Override
+    public void saveAll(List<User> users) throws IOException {
+        synchronized (snapshotLock) {
+            synchronized (lock) {
+                writeSnapshot(users);
+                closeJournal();
+                Files.deleteIfExists(journalFile);
+                Files.deleteIfExists(rotatedFile);
+            }
+        }
+    }
+
+    // Метод для сохранения изменения одного пользователя одной записью в конце журнала.
+    @Override
+    public void saveUser(User user, Supplier<List<User>> allUsers) throws IOException {
+        String record = CsvUserStore.format(user);
+        ByteBuffer buffer = ByteBuffer.wrap((record + "|" + checksum(record) + "\n").getBytes(StandardCharsets.UTF_8));
+        long size;
+        synchronized (lock) {
+            if (journal == null) {
+                journal = openJournal();
+            }
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+            size = journal.size();
+        }
+        AuthMetrics.getDefault().recordBytesWritten(buffer.capacity());
+        if (size >= compactThreshold && compacting.compareAndSet(false, true)) {
+            compactor.execute(() -> compact(allUsers));
+        }
+    }
+
+    // Метод для фоновой свертки журнала в снимок.
+    private void compact(Supplier<List<User>> allUsers) {
+        try {
+            synchronized (snapshotLock) {
+                List<User> users;
+                synchronized (lock) {
+                    if (!Files.exists(journalFile)) {
+                        return; // Журнал уже свернут полной записью
+                    }
+                    // Состояние в памяти уже содержит все записи журнала, поэтому журнал можно отложить,
+                    // а новые изменения писать в свежий журнал, не дожидаясь записи снимка
+                    users = allUsers.get();
+                    closeJournal();
+                    Files.move(journalFile, rotatedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                writeSnapshot(users);
+                Files.deleteIfExists(rotatedFile);
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Ошибка при свертке журнала пользователей", e);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    // Метод для записи снимка во временный файл с последующей атомарной заменой.
+    private void writeSnapshot(List<User> users) throws IOException {
+        GroupCommitWriter.writeAtomically(snapshotFile, users);
+    }
+
+    // Метод для открытия журнала на дописывание. Если журнал не был прочитан load и заканчивается
+    // оборванной строкой, она завершается переводом строки, чтобы не испортить следующую запись.
+    private FileChannel openJournal() throws IOException {
+        // Запись ведется только под lock, поэтому вместо APPEND (несовместимого с READ) позиция ставится в конец
+        FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        channel.position(size);
+        if (size > 0) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            if (last.get(0) != '\n') {
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        }
+        return channel;
+    }
+
+    // Метод для закрытия канала журнала.
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    // Метод для вычисления контрольной суммы записи журнала.
+    private static String checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    // Метод для закрытия журнала и фонового потока свертки.
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        synchronized (lock) {
+            closeJournal();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Класс LatencyHistogram — гистограмма задержек в наносекундах с логарифмически-линейными корзинами,
+// как в HdrHistogram: каждая степень двойки делится на 16 равных корзин, поэтому относительная
+// погрешность перцентилей не превышает 1/16 при фиксированном объеме памяти и записи без блокировок.
+final class LatencyHistogram {
+    private static final int SUB_BITS = 4; // 16 корзин на каждую степень двойки
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40; // Верхняя граница ~2^41 нс (около 36 минут)
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS); // Счетчики корзин
+    private final LongAdder count = new LongAdder(); // Число значений
+    private final LongAdder sum = new LongAdder();   // Сумма значений
+
+    // Метод для записи значения в наносекундах.
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    // Метод для определения корзины значения.
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        int sub = (int) (Math.min(value, (2L << MAX_EXPONENT) - 1) >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    // Метод для получения верхней границы корзины.
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        int sub = bucket % SUB_COUNT;
+        return ((long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    public long getCount() {return count.sum();}
+    public long getSum() {return sum.sum();}
+
+    // Метод для получения среднего значения в наносекундах.
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // Метод для получения перцентиля (quantile от 0 до 1) в наносекундах по текущему состоянию корзин.
+    public long percentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+}
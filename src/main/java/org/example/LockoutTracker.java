@@ -0,0 +1,427 @@
+package org.example;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Класс LockoutTracker считает неудачные попытки входа по пользователю и по источнику запроса
+// в скользящем временном окне и временно блокирует вход с экспоненциально растущей задержкой.
+// Счетчики пользователей точные (по записи на пользователя): до них доходят только существующие
+// пользователи, а успешный вход сбрасывает только собственную запись. Счетчики источников хранятся
+// в таблице фиксированного размера (как в count-min sketch) и обновляются без блокировок через CAS,
+// поэтому поток случайных адресов и имен не может исчерпать память; общие ячейки таблицы никогда
+// не обнуляются, и оценка не бывает меньше настоящего числа попыток источника.
+// Попытка учитывается до проверки пароля (tryAcquire), а не по ее итогу: иначе параллельные запросы,
+// прошедшие проверку блокировки до завершения первой проверки хеша, обходили бы порог.
+class LockoutTracker {
+    private static final int COUNT_MASK = 0xFFFF; // Максимум счетчика окна
+
+    private final UserTable users;   // Счетчики по имени пользователя
+    private final SlotTable sources; // Счетчики по источнику запроса (адресу клиента)
+    private final LongSupplier clock; // Источник времени в миллисекундах
+    private final LongAdder failures = new LongAdder(); // Общее число неудачных попыток
+    private final LongAdder lockouts = new LongAdder(); // Общее число блокировок
+
+    // Конструктор для создания трекера с параметрами из системных свойств auth.lockout.*.
+    public LockoutTracker() {
+        this(Integer.getInteger("auth.lockout.threshold", 3),
+                Integer.getInteger("auth.lockout.sourceThreshold", 20),
+                Long.getLong("auth.lockout.windowSeconds", 900) * 1000,
+                Long.getLong("auth.lockout.baseSeconds", 30) * 1000,
+                Long.getLong("auth.lockout.maxSeconds", 3600) * 1000,
+                Integer.getInteger("auth.lockout.slots", 1 << 16),
+                System::currentTimeMillis);
+    }
+
+    // Конструктор для создания трекера с явными параметрами.
+    public LockoutTracker(int userThreshold, int sourceThreshold, long windowMillis, long baseLockMillis,
+                          long maxLockMillis, int slots, LongSupplier clock) {
+        this.users = new UserTable(slots, userThreshold, windowMillis, baseLockMillis, maxLockMillis);
+        this.sources = new SlotTable(slots, sourceThreshold, windowMillis, baseLockMillis, maxLockMillis);
+        this.clock = clock;
+    }
+
+    // Метод для получения оставшегося времени блокировки в миллисекундах (0, если вход разрешен).
+    public long lockedFor(String username, String source) {
+        long now = clock.getAsLong();
+        return Math.max(users.lockedFor(username, now), sources.lockedFor(source, now));
+    }
+
+    // Метод для учета начатой попытки входа до проверки пароля; возвращает false, если порог попыток
+    // пользователя или источника уже исчерпан (вход при этом блокируется и пароль проверять не нужно).
+    public boolean tryAcquire(String username, String source) {
+        long now = clock.getAsLong();
+        boolean userAllowed = users.acquire(username, now);
+        boolean sourceAllowed = sources.acquire(source, now);
+        if (userAllowed && sourceAllowed) {
+            return true;
+        }
+        // Отклоненная попытка не расходует счетчик, по которому вход еще разрешен
+        if (userAllowed) {
+            users.release(username, now);
+        } else if (sourceAllowed) {
+            sources.release(source, now);
+        }
+        lockouts.increment();
+        return false;
+    }
+
+    // Метод для подтверждения неудачной попытки, учтенной tryAcquire; возвращает количество оставшихся попыток
+    // (0 — вход заблокирован).
+    public int recordFailure(String username, String source) {
+        long now = clock.getAsLong();
+        failures.increment();
+        int userLeft = users.recordFailure(username, now);
+        int sourceLeft = sources.recordFailure(source, now);
+        if (userLeft == 0 || sourceLeft == 0) {
+            lockouts.increment();
+        }
+        return Math.min(userLeft, sourceLeft);
+    }
+
+    // Метод для учета попытки входа под несуществующим именем: учитывается только источник,
+    // чтобы поток случайных имен не переполнял счетчики настоящих пользователей.
+    public int recordUnknownUser(String source) {
+        long now = clock.getAsLong();
+        failures.increment();
+        int sourceLeft = sources.acquire(source, now) ? sources.recordFailure(source, now) : 0;
+        if (sourceLeft == 0) {
+            lockouts.increment();
+        }
+        return sourceLeft;
+    }
+
+    // Метод для сброса счетчика пользователя после успешного входа (счетчики других пользователей
+    // не затрагиваются); попытка, учтенная tryAcquire, возвращается источнику.
+    public void recordSuccess(String username, String source) {
+        long now = clock.getAsLong();
+        users.reset(username, now);
+        sources.release(source, now);
+    }
+
+    // Метод для возврата попытки, учтенной tryAcquire, если пароль так и не был проверен (например, пул занят).
+    public void release(String username, String source) {
+        long now = clock.getAsLong();
+        users.release(username, now);
+        sources.release(source, now);
+    }
+
+    public long getFailures() {return failures.sum();}
+    public long getLockouts() {return lockouts.sum();}
+
+    // Метод для вычисления длительности блокировки: base * 2^strike, но не более max.
+    static long lockDuration(int strike, long baseLockMillis, long maxLockMillis) {
+        return strike >= Long.numberOfLeadingZeros(baseLockMillis) - 1
+                ? maxLockMillis : Math.min(maxLockMillis, baseLockMillis << strike);
+    }
+
+    // Метод для получения упакованного состояния окна с попыткой, добавленной в текущее окно.
+    // Состояние: эпоха (32 бита) | текущий счетчик (16 бит) | предыдущий счетчик (16 бит).
+    static long incremented(long state, long now, long windowMillis) {
+        long epoch = (now / windowMillis) & 0xFFFFFFFFL;
+        long stateEpoch = state >>> 32;
+        int current = (int) (state >>> 16) & COUNT_MASK;
+        int previous = (int) state & COUNT_MASK;
+        if (stateEpoch != epoch) {
+            previous = (stateEpoch + 1 == epoch) ? current : 0;
+            current = 0;
+        }
+        current = Math.min(current + 1, COUNT_MASK);
+        return epoch << 32 | (long) current << 16 | previous;
+    }
+
+    // Метод для получения состояния окна без одной попытки; попытка из прошлого окна снимается
+    // с предыдущего счетчика. Возвращает state, если попытка уже вышла из окна или счетчик сброшен.
+    static long decremented(long state, long now, long windowMillis) {
+        long epoch = (now / windowMillis) & 0xFFFFFFFFL;
+        long stateEpoch = state >>> 32;
+        int current = (int) (state >>> 16) & COUNT_MASK;
+        int previous = (int) state & COUNT_MASK;
+        if ((stateEpoch == epoch || stateEpoch + 1 == epoch) && current > 0) {
+            return state - (1L << 16); // Текущий счетчик (его окно могло только что закончиться)
+        }
+        if (stateEpoch == epoch && previous > 0) {
+            return state - 1;
+        }
+        return state;
+    }
+
+    // Метод для оценки числа попыток в скользящем окне: предыдущее окно учитывается пропорционально
+    // своей доле в скользящем окне.
+    static int estimate(long state, long now, long windowMillis) {
+        long epoch = (now / windowMillis) & 0xFFFFFFFFL;
+        long stateEpoch = state >>> 32;
+        int current = (int) (state >>> 16) & COUNT_MASK;
+        int previous = (int) state & COUNT_MASK;
+        if (stateEpoch != epoch) {
+            previous = (stateEpoch + 1 == epoch) ? current : 0;
+            current = 0;
+        }
+        long elapsed = now % windowMillis;
+        return current + (int) (previous * (windowMillis - elapsed) / windowMillis);
+    }
+
+    // Класс UserTable хранит точный счетчик каждого пользователя. Записи удаляются при успешном входе,
+    // а записи с истекшими окном и блокировкой — при росте таблицы, поэтому ее размер ограничен
+    // числом пользователей с недавними неудачными попытками.
+    static final class UserTable {
+        private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>(); // Записи по имени
+        private final int minSweep; // Размер таблицы, до которого устаревшие записи не удаляются
+        private final int threshold;
+        private final long windowMillis;
+        private final long baseLockMillis;
+        private final long maxLockMillis;
+        private volatile int sweepAt; // Размер таблицы, при котором удаляются устаревшие записи
+
+        // Класс Entry — состояние одного пользователя; изменяется под собственной блокировкой.
+        private static final class Entry {
+            long window; // Упакованное состояние окна
+            long lockedUntil; // Момент окончания блокировки
+            int strikes; // Количество блокировок подряд
+        }
+
+        // Конструктор для создания таблицы.
+        UserTable(int minSweep, int threshold, long windowMillis, long baseLockMillis, long maxLockMillis) {
+            this.minSweep = Math.max(16, minSweep);
+            this.sweepAt = this.minSweep;
+            this.threshold = threshold;
+            this.windowMillis = windowMillis;
+            this.baseLockMillis = baseLockMillis;
+            this.maxLockMillis = maxLockMillis;
+        }
+
+        // Метод для получения оставшегося времени блокировки пользователя; запись не создается.
+        long lockedFor(String key, long now) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return 0;
+            }
+            synchronized (entry) {
+                return Math.max(0, entry.lockedUntil - now);
+            }
+        }
+
+        // Метод для учета начатой попытки; возвращает false, если пользователь заблокирован или попыток
+        // в окне уже больше порога (пользователь при этом блокируется).
+        boolean acquire(String key, long now) {
+            while (true) {
+                Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+                synchronized (entry) {
+                    if (entries.get(key) != entry) {
+                        continue; // Запись удалена успешным входом — повтор с новой
+                    }
+                    if (entry.lockedUntil > now) {
+                        return false;
+                    }
+                    entry.window = incremented(entry.window, now, windowMillis);
+                    if (estimate(entry.window, now, windowMillis) <= threshold) {
+                        sweepIfNeeded(now);
+                        return true;
+                    }
+                    lock(entry, now);
+                    return false;
+                }
+            }
+        }
+
+        // Метод для учета неудачной попытки, уже учтенной acquire; возвращает количество оставшихся попыток.
+        int recordFailure(String key, long now) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return threshold; // Счетчик сброшен успешным входом во время проверки
+            }
+            synchronized (entry) {
+                if (entry.lockedUntil > now) {
+                    return 0; // Параллельная попытка уже заблокировала вход
+                }
+                int count = estimate(entry.window, now, windowMillis);
+                if (count < threshold) {
+                    return threshold - count;
+                }
+                lock(entry, now);
+                return 0;
+            }
+        }
+
+        // Метод для возврата попытки, учтенной acquire.
+        void release(String key, long now) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                synchronized (entry) {
+                    entry.window = decremented(entry.window, now, windowMillis);
+                }
+            }
+        }
+
+        // Метод для сброса счетчика пользователя после успешного входа; запись заблокированного
+        // пользователя остается, чтобы не потерять время блокировки.
+        void reset(String key, long now) {
+            entries.computeIfPresent(key, (k, entry) -> {
+                synchronized (entry) {
+                    if (entry.lockedUntil > now) {
+                        entry.window = 0;
+                        return entry;
+                    }
+                    return null;
+                }
+            });
+        }
+
+        int size() {return entries.size();}
+
+        // Метод для блокировки пользователя на время base * 2^(число блокировок подряд), но не более max.
+        private void lock(Entry entry, long now) {
+            if (now - entry.lockedUntil > maxLockMillis) {
+                entry.strikes = 0; // Давно не было блокировок: задержка начинается заново
+            }
+            long duration = lockDuration(entry.strikes, baseLockMillis, maxLockMillis);
+            entry.strikes = Math.min(entry.strikes + 1, 62);
+            entry.lockedUntil = Math.max(entry.lockedUntil, now + duration);
+            entry.window = 0; // После разблокировки окно считается с нуля
+        }
+
+        // Метод для удаления записей с истекшими окном и блокировкой, когда таблица выросла вдвое.
+        private void sweepIfNeeded(long now) {
+            if (entries.size() < sweepAt) {
+                return;
+            }
+            entries.values().removeIf(entry -> {
+                synchronized (entry) {
+                    // Число блокировок подряд к этому моменту уже сбросилось бы, а попытки вышли из окна
+                    return now - entry.lockedUntil > maxLockMillis && estimate(entry.window, now, windowMillis) == 0;
+                }
+            });
+            sweepAt = Math.max(minSweep, entries.size() * 2);
+        }
+    }
+
+    // Класс SlotTable хранит счетчики источников в массивах фиксированного размера; ключ отображается
+    // в две ячейки, а оценкой служит минимум по ним, что уменьшает влияние коллизий. Из ячейки вычитаются
+    // только собственные попытки ключа (release), поэтому ключ, попавший в те же ячейки, не может
+    // сбросить чужие счетчики; после блокировки источник снова получает попытки по мере выхода старых
+    // попыток из окна.
+    static final class SlotTable {
+        private final AtomicLongArray windows;     // Упакованное состояние окна ячейки
+        private final AtomicLongArray lockedUntil; // Момент окончания блокировки
+        private final AtomicIntegerArray strikes;  // Количество блокировок подряд для экспоненциальной задержки
+        private final int mask;
+        private final long seed;
+        private final int threshold;
+        private final long windowMillis;
+        private final long baseLockMillis;
+        private final long maxLockMillis;
+
+        // Конструктор для создания таблицы; размер округляется до степени двойки.
+        SlotTable(int slots, int threshold, long windowMillis, long baseLockMillis, long maxLockMillis) {
+            int size = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+            this.windows = new AtomicLongArray(size);
+            this.lockedUntil = new AtomicLongArray(size);
+            this.strikes = new AtomicIntegerArray(size);
+            this.mask = size - 1;
+            this.seed = new SecureRandom().nextLong(); // Случайное зерно не дает подобрать коллизии заранее
+            this.threshold = threshold;
+            this.windowMillis = windowMillis;
+            this.baseLockMillis = baseLockMillis;
+            this.maxLockMillis = maxLockMillis;
+        }
+
+        // Метод для вычисления 64-битного хеша ключа без выделения памяти; ячейки ключа — младшая
+        // и старшая половины хеша по маске таблицы.
+        long hash(String key) {
+            long h = seed;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 29;
+            }
+            h ^= key.length();
+            h *= 0xBF58476D1CE4E5B9L;
+            return h ^ (h >>> 31);
+        }
+
+        // Метод для получения оставшегося времени блокировки ключа.
+        long lockedFor(String key, long now) {
+            long h = hash(key);
+            long until = Math.min(lockedUntil.get((int) h & mask), lockedUntil.get((int) (h >>> 32) & mask));
+            return Math.max(0, until - now);
+        }
+
+        // Метод для учета начатой попытки по ключу; возвращает false, если ключ заблокирован или попыток в окне
+        // уже больше порога (ячейки при этом блокируются, а отклоненная попытка не учитывается).
+        boolean acquire(String key, long now) {
+            if (lockedFor(key, now) > 0) {
+                return false;
+            }
+            long h = hash(key);
+            int first = (int) h & mask;
+            int second = (int) (h >>> 32) & mask;
+            // Обе половины хеша могут указывать на одну ячейку: тогда она изменяется один раз
+            int count = first == second ? increment(first, now) : Math.min(increment(first, now), increment(second, now));
+            if (count <= threshold) {
+                return true;
+            }
+            release(key, now);
+            lock(first, second, now);
+            return false;
+        }
+
+        // Метод для учета неудачной попытки по ключу без приращения счетчика (попытка уже учтена acquire);
+        // при достижении порога ячейки блокируются. Возвращает количество оставшихся попыток.
+        int recordFailure(String key, long now) {
+            if (lockedFor(key, now) > 0) {
+                return 0; // Параллельная попытка уже заблокировала вход
+            }
+            long h = hash(key);
+            int first = (int) h & mask;
+            int second = (int) (h >>> 32) & mask;
+            int count = Math.min(estimate(windows.get(first), now, windowMillis), estimate(windows.get(second), now, windowMillis));
+            if (count < threshold) {
+                return threshold - count;
+            }
+            lock(first, second, now);
+            return 0;
+        }
+
+        // Метод для возврата попытки, учтенной acquire.
+        void release(String key, long now) {
+            long h = hash(key);
+            int first = (int) h & mask;
+            int second = (int) (h >>> 32) & mask;
+            decrement(first, now);
+            if (second != first) {
+                decrement(second, now);
+            }
+        }
+
+        // Метод для блокировки ячеек ключа.
+        private void lock(int first, int second, long now) {
+            lock(first, now);
+            if (second != first) {
+                lock(second, now);
+            }
+        }
+
+        // Метод для блокировки ячейки на время base * 2^(число блокировок подряд), но не более max.
+        // Счетчики ячейки не обнуляются: они принадлежат и другим ключам.
+        private void lock(int slot, long now) {
+            if (now - lockedUntil.get(slot) > maxLockMillis) {
+                strikes.set(slot, 0); // Давно не было блокировок: задержка начинается заново
+            }
+            int strike = strikes.getAndUpdate(slot, s -> Math.min(s + 1, 62));
+            lockedUntil.accumulateAndGet(slot, now + lockDuration(strike, baseLockMillis, maxLockMillis), Math::max);
+        }
+
+        // Метод для атомарного увеличения счетчика ячейки; возвращает оценку числа попыток в скользящем окне.
+        private int increment(int slot, long now) {
+            long updated = windows.updateAndGet(slot, state -> incremented(state, now, windowMillis));
+            return estimate(updated, now, windowMillis);
+        }
+
+        // Метод для уменьшения счетчика ячейки на единицу.
+        private void decrement(int slot, long now) {
+            windows.updateAndGet(slot, state -> decremented(state, now, windowMillis));
+        }
+    }
+}
@@ -1,230 +1,45 @@
 package org.example;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.*;
-import java.util.ArrayList;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.List;
 
-// Класс User представляет обычного пользователя.
-class User {
-    private String username; // Имя пользователя
-    private String password; // Пароль пользователя
-    private boolean isBlocked; // Флаг блокировки пользователя
-    private boolean passwordRestrictionsEnabled; // Флаг ограничений на пароль
-    private int failedLoginAttempts; // Счетчик неудачных попыток ввода пароля
-
-    // Поля для индивидуальных ограничений
-    private int minPasswordLength = 6;  // Минимальная длина пароля
-    private int maxPasswordLength = 12; // Максимальная длина пароля
-    private int minDigit = 2;   // Минимально кол-во цифр в пароле
-    private int minSpecialChars = 2;    // Минимальное кол-во специальных символов в пароле
-
-    // Конструктор для создания объекта пользователя.
-    public User(String username, String password) {
-        this.username = username;
-        this.password = password;
-        this.isBlocked = false; // По умолчанию пользователь не заблокирован
-        this.passwordRestrictionsEnabled = true; // Ограничения на пароль включены по умолчанию
-        this.failedLoginAttempts = 0; // Инициализация счетчика неудачных попыток
-    }
-
-    // Геттеры и сеттеры для ограничений
-    public int getMinPasswordLength(){return minPasswordLength;}
-    public void setMinPasswordLength(int minPasswordLength){this.minPasswordLength = minPasswordLength;}
-    public int getMaxPasswordLength(){return maxPasswordLength;}
-    public void setMaxPasswordLength(int maxPasswordLength) {this.maxPasswordLength = maxPasswordLength;}
-    public int getMinDigit(){return minDigit;}
-    public void setMinDigit(int minDigit) {this.minDigit = minDigit;}
-    public int getMinSpecialChars(){return minSpecialChars;}
-    public void setMinSpecialChars(int minSpecialChars) {this.minSpecialChars = minSpecialChars;}
-
-    // Геттеры и сеттеры для основных полей
-    public String getUsername() {return username;}
-    public String getPassword() {return password;}
-    public void setPassword(String password) {this.password = password;}
-    public boolean isBlocked() {return isBlocked;}
-    public void setBlocked(boolean blocked) {isBlocked = blocked;}
-    public boolean isPasswordRestrictionsEnabled() {return passwordRestrictionsEnabled;}
-    public void setPasswordRestrictionsEnabled(boolean passwordRestrictionsEnabled) {this.passwordRestrictionsEnabled = passwordRestrictionsEnabled;}
-    public int getFailedLoginAttempts() {return failedLoginAttempts;}
-    public void setFailedLoginAttempts(int failedLoginAttempts) {this.failedLoginAttempts = failedLoginAttempts;}
-
-    // Метод для проверки пароля пользователя.
-    public boolean login(String enteredPassword) {
-        return this.password.equals(enteredPassword);
-    }
-
-    // Метод проверки пароля на соответствие индивидуальным ограничениям
-    public boolean isPasswordValid(String password){
-        //
-        if(password.length() < minPasswordLength){
-            return false;
-        }
-        //
-        if(password.length() > maxPasswordLength){
-            return false;
-        }
-        //
-        int digitCount = 0;
-        for(char c : password.toCharArray()){
-            if(Character.isDigit(c)){
-                digitCount++;
-            }
-        }
-        if(digitCount < minDigit){
-            return false;
-        }
-        int specialCharCount = 0;
-        for(char c : password.toCharArray()){
-            if(!Character.isLetterOrDigit(c)){
-                specialCharCount++;
-            }
-        }
-        if(specialCharCount < minSpecialChars){
-            return false;
-        }
-        return true;
-    }
-
-
-    // Переопределенный метод toString для строкового представления пользователя.
-    @Override
-    public String toString() {
-        return "Пользователь: " + username + " | Заблокирован: " + isBlocked + " | Ограничения на пароль: " + passwordRestrictionsEnabled;
-    }
-}
-
-// Класс Admin представляет администратора.
-class Admin extends User {
-    // Конструктор для создания объекта администратора.
-    public Admin(String username, String password) {
-        super(username, password); // Вызов конструктора родительского класса
-    }
-
-    // Переопределенный метод toString для строкового представления администратора.
-    @Override
-    public String toString() {
-        return "Администратор: " + getUsername();
-    }
-}
-
-// Класс AuthenticationSystem управляет аутентификацией и хранением данных.
-class AuthenticationSystem {
-    private List<User> users; // Список пользователей
-    private String dataFile;   // Имя файла для хранения данных
-
-    // Конструктор для инициализации системы аутентификации.
-    public AuthenticationSystem(String dataFile) {
-        this.dataFile = dataFile;
-        this.users = loadUsers(); // Загрузка пользователей из файла
-        if (users.isEmpty()) {
-            // При первом запуске создаем администратора с пустым паролем
-            users.add(new Admin("admin", ""));
-            saveUsers();
-        }
-    }
-
-    // Метод для загрузки пользователей из файла.
-    private List<User> loadUsers() {
-        List<User> userList = new ArrayList<>(); // Создаем пустой список пользователей
-        try (BufferedReader reader = new BufferedReader(new FileReader(dataFile))) {
-            String line;
-            // Читаем файл построчно
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(","); // Разделяем строку по запятой
-                String username = parts[0];      // Имя пользователя
-                String password = parts[1];      // Пароль
-                boolean isBlocked = Boolean.parseBoolean(parts[2]); // Флаг блокировки
-                boolean passwordRestrictionsEnabled = Boolean.parseBoolean(parts[3]); // Флаг ограничений на пароль
-                // Создаем объект User или Admin в зависимости от роли
-                User user = (username.equals("admin")) ? new Admin(username, password) : new User(username, password);
-                user.setBlocked(isBlocked);
-                user.setPasswordRestrictionsEnabled(passwordRestrictionsEnabled);
-                userList.add(user);
-            }
-        } catch (IOException e) {
-            System.out.println("Данные о пользователях не найдены. Начинаем с пустого списка.");
-        }
-        return userList;
-    }
-
-    // Метод для сохранения пользователей в файл.
-    public void saveUsers() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(dataFile))) {
-            for (User user : users) {
-                // Записываем данные в файл в формате: username,password,isBlocked,passwordRestrictionsEnabled
-                writer.write(user.getUsername() + "," + user.getPassword() + "," + user.isBlocked() + "," + user.isPasswordRestrictionsEnabled());
-                writer.newLine(); // Переход на новую строку
-            }
-        } catch (IOException e) {
-            System.out.println("Ошибка при сохранении данных о пользователях.");
-        }
-    }
-
-    // Метод для поиска пользователя по имени.
-    public User findUser(String username) {
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return user;
-            }
-        }
-        return null;
-    }
-
-    // Метод для добавления нового пользователя.
-    public void addUser(String username) {
-        if (findUser(username) != null) {
-            JOptionPane.showMessageDialog(null, "Пользователь уже существует.");
-            return;
-        }
-        users.add(new User(username, "")); // Добавляем пользователя с пустым паролем
-        saveUsers(); // Сохраняем изменения в файл
-        JOptionPane.showMessageDialog(null, "Пользователь " + username + " успешно добавлен.");
-    }
-
-    // Метод для блокировки пользователя.
-    public void blockUser(String username) {
-        User user = findUser(username);
-        if (user != null) {
-            user.setBlocked(true); // Блокируем пользователя
-            saveUsers(); // Сохраняем изменения в файл
-            JOptionPane.showMessageDialog(null, "Пользователь " + username + " успешно заблокирован.");
-        } else {
-            JOptionPane.showMessageDialog(null, "Пользователь не найден.");
-        }
-    }
-
-    // Метод для включения/отключения ограничений на пароли.
-    public void togglePasswordRestrictions(boolean enabled) {
-        for (User user : users) {
-            user.setPasswordRestrictionsEnabled(enabled); // Устанавливаем ограничения для всех пользователей
-        }
-        saveUsers(); // Сохраняем изменения в файл
-        JOptionPane.showMessageDialog(null, "Ограничения на пароли " + (enabled ? "включены" : "отключены") + " для всех пользователей.");
-    }
-
-    // Метод для получения списка всех пользователей.
-    public List<User> getUsers() {
-        return users;
-    }
-}
-
-// Основной класс программы с графическим интерфейсом.
+// Основной класс программы с графическим интерфейсом; вся логика выполняется через AuthService.
+// Обращения к сервису (загрузка, вход, хеширование, запись файла, импорт) выполняются в фоне через
+// StatusPanel, поэтому поток обработки событий занят только отрисовкой и диалогами.
 public class Main extends JFrame {
-    private AuthenticationSystem authSystem; // Система аутентификации
+    private AuthService authService; // Сервис аутентификации (доступен после загрузки пользователей)
     private JTextField usernameField; // Поле для ввода имени пользователя
     private JPasswordField passwordField; // Поле для ввода пароля
     private JButton loginButton; // Кнопка входа
     private JButton registerButton; // Кнопка регистрации
-    private JLabel messageLabel; // Метка для вывода сообщений
+    private StatusPanel statusPanel; // Строка состояния с индикатором фоновых операций
+
+    // Подписи полей диалога ограничений в порядке PasswordRule
+    private static final String[] RULE_LABELS = {
+            "Минимальная длина пароля:",
+            "Максимальная длина пароля:",
+            "Минимальное количество цифр:",
+            "Минимальное количество спецсимволов:",
+            "Минимальное количество заглавных букв:",
+            "Минимальное количество строчных букв:",
+            "Максимум одинаковых символов подряд:",
+            "Максимальная длина последовательности (abc, 123):"
+    };
 
     // Конструктор для инициализации графического интерфейса
     public Main() {
-        authSystem = new AuthenticationSystem("users.txt"); // Инициализация системы аутентификации
-
         // Настройка окна
         setTitle("Система аутентификации");
         setSize(400, 300);
@@ -233,7 +48,7 @@ public class Main extends JFrame {
 
         // Создание панели для компонентов
         JPanel panel = new JPanel();
-        panel.setLayout(new GridLayout(4, 2, 10, 10)); // Сетка 4x2 с отступами
+        panel.setLayout(new GridLayout(3, 2, 10, 10)); // Сетка 3x2 с отступами
 
         // Добавление компонентов
         panel.add(new JLabel("Имя пользователя:"));
@@ -250,66 +65,169 @@ public class Main extends JFrame {
         registerButton = new JButton("Зарегистрироваться");
         panel.add(registerButton);
 
-        messageLabel = new JLabel("");
-        panel.add(messageLabel);
+        statusPanel = new StatusPanel();
+        statusPanel.setBusyComponents(loginButton, registerButton);
 
-        // Добавление панели в окно
-        add(panel);
+        // Добавление панели и строки состояния в окно
+        add(panel, BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+
+        // Инициализация сервиса аутентификации: пользователи загружаются в фоне, окно отображается сразу
+        String dataFile = System.getProperty("auth.dataFile", "users.txt");
+        statusPanel.run("Загрузка пользователей", progress -> new DefaultAuthService(new AuthenticationSystem(dataFile)), service -> {
+            authService = service;
+            statusPanel.showMessage("Пользователи загружены.");
+        });
 
         // Обработчики событий для кнопок
         loginButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                if (!isLoaded()) {
+                    return;
+                }
                 String username = usernameField.getText();
                 String password = new String(passwordField.getPassword());
 
-                User user = authSystem.findUser(username);
-                if (user == null) {
-                    messageLabel.setText("Пользователь не найден.");
-                    return;
-                }
+                // Проверка хеша выполняется в пуле проверки, а результат возвращается в поток интерфейса
+                statusPanel.run("Проверка пароля", progress -> authService.authenticate(username, password).get(), result -> {
+                    statusPanel.showResult(result);
+                    if (result.isSuccess()) {
+                        User user = result.getUser();
+                        if (user instanceof Admin) {
+                            openAdminMenu((Admin) user);
+                        } else {
+                            openUserMenu(user);
+                        }
+                    }
+                });
+            }
+        });
 
-                if (user.isBlocked()) {
-                    messageLabel.setText("Пользователь заблокирован.");
+        registerButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!isLoaded()) {
                     return;
                 }
+                String username = usernameField.getText();
+                statusPanel.run("Регистрация", progress -> authService.register(username), statusPanel::showResult);
+            }
+        });
+    }
 
-                if (user.login(password)) {
-                    messageLabel.setText("Вход выполнен успешно.");
-                    if (user instanceof Admin) {
-                        openAdminMenu((Admin) user);
-                    } else {
-                        openUserMenu(user);
-                    }
-                } else {
-                    user.setFailedLoginAttempts(user.getFailedLoginAttempts() + 1);
-                    if (user.getFailedLoginAttempts() >= 3) {
-                        messageLabel.setText("Превышено количество попыток. Программа завершается.");
-                        System.exit(0);
-                    }
-                    messageLabel.setText("Неверный пароль. Осталось попыток: " + (3 - user.getFailedLoginAttempts()));
+    // Метод для проверки готовности сервиса: до окончания загрузки пользователей операции недоступны.
+    private boolean isLoaded() {
+        if (authService == null) {
+            statusPanel.showError("Пользователи не загружены. Перезапустите программу.");
+            return false;
+        }
+        return true;
+    }
+
+    // Метод для открытия окна списка пользователей: таблица над снимком с фильтрами.
+    // Снимок получается в фоне без копирования, а строки таблицы формируются только при отрисовке.
+    private void openUsersWindow(UserSnapshot snapshot) {
+        JFrame usersFrame = new JFrame("Пользователи");
+        usersFrame.setSize(700, 500);
+        usersFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        usersFrame.setLocationRelativeTo(null);
+
+        UserTableModel model = new UserTableModel(snapshot);
+        JTable table = new JTable(model);
+        JTextField prefixField = new JTextField(12);
+        JComboBox<String> blockedBox = new JComboBox<>(new String[]{"Все", "Активные", "Заблокированные"});
+        JComboBox<String> roleBox = new JComboBox<>(new String[]{"Все роли", "Администраторы", "Пользователи"});
+        JButton refreshButton = new JButton("Обновить");
+        StatusPanel status = new StatusPanel();
+        status.setBusyComponents(refreshButton);
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Имя начинается с:"));
+        filterPanel.add(prefixField);
+        filterPanel.add(blockedBox);
+        filterPanel.add(roleBox);
+        filterPanel.add(refreshButton);
+
+        usersFrame.add(filterPanel, BorderLayout.NORTH);
+        usersFrame.add(new JScrollPane(table), BorderLayout.CENTER);
+        usersFrame.add(status, BorderLayout.SOUTH);
+
+        // Обработчик смены фильтра: позиции подходящих пользователей пересчитываются в фоне
+        Runnable applyFilter = new Runnable() {
+            @Override
+            public void run() {
+                int blocked = blockedBox.getSelectedIndex();
+                UserQuery.Role role = UserQuery.Role.values()[roleBox.getSelectedIndex()];
+                model.setQuery(new UserQuery(blocked == 0 ? null : blocked == 2, role, prefixField.getText().trim()));
+                if (model.isFiltering()) {
+                    status.showMessage(" Поиск...");
                 }
             }
+        };
+        // Число найденных выводится, когда модель публикует вычисленные позиции
+        Runnable showCount = new Runnable() {
+            @Override
+            public void run() {
+                status.showMessage(" Найдено: " + model.getRowCount() + " из " + model.getSnapshot().size()
+                        + " (версия " + model.getSnapshot().getVersion() + ")");
+            }
+        };
+        model.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                showCount.run();
+            }
         });
+        ActionListener filterListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                applyFilter.run();
+            }
+        };
+        blockedBox.addActionListener(filterListener);
+        roleBox.addActionListener(filterListener);
+        prefixField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applyFilter.run();
+            }
 
-        registerButton.addActionListener(new ActionListener() {
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applyFilter.run();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applyFilter.run();
+            }
+        });
+        refreshButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String username = usernameField.getText();
-                authSystem.addUser(username);
+                status.run("Обновление списка", progress -> authService.snapshotUsers(), fresh -> {
+                    model.setSnapshot(fresh);
+                    if (!model.isFiltering()) {
+                        showCount.run(); // Снимок не изменился — пересчет не нужен
+                    }
+                });
             }
         });
+
+        showCount.run();
+        usersFrame.setVisible(true);
     }
 
     // Метод для открытия меню администратора
     private void openAdminMenu(Admin admin) {
         JFrame adminFrame = new JFrame("Меню администратора");
-        adminFrame.setSize(500, 400);
+        adminFrame.setSize(500, 450);
         adminFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         adminFrame.setLocationRelativeTo(null);
 
         JPanel panel = new JPanel();
-        panel.setLayout(new GridLayout(6, 1, 10, 10));
+        panel.setLayout(new GridLayout(8, 1, 10, 10));
 
         JButton changePasswordButton = new JButton("Сменить пароль");
         JButton viewUsersButton = new JButton("Просмотреть пользователей");
@@ -317,6 +235,8 @@ public class Main extends JFrame {
         JButton blockUserButton = new JButton("Заблокировать пользователя");
         JButton toggleRestrictionsButton = new JButton("Включить/отключить ограничения на пароли");
         JButton setPasswordRulesButton = new JButton("Настроить ограничения на пароль");
+        JButton templatesButton = new JButton("Шаблоны политик");
+        JButton importButton = new JButton("Импорт пользователей");
 
         panel.add(changePasswordButton);
         panel.add(viewUsersButton);
@@ -324,8 +244,16 @@ public class Main extends JFrame {
         panel.add(blockUserButton);
         panel.add(toggleRestrictionsButton);
         panel.add(setPasswordRulesButton);
+        panel.add(templatesButton);
+        panel.add(importButton);
+
+        // Строка состояния: результаты операций выводятся в ней, а не модальными окнами
+        StatusPanel status = new StatusPanel();
+        status.setBusyComponents(changePasswordButton, viewUsersButton, addUserButton, blockUserButton, toggleRestrictionsButton,
+                setPasswordRulesButton, templatesButton, importButton);
 
-        adminFrame.add(panel);
+        adminFrame.add(panel, BorderLayout.CENTER);
+        adminFrame.add(status, BorderLayout.SOUTH);
         adminFrame.setVisible(true);
 
         // Обработчики событий для кнопок меню администратора
@@ -334,13 +262,11 @@ public class Main extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 String newPassword = JOptionPane.showInputDialog("Введите новый пароль:");
                 if (newPassword != null) {
-                    if (admin.isPasswordValid(newPassword)) {
-                        admin.setPassword(newPassword);
-                        authSystem.saveUsers();
-                        JOptionPane.showMessageDialog(null, "Пароль успешно изменен.");
-                    } else {
-                        JOptionPane.showMessageDialog(null, "Пароль не соответствует ограничениям.");
-                    }
+                    status.run("Смена пароля", progress -> {
+                        try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUsername())) {
+                            return authService.resetPassword(admin.getUsername(), newPassword).get();
+                        }
+                    }, status::showResult);
                 }
             }
         });
@@ -348,11 +274,10 @@ public class Main extends JFrame {
         viewUsersButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                StringBuilder usersList = new StringBuilder();
-                for (User user : authSystem.getUsers()) {
-                    usersList.append(user.toString()).append("\n");
-                }
-                JOptionPane.showMessageDialog(null, usersList.toString());
+                status.run("Загрузка пользователей", progress -> authService.snapshotUsers(), snapshot -> {
+                    status.showMessage(" ");
+                    openUsersWindow(snapshot);
+                });
             }
         });
 
@@ -361,7 +286,11 @@ public class Main extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 String username = JOptionPane.showInputDialog("Введите имя пользователя:");
                 if (username != null) {
-                    authSystem.addUser(username);
+                    status.run("Добавление пользователя", progress -> {
+                        try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUsername())) {
+                            return authService.register(username);
+                        }
+                    }, status::showResult);
                 }
             }
         });
@@ -369,9 +298,13 @@ public class Main extends JFrame {
         blockUserButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String username = JOptionPane.showInputDialog("Введите имя пользователя для блокировки:");
+                String username = UserSearchPanel.choose(authService, "Введите имя пользователя для блокировки:", "Блокировка пользователя");
                 if (username != null) {
-                    authSystem.blockUser(username);
+                    status.run("Блокировка пользователя", progress -> {
+                        try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUsername())) {
+                            return authService.block(username);
+                        }
+                    }, status::showResult);
                 }
             }
         });
@@ -379,83 +312,239 @@ public class Main extends JFrame {
         toggleRestrictionsButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                boolean enabled = Boolean.parseBoolean(JOptionPane.showInputDialog("Включить ограничения на пароли? (true/false):"));
-                authSystem.togglePasswordRestrictions(enabled);
+                String answer = JOptionPane.showInputDialog("Включить ограничения на пароли? (true/false):");
+                if (answer != null) {
+                    boolean enabled = Boolean.parseBoolean(answer);
+                    status.run("Изменение ограничений", progress -> {
+                        try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUsername())) {
+                            return authService.setRestrictionsEnabled(enabled);
+                        }
+                    }, status::showResult);
+                }
             }
         });
 
-        setPasswordRulesButton.addActionListener(new ActionListener() {
+        importButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                // Создаем список пользователей для выбора
-                List<User> users = authSystem.getUsers();
-                String[] userNames = new String[users.size()];
-                for (int i = 0; i < users.size(); i++) {
-                    userNames[i] = users.get(i).getUsername();
+                // Выбор файла CSV или JSON Lines; чтение, проверка и сохранение выполняются в фоне
+                JFileChooser chooser = new JFileChooser();
+                chooser.setDialogTitle("Файл импорта (CSV, JSON Lines)");
+                if (chooser.showOpenDialog(adminFrame) != JFileChooser.APPROVE_OPTION) {
+                    return;
                 }
+                File file = chooser.getSelectedFile();
+                status.run("Импорт " + file.getName(), progress -> {
+                    try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUsername())) {
+                        return importUsers(file, progress);
+                    }
+                }, report -> {
+                    status.showMessage(report.toString());
+                    if (!report.getErrors().isEmpty()) {
+                        saveImportErrors(adminFrame, status, report);
+                    }
+                });
+            }
+        });
+
+        templatesButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // Список шаблонов читается в фоне, диалог открывается по готовности
+                status.run("Загрузка шаблонов", progress -> authService.listTemplates(), templates -> {
+                    status.showMessage(" ");
+                    editTemplate(admin, status, templates);
+                });
+            }
+        });
 
-                // Диалог для выбора пользователя
-                String selectedUser = (String) JOptionPane.showInputDialog(
-                        null,
-                        "Выберите пользователя для настройки ограничений:",
-                        "Настройка ограничений",
-                        JOptionPane.PLAIN_MESSAGE,
-                        null,
-                        userNames,
-                        userNames[0]
-                );
+        setPasswordRulesButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // Диалог для выбора пользователя с поиском при вводе
+                String selectedUser = UserSearchPanel.choose(authService, "Выберите пользователя для настройки ограничений:", "Настройка ограничений");
 
                 if (selectedUser != null) {
-                    User user = authSystem.findUser(selectedUser);
-                    if (user != null) {
-                        // Диалог для настройки ограничений
-                        JPanel rulesPanel = new JPanel(new GridLayout(5, 2, 10, 10));
-                        JTextField minLengthField = new JTextField(String.valueOf(user.getMinPasswordLength()));
-                        JTextField maxLengthField = new JTextField(String.valueOf(user.getMaxPasswordLength()));
-                        JTextField minDigitsField = new JTextField(String.valueOf(user.getMinDigit()));
-                        JTextField minSpecialCharsField = new JTextField(String.valueOf(user.getMinSpecialChars()));
-
-                        rulesPanel.add(new JLabel("Минимальная длина пароля:"));
-                        rulesPanel.add(minLengthField);
-                        rulesPanel.add(new JLabel("Максимальная длина пароля:"));
-                        rulesPanel.add(maxLengthField);
-                        rulesPanel.add(new JLabel("Минимальное количество цифр:"));
-                        rulesPanel.add(minDigitsField);
-                        rulesPanel.add(new JLabel("Минимальное количество спецсимволов:"));
-                        rulesPanel.add(minSpecialCharsField);
-
-                        int result = JOptionPane.showConfirmDialog(null, rulesPanel, "Настройка ограничений", JOptionPane.OK_CANCEL_OPTION);
-                        if (result == JOptionPane.OK_OPTION) {
-                            try {
-                                int minLength = Integer.parseInt(minLengthField.getText());
-                                int maxLength = Integer.parseInt(maxLengthField.getText());
-                                int minDigits = Integer.parseInt(minDigitsField.getText());
-                                int minSpecialChars = Integer.parseInt(minSpecialCharsField.getText());
-
-                                // Установка новых ограничений
-                                user.setMinPasswordLength(minLength);
-                                user.setMaxPasswordLength(maxLength);
-                                user.setMinDigit(minDigits);
-                                user.setMinSpecialChars(minSpecialChars);
-
-                                authSystem.saveUsers();
-                                JOptionPane.showMessageDialog(null, "Ограничения успешно обновлены для пользователя " + user.getUsername() + ".");
-                            } catch (NumberFormatException ex) {
-                                JOptionPane.showMessageDialog(null, "Некорректный ввод. Пожалуйста, введите числа.");
+                    // Пользователь и список шаблонов читаются в фоне, диалог открывается по готовности
+                    status.run("Поиск пользователя", progress -> authService.findUser(selectedUser), user -> {
+                        if (user == null) {
+                            status.showError("Пользователь не найден.");
+                            return;
+                        }
+                        status.run("Загрузка шаблонов", progress -> authService.listTemplates(), templates -> {
+                            status.showMessage(" ");
+                            editUserRules(admin, status, user, templates);
+                        });
+                    });
+                }
+            }
+        });
+    }
+
+    // Метод для выбора шаблона (существующего из списка или нового идентификатора) и изменения его политики.
+    private void editTemplate(Admin admin, StatusPanel status, List<PolicyTemplate> templates) {
+        JComboBox<Object> templateBox = new JComboBox<>(templates.toArray());
+        templateBox.setEditable(true);
+        int choice = JOptionPane.showConfirmDialog(null, templateBox, "Выберите или введите шаблон", JOptionPane.OK_CANCEL_OPTION);
+        Object selected = templateBox.getSelectedItem();
+        if (choice != JOptionPane.OK_OPTION || selected == null) {
+            return;
+        }
+        String templateId = selected.toString().trim();
+        PasswordPolicy policy = PasswordPolicy.DEFAULT; // Новый шаблон начинается с политики по умолчанию
+        for (PolicyTemplate template : templates) {
+            if (template.getId().equals(templateId)) {
+                policy = template.getPolicy();
+            }
+        }
+
+        // Изменение политики шаблона сразу действует для всех его участников
+        JTextField[] fields = new JTextField[PasswordRule.values().length];
+        JPanel rulesPanel = rulesPanel(policy, fields);
+        int result = JOptionPane.showConfirmDialog(null, rulesPanel, "Шаблон " + templateId, JOptionPane.OK_CANCEL_OPTION);
+        if (result == JOptionPane.OK_OPTION) {
+            try {
+                PasswordPolicy newPolicy = readRules(policy, fields);
+                status.run("Сохранение шаблона", progress -> {
+                    try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUsername())) {
+                        return authService.setTemplatePolicy(templateId, newPolicy);
+                    }
+                }, status::showResult);
+            } catch (NumberFormatException ex) {
+                status.showError("Некорректный ввод. Пожалуйста, введите числа.");
+            }
+        }
+    }
+
+    // Метод для настройки ограничений пользователя: шаблон и по одному полю на каждое правило политики.
+    // Значения, совпадающие с шаблоном, не сохраняются как индивидуальные.
+    private void editUserRules(Admin admin, StatusPanel status, User user, List<PolicyTemplate> templates) {
+        JComboBox<PolicyTemplate> templateBox = new JComboBox<>(templates.toArray(new PolicyTemplate[0]));
+        templateBox.setSelectedItem(user.getTemplate());
+        JTextField[] fields = new JTextField[PasswordRule.values().length];
+        JPanel rulesPanel = rulesPanel(user.getPasswordPolicy(), fields);
+        rulesPanel.add(new JLabel("Шаблон политики:"), 0);
+        rulesPanel.add(templateBox, 1);
+        templateBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // При смене шаблона поля заполняются его политикой
+                fillRules(((PolicyTemplate) templateBox.getSelectedItem()).getPolicy(), fields);
+            }
+        });
+
+        int result = JOptionPane.showConfirmDialog(null, rulesPanel, "Настройка ограничений", JOptionPane.OK_CANCEL_OPTION);
+        if (result == JOptionPane.OK_OPTION) {
+            try {
+                // Установка нового шаблона и ограничений
+                PasswordPolicy policy = readRules(user.getPasswordPolicy(), fields);
+                PolicyTemplate template = (PolicyTemplate) templateBox.getSelectedItem();
+                status.run("Сохранение ограничений", progress -> {
+                    try (AuditLog.Scope ignored = AuditLog.actingAs(admin.getUsername())) {
+                        if (template != user.getTemplate()) {
+                            AuthResult templateResult = authService.assignTemplate(user.getUsername(), template.getId());
+                            if (!templateResult.isSuccess()) {
+                                return templateResult;
                             }
                         }
-                    } else {
-                        JOptionPane.showMessageDialog(null, "Пользователь не найден.");
+                        return authService.setPolicy(user.getUsername(), policy);
                     }
+                }, status::showResult);
+            } catch (NumberFormatException ex) {
+                status.showError("Некорректный ввод. Пожалуйста, введите числа.");
+            }
+        }
+    }
+
+    // Метод для импорта файла в фоне; доля выполнения считается по прочитанным байтам файла.
+    private ImportReport importUsers(File file, TaskProgress progress) throws IOException {
+        long size = Math.max(1, file.length());
+        InputStream input = new FilterInputStream(new FileInputStream(file)) {
+            private long read; // Прочитано байтов
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    advance(1);
                 }
+                return b;
             }
-        });
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int count = super.read(buffer, offset, length);
+                if (count > 0) {
+                    advance(count);
+                }
+                return count;
+            }
+
+            private void advance(int count) {
+                read += count;
+                progress.setPercent((int) (read * 100 / size));
+            }
+        };
+        try (Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return authService.importUsers(reader, UserImporter.Format.forFile(file.getName()), progress);
+        }
+    }
+
+    // Метод для сохранения отчета об ошибках импорта в выбранный файл.
+    private void saveImportErrors(JFrame owner, StatusPanel status, ImportReport report) {
+        int choice = JOptionPane.showConfirmDialog(owner, report + ".\nСохранить отчет об ошибках?", "Импорт", JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("import-errors.csv"));
+        if (chooser.showSaveDialog(owner) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        status.run("Сохранение отчета", progress -> {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                report.writeErrors(writer);
+            }
+            return file;
+        }, saved -> status.showMessage(report + ". Отчет об ошибках: " + saved.getName()));
+    }
+
+    // Метод для создания панели полей правил политики: по одному полю на каждое правило.
+    private static JPanel rulesPanel(PasswordPolicy policy, JTextField[] fields) {
+        PasswordRule[] rules = PasswordRule.values();
+        JPanel rulesPanel = new JPanel(new GridLayout(0, 2, 10, 10));
+        for (int i = 0; i < rules.length; i++) {
+            fields[i] = new JTextField();
+            rulesPanel.add(new JLabel(RULE_LABELS[i]));
+            rulesPanel.add(fields[i]);
+        }
+        rulesPanel.add(new JLabel("0 — правило отключено"));
+        fillRules(policy, fields);
+        return rulesPanel;
+    }
+
+    // Метод для заполнения полей правил значениями политики.
+    private static void fillRules(PasswordPolicy policy, JTextField[] fields) {
+        PasswordRule[] rules = PasswordRule.values();
+        for (int i = 0; i < rules.length; i++) {
+            fields[i].setText(String.valueOf(policy.get(rules[i])));
+        }
+    }
+
+    // Метод для чтения политики из полей правил; выбрасывает NumberFormatException при некорректном вводе.
+    private static PasswordPolicy readRules(PasswordPolicy policy, JTextField[] fields) {
+        PasswordRule[] rules = PasswordRule.values();
+        for (int i = 0; i < rules.length; i++) {
+            policy = policy.with(rules[i], Integer.parseInt(fields[i].getText().trim()));
+        }
+        return policy;
     }
 
     // Метод для открытия меню пользователя
     private void openUserMenu(User user) {
         JFrame userFrame = new JFrame("Меню пользователя");
-        userFrame.setSize(300, 200);
+        userFrame.setSize(350, 200);
         userFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         userFrame.setLocationRelativeTo(null);
 
@@ -468,14 +557,18 @@ public class Main extends JFrame {
         panel.add(changePasswordButton);
         panel.add(logoutButton);
 
-        userFrame.add(panel);
+        StatusPanel status = new StatusPanel();
+        status.setBusyComponents(changePasswordButton);
+
+        userFrame.add(panel, BorderLayout.CENTER);
+        userFrame.add(status, BorderLayout.SOUTH);
         userFrame.setVisible(true);
 
         // Обработчики событий для кнопок меню пользователя
         changePasswordButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                changePassword(user);
+                changePassword(user, status);
             }
         });
 
@@ -487,27 +580,131 @@ public class Main extends JFrame {
         });
     }
 
-    // Метод для смены пароля
-    private void changePassword(User user) {
+    // Метод для смены пароля; результат выводится в строке состояния окна
+    private void changePassword(User user, StatusPanel status) {
         String oldPassword = JOptionPane.showInputDialog("Введите старый пароль:");
-        if (oldPassword != null && user.login(oldPassword)) {
-            String newPassword = JOptionPane.showInputDialog("Введите новый пароль:");
-            if (newPassword != null) {
-                if (!user.isPasswordRestrictionsEnabled() || user.isPasswordValid(newPassword)) {
-                    user.setPassword(newPassword);
-                    authSystem.saveUsers();
-                    JOptionPane.showMessageDialog(null, "Пароль успешно изменен.");
-                } else {
-                    JOptionPane.showMessageDialog(null, "Пароль не соответствует ограничениям.");
-                }
-            }
-        } else {
-            JOptionPane.showMessageDialog(null, "Неверный старый пароль.");
+        if (oldPassword == null) {
+            status.showError("Неверный старый пароль.");
+            return;
         }
+        String newPassword = JOptionPane.showInputDialog("Введите новый пароль:");
+        if (newPassword != null) {
+            // Проверка старого пароля и хеширование нового выполняются в пуле проверки, запись — в фоне
+            status.run("Смена пароля", progress -> authService.changePassword(user.getUsername(), oldPassword, newPassword).get(), status::showResult);
+        }
+    }
+
+    // Метод для получения каталога журнала аудита по умолчанию (как в AuthenticationSystem).
+    private static String auditDirectory() {
+        return System.getProperty("auth.auditDir",
+                Paths.get(System.getProperty("auth.dataFile", "users.txt")).resolveSibling("audit").toString());
     }
 
     // Точка входа в программу
     public static void main(String[] args) {
+        if (args.length == 3 && args[0].equals("convert")) {
+            // Однократное преобразование users.txt в двоичный формат: convert users.txt users.bin
+            try {
+                int count = BinaryUserStore.convert(args[1], args[2]);
+                System.out.println("Преобразовано пользователей: " + count);
+            } catch (IOException e) {
+                System.out.println("Ошибка преобразования: " + e.getMessage());
+            }
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[0].equals("reshard")) {
+            // Перераспределение по шардам: reshard users.txt|каталог новый-каталог [число-шардов]
+            try {
+                int shards = args.length == 4 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                int count = ShardedUserStore.reshard(args[1], args[2], shards);
+                System.out.println("Перераспределено пользователей: " + count + " по " + shards + " шардам. Запуск: -Dauth.dataFile=" + args[2]);
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("Ошибка перераспределения: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("import")) {
+            // Пакетный импорт: import users.csv|users.jsonl [отчет-об-ошибках.csv]
+            AuthenticationSystem system = new AuthenticationSystem(System.getProperty("auth.dataFile", "users.txt"));
+            try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(args[1]), StandardCharsets.UTF_8))) {
+                ImportReport report = new UserImporter(system).importUsers(reader, UserImporter.Format.forFile(args[1]));
+                system.getAudit().record(AuditLog.Type.IMPORT, "cli", null, "cli", AuthResult.Status.OK.name(), args[1] + ": " + report);
+                System.out.println(report);
+                if (args.length >= 3) {
+                    try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[2]), StandardCharsets.UTF_8))) {
+                        report.writeErrors(writer);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Ошибка импорта: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length == 2 && args[0].equals("export")) {
+            // Потоковый экспорт: export users.csv|users.jsonl
+            AuthenticationSystem system = new AuthenticationSystem(System.getProperty("auth.dataFile", "users.txt"));
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[1]), StandardCharsets.UTF_8))) {
+                int count = new UserExporter(system).export(writer, UserImporter.Format.forFile(args[1]));
+                System.out.println("Выгружено пользователей: " + count);
+            } catch (IOException e) {
+                System.out.println("Ошибка экспорта: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("audit-verify")) {
+            // Проверка цепочки хешей журнала аудита: audit-verify [каталог]
+            try {
+                AuditReader.Result result = AuditReader.verify(Paths.get(args.length >= 2 ? args[1] : auditDirectory()));
+                System.out.println(result);
+                if (!result.isValid()) {
+                    System.exit(2); // Код возврата для сценариев проверки
+                }
+            } catch (IOException e) {
+                System.out.println("Ошибка проверки журнала аудита: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("audit-read")) {
+            // Потоковое чтение журнала аудита: audit-read [каталог] [type=LOGIN,BLOCK] [actor=..] [subject=..]
+            // [source=..] [outcome=..] [from=2026-01-31] [to=2026-02-01T12:00:00Z]
+            int first = args.length >= 2 && !args[1].contains("=") ? 2 : 1;
+            AuditReader.Filter filter = new AuditReader.Filter();
+            try {
+                for (int i = first; i < args.length; i++) {
+                    filter.parse(args[i]);
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Некорректное условие: " + e.getMessage());
+                return;
+            }
+            PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()), 1 << 16));
+            try {
+                long found = AuditReader.read(Paths.get(first == 2 ? args[1] : auditDirectory()), filter, out::println);
+                out.flush();
+                System.out.println("Найдено записей: " + found);
+            } catch (IOException e) {
+                out.flush();
+                System.out.println("Ошибка чтения журнала аудита: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("server")) {
+            // Режим сетевого сервиса без графического интерфейса: server [порт] [адрес];
+            // без адреса (или свойства auth.http.bind) сервер доступен только с этого компьютера
+            int port = args.length >= 2 ? Integer.parseInt(args[1]) : 8080;
+            String bind = args.length >= 3 ? args[2] : System.getProperty("auth.http.bind");
+            AuthService service = new DefaultAuthService(new AuthenticationSystem(System.getProperty("auth.dataFile", "users.txt")));
+            try {
+                InetSocketAddress address = bind == null
+                        ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                        : new InetSocketAddress(bind, port);
+                new AuthHttpServer(service, address).start();
+            } catch (IOException e) {
+                System.out.println("Не удалось запустить сервер: " + e.getMessage());
+            }
+            return;
+        }
+        EdtMonitor.start(); // Замер отзывчивости интерфейса (метрики auth_ui_edt_*)
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
@@ -0,0 +1,284 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Класс NameIndex — префиксный индекс имен пользователей для поиска и автодополнения без учета регистра.
+// Основная часть — отсортированный массив, новые имена попадают в небольшую конкурентную дельту,
+// которая при росте сливается с массивом за O(n). Пара (массив, дельта) публикуется неизменяемым
+// состоянием, поэтому чтение идет без блокировок. Нечеткий поиск вычисляет расстояние Левенштейна
+// с ограничением: строки таблицы переиспользуются для общего префикса соседних имен (как при обходе
+// префиксного дерева), а ветки, где расстояние уже превысило предел, пропускаются двоичным поиском.
+class NameIndex {
+    // Класс Entry — имя и его ключ в нижнем регистре.
+    static final class Entry {
+        final String key;  // Ключ сравнения (нижний регистр)
+        final String name; // Исходное имя
+
+        Entry(String name) {
+            this(name.toLowerCase(Locale.ROOT), name);
+        }
+
+        Entry(String key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry, String>comparing(e -> e.key).thenComparing(e -> e.name);
+
+    // Класс State — опубликованное состояние индекса.
+    private static final class State {
+        final Entry[] base; // Отсортированный основной массив
+        final ConcurrentSkipListSet<Entry> delta; // Имена, добавленные после последнего слияния
+
+        State(Entry[] base, ConcurrentSkipListSet<Entry> delta) {
+            this.base = base;
+            this.delta = delta;
+        }
+    }
+
+    private volatile State state = new State(new Entry[0], new ConcurrentSkipListSet<>(ORDER)); // Текущее состояние
+
+    // Метод для добавления имени; дельта сливается с массивом, когда превышает 1/16 его размера.
+    public synchronized void add(String name) {
+        State current = state;
+        current.delta.add(new Entry(name));
+        if (current.delta.size() > Math.max(1024, current.base.length >> 4)) {
+            state = new State(merge(current.base, current.delta), new ConcurrentSkipListSet<>(ORDER));
+        }
+    }
+
+    // Метод для пакетного добавления имен одним слиянием (загрузка, импорт).
+    public synchronized void addAll(Collection<String> names) {
+        State current = state;
+        Entry[] added = new Entry[names.size()];
+        int i = 0;
+        for (String name : names) {
+            added[i++] = new Entry(name);
+        }
+        Arrays.sort(added, ORDER);
+        state = new State(merge(merge(current.base, current.delta), Arrays.asList(added)), new ConcurrentSkipListSet<>(ORDER));
+    }
+
+    // Метод для слияния отсортированного массива с отсортированной коллекцией.
+    private static Entry[] merge(Entry[] base, Collection<Entry> sorted) {
+        Entry[] merged = new Entry[base.length + sorted.size()];
+        Iterator<Entry> other = sorted.iterator();
+        Entry next = other.hasNext() ? other.next() : null;
+        int i = 0;
+        int k = 0;
+        while (i < base.length || next != null) {
+            if (next == null || (i < base.length && ORDER.compare(base[i], next) <= 0)) {
+                merged[k++] = base[i++];
+            } else {
+                merged[k++] = next;
+                next = other.hasNext() ? other.next() : null;
+            }
+        }
+        return merged;
+    }
+
+    // Метод для получения числа имен в индексе.
+    public int size() {
+        State current = state;
+        return current.base.length + current.delta.size();
+    }
+
+    // Метод для поиска имен, начинающихся с prefix (без учета регистра), в алфавитном порядке.
+    public List<String> prefix(String prefix, int limit) {
+        State current = state;
+        String key = prefix.toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+        int i = lowerBound(current.base, key, 0, current.base.length);
+        Iterator<Entry> delta = current.delta.tailSet(new Entry(key, ""), true).iterator();
+        Entry fromDelta = nextWithPrefix(delta, key);
+        while (result.size() < limit) {
+            Entry fromBase = i < current.base.length && current.base[i].key.startsWith(key) ? current.base[i] : null;
+            if (fromBase == null && fromDelta == null) {
+                break;
+            }
+            if (fromDelta == null || (fromBase != null && ORDER.compare(fromBase, fromDelta) <= 0)) {
+                result.add(fromBase.name);
+                i++;
+            } else {
+                result.add(fromDelta.name);
+                fromDelta = nextWithPrefix(delta, key);
+            }
+        }
+        return result;
+    }
+
+    // Метод для получения следующего элемента дельты с нужным префиксом.
+    private static Entry nextWithPrefix(Iterator<Entry> iterator, String key) {
+        if (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            return entry.key.startsWith(key) ? entry : null;
+        }
+        return null;
+    }
+
+    // Метод для поиска первой позиции, ключ которой не меньше key.
+    private static int lowerBound(Entry[] entries, String key, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle].key.compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Метод для поиска первой позиции после всех ключей, начинающихся с prefix.
+    private static int prefixEnd(Entry[] entries, String prefix, int from) {
+        int low = from;
+        int high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            String key = entries[middle].key;
+            if (key.startsWith(prefix) || key.compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Метод для нечеткого поиска: имена на расстоянии Левенштейна не больше maxDistance,
+    // упорядоченные по расстоянию, затем по алфавиту. При prefix сравнивается не все имя,
+    // а его лучший по расстоянию префикс (опечатка в начале вводимого имени).
+    public List<String> fuzzy(String query, int maxDistance, int limit, boolean prefix) {
+        State current = state;
+        String target = query.toLowerCase(Locale.ROOT);
+        int m = target.length();
+        List<long[]> found = new ArrayList<>(); // Пары (расстояние, позиция); позиции дельты смещены на длину массива
+        Entry[] base = current.base;
+        int[][] rows = new int[64][]; // rows[d] — строка таблицы после d символов кандидата
+        int[] best = new int[64]; // best[d] — лучшее расстояние префикса длиной не больше d
+        rows[0] = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+        best[0] = m;
+        String previous = "";
+        int i = 0;
+        while (i < base.length) {
+            String key = base[i].key;
+            if (key.length() >= rows.length) {
+                // Очень длинные имена проверяются отдельно, без общей таблицы
+                int distance = distance(target, key, maxDistance, prefix);
+                if (distance <= maxDistance) {
+                    found.add(new long[]{distance, i});
+                }
+                i++;
+                continue;
+            }
+            int depth = commonPrefix(previous, key);
+            int pruneAt = -1;
+            for (int d = depth + 1; d <= key.length(); d++) {
+                rows[d] = nextRow(rows[d - 1], target, key.charAt(d - 1), rows[d]);
+                best[d] = Math.min(best[d - 1], rows[d][m]);
+                if (min(rows[d]) > maxDistance) {
+                    pruneAt = d;
+                    break;
+                }
+            }
+            previous = key;
+            if (pruneAt > 0) {
+                // Дальше по этой ветке расстояние только растет: переходим за все имена с этим префиксом
+                int end = prefixEnd(base, key.substring(0, pruneAt), i + 1);
+                if (prefix && best[pruneAt - 1] <= maxDistance) {
+                    // Начало ветки уже совпало; из упорядоченной по алфавиту ветки хватает первых limit имен
+                    for (int k = i; k < end && k - i < limit; k++) { // Разность не переполняется при limit = Integer.MAX_VALUE
+                        found.add(new long[]{best[pruneAt - 1], k});
+                    }
+                }
+                previous = key.substring(0, pruneAt - 1);
+                i = end;
+                continue;
+            }
+            int distance = prefix ? best[key.length()] : rows[key.length()][m];
+            if (distance <= maxDistance) {
+                found.add(new long[]{distance, i});
+            }
+            i++;
+        }
+        List<Entry> delta = new ArrayList<>(current.delta);
+        for (int k = 0; k < delta.size(); k++) {
+            int distance = distance(target, delta.get(k).key, maxDistance, prefix);
+            if (distance <= maxDistance) {
+                found.add(new long[]{distance, base.length + k});
+            }
+        }
+        found.sort(Comparator.<long[]>comparingLong(f -> f[0])
+                .thenComparing(f -> f[1] < base.length ? base[(int) f[1]] : delta.get((int) (f[1] - base.length)), ORDER));
+        List<String> result = new ArrayList<>(Math.min(limit, found.size()));
+        for (int k = 0; k < found.size() && result.size() < limit; k++) {
+            long position = found.get(k)[1];
+            result.add(position < base.length ? base[(int) position].name : delta.get((int) (position - base.length)).name);
+        }
+        return result;
+    }
+
+    // Метод для вычисления следующей строки таблицы Левенштейна.
+    private static int[] nextRow(int[] previous, String target, char c, int[] reuse) {
+        int[] row = reuse != null && reuse.length == previous.length ? reuse : new int[previous.length];
+        row[0] = previous[0] + 1;
+        for (int j = 1; j < row.length; j++) {
+            int cost = target.charAt(j - 1) == c ? 0 : 1;
+            row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+        }
+        return row;
+    }
+
+    // Метод для вычисления расстояния Левенштейна (при prefix — до лучшего префикса b)
+    // с ранним выходом при превышении предела.
+    static int distance(String a, String b, int maxDistance, boolean prefix) {
+        if (!prefix && Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] row = new int[a.length() + 1];
+        for (int j = 0; j <= a.length(); j++) {
+            row[j] = j;
+        }
+        int best = a.length();
+        for (int d = 1; d <= b.length(); d++) {
+            row = nextRow(row, a, b.charAt(d - 1), null);
+            best = Math.min(best, row[a.length()]);
+            if (min(row) > maxDistance) {
+                return prefix ? Math.min(best, maxDistance + 1) : maxDistance + 1;
+            }
+        }
+        return prefix ? best : row[a.length()];
+    }
+
+    // Метод для получения минимума строки таблицы.
+    private static int min(int[] row) {
+        int min = Integer.MAX_VALUE;
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    // Метод для вычисления длины общего префикса двух строк.
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
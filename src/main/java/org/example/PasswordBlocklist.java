@@ -0,0 +1,164 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Класс PasswordBlocklist проверяет пароль по списку распространенных и скомпрометированных паролей
+// (по одному паролю в строке, UTF-8). Список загружается в BloomFilter, который занимает единицы байт
+// на пароль вместо сотен байт в HashSet<String>. Если файл отсортирован побайтно (LC_ALL=C sort),
+// срабатывания фильтра можно уточнять двоичным поиском по файлу, отображенному в память.
+//
+// Системные свойства: auth.blocklist — путь к файлу, auth.blocklist.fpp — вероятность ложного
+// срабатывания (по умолчанию 0.001), auth.blocklist.exact=true — точная проверка по файлу.
+final class PasswordBlocklist {
+    private static final Logger LOG = Logger.getLogger(PasswordBlocklist.class.getName());
+    static final PasswordBlocklist EMPTY = new PasswordBlocklist(null, null, 0); // Пустой список
+    private static final PasswordBlocklist DEFAULT = loadDefault();
+
+    private final BloomFilter filter;    // Фильтр Блума по всем паролям списка
+    private final MappedByteBuffer sorted; // Отсортированный файл для точной проверки (может быть null)
+    private final long size;              // Число паролей в списке
+
+    // Конструктор для создания списка из готовых структур.
+    private PasswordBlocklist(BloomFilter filter, MappedByteBuffer sorted, long size) {
+        this.filter = filter;
+        this.sorted = sorted;
+        this.size = size;
+    }
+
+    // Метод для получения списка, заданного свойством auth.blocklist (пустого, если свойство не задано).
+    public static PasswordBlocklist getDefault() {
+        return DEFAULT;
+    }
+
+    // Метод для загрузки списка из системных свойств; при ошибке чтения используется пустой список.
+    private static PasswordBlocklist loadDefault() {
+        String file = System.getProperty("auth.blocklist");
+        if (file == null || file.isEmpty()) {
+            return EMPTY;
+        }
+        try {
+            double rate = Double.parseDouble(System.getProperty("auth.blocklist.fpp", "0.001"));
+            return load(Paths.get(file), rate, Boolean.getBoolean("auth.blocklist.exact"));
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.log(Level.WARNING, "Не удалось загрузить список запрещенных паролей {0}: {1}", new Object[]{file, e.getMessage()});
+            return EMPTY;
+        }
+    }
+
+    // Метод для загрузки списка из файла. Файл отображается в память и читается без создания строк:
+    // первый проход считает строки для выбора размера фильтра, второй заполняет фильтр.
+    public static PasswordBlocklist load(Path file, double falsePositiveRate, boolean exact) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Файл списка паролей больше 2 ГБ: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int limit = buffer.limit();
+        long lines = 0;
+        for (int i = 0; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                lines++;
+            }
+        }
+        BloomFilter filter = new BloomFilter(lines + 1, falsePositiveRate);
+        long count = 0;
+        boolean ordered = true;
+        int previousStart = 0;
+        int previousEnd = -1;
+        int start = 0;
+        while (start < limit) {
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end > start) {
+                filter.put(BloomFilter.hash(buffer, start, end - start));
+                count++;
+                if (exact && previousEnd >= 0 && compare(buffer, previousStart, previousEnd, buffer, start, end) > 0) {
+                    ordered = false;
+                }
+                previousStart = start;
+                previousEnd = end;
+            }
+            start = next;
+        }
+        if (exact && !ordered) {
+            LOG.log(Level.WARNING, "Список паролей не отсортирован, точная проверка отключена: {0}", file);
+        }
+        return new PasswordBlocklist(filter, exact && ordered ? buffer : null, count);
+    }
+
+    // Метод для проверки, входит ли пароль в список.
+    public boolean contains(CharSequence password) {
+        if (filter == null || password == null) {
+            return false;
+        }
+        ByteBuffer key = ByteBuffer.wrap(password.toString().getBytes(StandardCharsets.UTF_8));
+        if (!filter.mightContain(BloomFilter.hash(key, 0, key.limit()))) {
+            return false; // Отрицательный ответ фильтра точен: подавляющее большинство паролей отсекается здесь
+        }
+        return sorted == null || search(key);
+    }
+
+    public long size() {return size;}
+    public boolean isExact() {return sorted != null;}
+    public long getMemoryBytes() {return filter == null ? 0 : filter.getMemoryBytes();}
+
+    // Метод для двоичного поиска по смещениям байтов в отсортированном файле.
+    private boolean search(ByteBuffer key) {
+        int low = 0; // Всегда начало строки
+        int high = sorted.limit();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int start = middle;
+            while (start > low && sorted.get(start - 1) != '\n') {
+                start--;
+            }
+            int end = middle;
+            while (end < high && sorted.get(end) != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > start && sorted.get(end - 1) == '\r') {
+                end--;
+            }
+            int comparison = compare(key, 0, key.limit(), sorted, start, end);
+            if (comparison == 0) {
+                return true;
+            }
+            if (comparison < 0) {
+                high = start;
+            } else {
+                low = next;
+            }
+        }
+        return false;
+    }
+
+    // Метод для побайтного сравнения двух диапазонов (байты без знака, как в LC_ALL=C sort).
+    private static int compare(ByteBuffer a, int aStart, int aEnd, ByteBuffer b, int bStart, int bEnd) {
+        int length = Math.min(aEnd - aStart, bEnd - bStart);
+        for (int i = 0; i < length; i++) {
+            int difference = (a.get(aStart + i) & 0xFF) - (b.get(bStart + i) & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return (aEnd - aStart) - (bEnd - bStart);
+    }
+}
@@ -0,0 +1,123 @@
+package org.example;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+// Класс PasswordHasher вычисляет и проверяет соленые хеши паролей PBKDF2.
+// Хеш хранится строкой pbkdf2$<итерации>$<соль>$<хеш>, поэтому число итераций сохраняется вместе с пользователем.
+class PasswordHasher {
+    static final String PREFIX = "pbkdf2$"; // Префикс сохраненного хеша
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    private static final int MAX_ITERATIONS = 100_000_000; // Предел для хешей из внешних источников: защита от заведомо долгой проверки
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final PasswordHasher DEFAULT = new PasswordHasher(Integer.getInteger("auth.pbkdf2.iterations", 210_000));
+
+    private final int iterations; // Текущий целевой коэффициент трудоемкости
+
+    // Конструктор для создания хешера с заданным числом итераций.
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Число итераций должно быть положительным.");
+        }
+        this.iterations = iterations;
+    }
+
+    // Метод для получения хешера с числом итераций из свойства auth.pbkdf2.iterations.
+    public static PasswordHasher getDefault() {
+        return DEFAULT;
+    }
+
+    public int getIterations() {return iterations;}
+
+    // Метод для вычисления хеша пароля со случайной солью.
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    // Метод для проверки пароля; строки без префикса считаются паролями старого формата в открытом виде.
+    public boolean verify(String password, String stored) {
+        if (!stored.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!isWellFormed(stored)) {
+            return false;
+        }
+        String[] parts = stored.split("\\$");
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] expected = decoder.decode(parts[3]);
+        byte[] actual = pbkdf2(password, decoder.decode(parts[2]), Integer.parseInt(parts[1]));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    // Метод для проверки формата сохраненного хеша: положительное число итераций (не больше MAX_ITERATIONS),
+    // непустая соль и хеш нужной длины в Base64. Хеши из внешних источников (импорт) принимаются только после проверки.
+    static boolean isWellFormed(String stored) {
+        if (!stored.startsWith(PREFIX)) {
+            return false;
+        }
+        String[] parts = stored.split("\\$", -1);
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            Base64.Decoder decoder = Base64.getDecoder();
+            return iterations >= 1 && iterations <= MAX_ITERATIONS
+                    && decoder.decode(parts[2]).length > 0
+                    && decoder.decode(parts[3]).length == KEY_BITS / 8;
+        } catch (IllegalArgumentException e) { // Включая NumberFormatException
+            return false;
+        }
+    }
+
+    // Метод для проверки, хранится ли пароль хешем, а не в открытом виде (старый формат).
+    static boolean isHashed(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+
+    // Метод для замены паролей старого формата хешами параллельно на всех ядрах; возвращает число замененных.
+    public int hashPlaintext(List<User> users) {
+        return (int) users.parallelStream().filter(user -> {
+            String stored = user.getPassword();
+            return !isHashed(stored) && user.compareAndSetPassword(stored, hash(stored));
+        }).count();
+    }
+
+    // Метод для проверки, нужно ли пересчитать хеш с текущим числом итераций.
+    public boolean needsRehash(String stored) {
+        return iterationsOf(stored) < iterations;
+    }
+
+    // Метод для получения числа итераций сохраненного хеша (0 для пароля в открытом виде).
+    static int iterationsOf(String stored) {
+        if (!stored.startsWith(PREFIX)) {
+            return 0;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        return end < 0 ? 0 : Integer.parseInt(stored.substring(PREFIX.length(), end));
+    }
+
+    // Метод для вычисления PBKDF2 средствами JDK.
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Алгоритм " + ALGORITHM + " недоступен.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
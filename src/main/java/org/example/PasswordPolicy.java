@@ -0,0 +1,185 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Класс PasswordPolicy — неизменяемая политика паролей, составленная из правил PasswordRule.
+// Политика компилируется один раз при создании: определяется, какие счетчики нужны, и проверка
+// выполняется за один проход по символам без выделения памяти. Одинаковые политики интернируются,
+// поэтому пользователи с одинаковыми настройками разделяют один объект.
+final class PasswordPolicy {
+    private static final ConcurrentHashMap<PasswordPolicy, PasswordPolicy> INTERNED = new ConcurrentHashMap<>();
+    private static final int DISABLED = 0; // Значение 0 отключает правило
+
+    // Политика по умолчанию: длина 6-12, не меньше 2 цифр и 2 спецсимволов
+    static final PasswordPolicy DEFAULT = of(6, 12, 2, 2);
+
+    private final int[] limits; // Значения ограничений по порядковому номеру правила
+
+    // Скомпилированные признаки: какие счетчики нужны при проверке
+    private final boolean countClasses;  // Нужны счетчики классов символов
+    private final boolean trackRuns;     // Нужно отслеживать повторы и последовательности
+
+    // Конструктор для создания политики по массиву ограничений.
+    private PasswordPolicy(int[] limits) {
+        this.limits = limits;
+        this.countClasses = enabled(PasswordRule.MIN_DIGITS) || enabled(PasswordRule.MIN_SPECIAL)
+                || enabled(PasswordRule.MIN_UPPER) || enabled(PasswordRule.MIN_LOWER);
+        this.trackRuns = enabled(PasswordRule.MAX_REPEAT) || enabled(PasswordRule.MAX_SEQUENCE);
+    }
+
+    // Метод для создания политики с ограничениями длины, цифр и спецсимволов.
+    static PasswordPolicy of(int minLength, int maxLength, int minDigits, int minSpecialChars) {
+        int[] limits = new int[PasswordRule.values().length];
+        limits[PasswordRule.MIN_LENGTH.ordinal()] = minLength;
+        limits[PasswordRule.MAX_LENGTH.ordinal()] = maxLength;
+        limits[PasswordRule.MIN_DIGITS.ordinal()] = minDigits;
+        limits[PasswordRule.MIN_SPECIAL.ordinal()] = minSpecialChars;
+        return intern(new PasswordPolicy(limits));
+    }
+
+    // Метод для разбора политики из строки вида 6;12;2;2;0;0;0;0 (значения в порядке PasswordRule,
+    // недостающие в конце правила отключены).
+    static PasswordPolicy decode(String text) {
+        String[] values = text.split(";");
+        int[] limits = new int[PasswordRule.values().length];
+        if (values.length > limits.length) {
+            throw new IllegalArgumentException("Лишние значения политики: " + text);
+        }
+        for (int i = 0; i < values.length; i++) {
+            limits[i] = Integer.parseInt(values[i].trim());
+            if (limits[i] < 0) {
+                throw new IllegalArgumentException("Отрицательное значение политики: " + text);
+            }
+        }
+        return intern(new PasswordPolicy(limits));
+    }
+
+    // Метод для записи политики строкой, которую читает decode.
+    public String encode() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < limits.length; i++) {
+            text.append(i > 0 ? ";" : "").append(limits[i]);
+        }
+        return text.toString();
+    }
+
+    // Метод для получения общего экземпляра политики.
+    private static PasswordPolicy intern(PasswordPolicy policy) {
+        PasswordPolicy existing = INTERNED.putIfAbsent(policy, policy);
+        return existing != null ? existing : policy;
+    }
+
+    // Метод для получения политики с измененным значением одного правила (0 отключает правило).
+    public PasswordPolicy with(PasswordRule rule, int limit) {
+        if (limits[rule.ordinal()] == limit) {
+            return this;
+        }
+        int[] copy = limits.clone();
+        copy[rule.ordinal()] = limit;
+        return intern(new PasswordPolicy(copy));
+    }
+
+    // Метод для получения значения ограничения правила.
+    public int get(PasswordRule rule) {
+        return limits[rule.ordinal()];
+    }
+
+    // Метод для проверки, включено ли правило.
+    public boolean enabled(PasswordRule rule) {
+        return limits[rule.ordinal()] != DISABLED;
+    }
+
+    // Метод для проверки пароля; возвращает маску нарушенных правил (0 — пароль допустим).
+    public int check(CharSequence password) {
+        return scan(password, null, password.length());
+    }
+
+    // Метод для проверки пароля, переданного массивом символов (например, из JPasswordField).
+    public int check(char[] password) {
+        return scan(null, password, password.length);
+    }
+
+    // Метод для однопроходной проверки; символы читаются из text или из chars, в зависимости от источника.
+    private int scan(CharSequence text, char[] chars, int length) {
+        int digits = 0, special = 0, upper = 0, lower = 0;
+        int longestRepeat = length == 0 ? 0 : 1, longestSequence = longestRepeat;
+        if (countClasses || trackRuns) {
+            int repeat = 1, ascending = 1, descending = 1;
+            char previous = 0;
+            for (int i = 0; i < length; i++) {
+                char c = chars != null ? chars[i] : text.charAt(i);
+                if (countClasses) {
+                    if (Character.isDigit(c)) {
+                        digits++;
+                    } else if (!Character.isLetter(c)) {
+                        special++;
+                    } else if (Character.isUpperCase(c)) {
+                        upper++;
+                    } else if (Character.isLowerCase(c)) {
+                        lower++;
+                    }
+                }
+                if (trackRuns && i > 0) {
+                    repeat = (c == previous) ? repeat + 1 : 1;
+                    ascending = (c == previous + 1) ? ascending + 1 : 1;
+                    descending = (c == previous - 1) ? descending + 1 : 1;
+                    longestRepeat = Math.max(longestRepeat, repeat);
+                    longestSequence = Math.max(longestSequence, Math.max(ascending, descending));
+                }
+                previous = c;
+            }
+        }
+        return violations(length, digits, special, upper, lower, longestRepeat, longestSequence);
+    }
+
+    // Метод для сборки маски нарушений по подсчитанным значениям.
+    private int violations(int length, int digits, int special, int upper, int lower, int repeat, int sequence) {
+        int mask = 0;
+        if (length < limits[PasswordRule.MIN_LENGTH.ordinal()]) mask |= PasswordRule.MIN_LENGTH.bit();
+        if (enabled(PasswordRule.MAX_LENGTH) && length > limits[PasswordRule.MAX_LENGTH.ordinal()]) mask |= PasswordRule.MAX_LENGTH.bit();
+        if (digits < limits[PasswordRule.MIN_DIGITS.ordinal()]) mask |= PasswordRule.MIN_DIGITS.bit();
+        if (special < limits[PasswordRule.MIN_SPECIAL.ordinal()]) mask |= PasswordRule.MIN_SPECIAL.bit();
+        if (upper < limits[PasswordRule.MIN_UPPER.ordinal()]) mask |= PasswordRule.MIN_UPPER.bit();
+        if (lower < limits[PasswordRule.MIN_LOWER.ordinal()]) mask |= PasswordRule.MIN_LOWER.bit();
+        if (enabled(PasswordRule.MAX_REPEAT) && repeat > limits[PasswordRule.MAX_REPEAT.ordinal()]) mask |= PasswordRule.MAX_REPEAT.bit();
+        if (enabled(PasswordRule.MAX_SEQUENCE) && sequence > limits[PasswordRule.MAX_SEQUENCE.ordinal()]) mask |= PasswordRule.MAX_SEQUENCE.bit();
+        return mask;
+    }
+
+    // Метод для описания нарушенных правил по маске.
+    public String describe(int mask) {
+        StringBuilder text = new StringBuilder();
+        for (PasswordRule rule : PasswordRule.fromMask(mask)) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(rule.describe(get(rule)));
+        }
+        return text.toString();
+    }
+
+    // Переопределенный метод equals: политики равны при равных ограничениях.
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PasswordPolicy && Arrays.equals(limits, ((PasswordPolicy) other).limits);
+    }
+
+    // Переопределенный метод hashCode в соответствии с equals.
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(limits);
+    }
+
+    // Переопределенный метод toString для строкового представления политики.
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (PasswordRule rule : PasswordRule.values()) {
+            if (enabled(rule)) {
+                text.append(text.length() > 0 ? ", " : "").append(rule.describe(get(rule)));
+            }
+        }
+        return text.toString();
+    }
+}
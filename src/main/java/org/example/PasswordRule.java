@@ -0,0 +1,44 @@
+package org.example;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Перечисление PasswordRule описывает правила политики паролей; каждому правилу соответствует бит в маске нарушений.
+enum PasswordRule {
+    MIN_LENGTH("длина не меньше %d"),
+    MAX_LENGTH("длина не больше %d"),
+    MIN_DIGITS("цифр не меньше %d"),
+    MIN_SPECIAL("спецсимволов не меньше %d"),
+    MIN_UPPER("заглавных букв не меньше %d"),
+    MIN_LOWER("строчных букв не меньше %d"),
+    MAX_REPEAT("один символ подряд не больше %d раз"),
+    MAX_SEQUENCE("последовательность вида abc/123 не длиннее %d");
+
+    private final String description; // Описание правила для сообщений
+
+    // Конструктор для создания правила с описанием.
+    PasswordRule(String description) {
+        this.description = description;
+    }
+
+    // Метод для получения бита правила в маске нарушений.
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    // Метод для получения описания правила с учетом значения ограничения.
+    public String describe(int limit) {
+        return String.format(description, limit);
+    }
+
+    // Метод для преобразования маски нарушений в набор правил.
+    public static Set<PasswordRule> fromMask(int mask) {
+        EnumSet<PasswordRule> rules = EnumSet.noneOf(PasswordRule.class);
+        for (PasswordRule rule : values()) {
+            if ((mask & rule.bit()) != 0) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Класс PasswordVerifier выполняет проверку хешей паролей в ограниченном пуле потоков.
+// Проверка намеренно затратна по CPU, поэтому пул ограничен числом ядер, а очередь — фиксированным размером.
+class PasswordVerifier {
+    private final PasswordHasher hasher; // Хешер паролей
+    private final ThreadPoolExecutor executor; // Пул потоков проверки
+
+    // Конструктор для создания пула с числом потоков по количеству ядер.
+    public PasswordVerifier(PasswordHasher hasher) {
+        this(hasher, Runtime.getRuntime().availableProcessors(), Integer.getInteger("auth.verify.queue", 1024));
+    }
+
+    // Конструктор для создания пула с заданным числом потоков и размером очереди.
+    public PasswordVerifier(PasswordHasher hasher, int threads, int queueSize) {
+        this.hasher = hasher;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "password-verifier-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public PasswordHasher getHasher() {return hasher;}
+
+    // Метод для асинхронной проверки пароля; при переполнении очереди future завершается с RejectedExecutionException.
+    // Время проверки учитывается в метриках без ожидания в очереди.
+    public CompletableFuture<Boolean> verify(String password, String stored) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                AuthEvents.PasswordHash event = new AuthEvents.PasswordHash();
+                event.begin();
+                long start = System.nanoTime();
+                boolean valid = hasher.verify(password, stored);
+                AuthMetrics.getDefault().recordHashVerify(System.nanoTime() - start);
+                if (event.shouldCommit()) {
+                    event.operation = "verify";
+                    event.iterations = PasswordHasher.iterationsOf(stored);
+                    event.commit();
+                }
+                return valid;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Метод для асинхронного вычисления хеша нового пароля в том же пуле.
+    public CompletableFuture<String> hash(String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                AuthEvents.PasswordHash event = new AuthEvents.PasswordHash();
+                event.begin();
+                long start = System.nanoTime();
+                String hash = hasher.hash(password);
+                AuthMetrics.getDefault().recordHashCompute(System.nanoTime() - start);
+                if (event.shouldCommit()) {
+                    event.operation = "hash";
+                    event.iterations = hasher.getIterations();
+                    event.commit();
+                }
+                return hash;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Метод для остановки пула: новые задачи отклоняются, начатые и поставленные в очередь дорабатывают
+    // (ожидание не дольше 10 с).
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
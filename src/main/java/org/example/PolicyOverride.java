@@ -0,0 +1,30 @@
+package org.example;
+
+// Класс PolicyOverride — индивидуальные отличия пользователя от его шаблона политики.
+// Объект создается только для пользователей с отличиями; у остальных ссылка пустая,
+// поэтому память на пользователя не зависит от числа правил. null в поле означает значение шаблона.
+final class PolicyOverride {
+    private final PasswordPolicy policy; // Собственная политика паролей (null — политика шаблона)
+    private final Boolean restrictionsEnabled; // Собственный флаг ограничений (null — флаг шаблона)
+
+    // Конструктор для создания набора отличий.
+    PolicyOverride(PasswordPolicy policy, Boolean restrictionsEnabled) {
+        this.policy = policy;
+        this.restrictionsEnabled = restrictionsEnabled;
+    }
+
+    public PasswordPolicy getPolicy() {return policy;}
+    public Boolean getRestrictionsEnabled() {return restrictionsEnabled;}
+
+    // Метод для получения набора с другой политикой; возвращает null, если отличий не осталось.
+    static PolicyOverride withPolicy(PolicyOverride override, PasswordPolicy policy) {
+        Boolean restrictions = override == null ? null : override.restrictionsEnabled;
+        return policy == null && restrictions == null ? null : new PolicyOverride(policy, restrictions);
+    }
+
+    // Метод для получения набора с другим флагом ограничений; возвращает null, если отличий не осталось.
+    static PolicyOverride withRestrictions(PolicyOverride override, Boolean restrictionsEnabled) {
+        PasswordPolicy policy = override == null ? null : override.policy;
+        return policy == null && restrictionsEnabled == null ? null : new PolicyOverride(policy, restrictionsEnabled);
+    }
+}
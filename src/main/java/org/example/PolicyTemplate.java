@@ -0,0 +1,29 @@
+package org.example;
+
+// Класс PolicyTemplate — именованный шаблон политики паролей, на который ссылаются пользователи.
+// Пользователь хранит только ссылку на шаблон, поэтому изменение политики или флага ограничений
+// шаблона сразу действует для всех его участников без обхода и перезаписи пользователей.
+final class PolicyTemplate {
+    private final String id; // Идентификатор шаблона
+    private volatile PasswordPolicy policy; // Политика паролей шаблона
+    private volatile boolean restrictionsEnabled; // Флаг ограничений на пароль для участников шаблона
+
+    // Конструктор для создания шаблона.
+    PolicyTemplate(String id, PasswordPolicy policy, boolean restrictionsEnabled) {
+        this.id = id;
+        this.policy = policy;
+        this.restrictionsEnabled = restrictionsEnabled;
+    }
+
+    public String getId() {return id;}
+    public PasswordPolicy getPolicy() {return policy;}
+    public void setPolicy(PasswordPolicy policy) {this.policy = policy;}
+    public boolean isRestrictionsEnabled() {return restrictionsEnabled;}
+    public void setRestrictionsEnabled(boolean restrictionsEnabled) {this.restrictionsEnabled = restrictionsEnabled;}
+
+    // Переопределенный метод toString: идентификатор для списков выбора.
+    @Override
+    public String toString() {
+        return id;
+    }
+}
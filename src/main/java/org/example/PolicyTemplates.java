@@ -0,0 +1,165 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+// Класс PolicyTemplates — реестр шаблонов политик паролей и их хранение в файле policies.txt.
+// Шаблоны default, admin и service-account существуют всегда; администратор может менять их
+// политику и добавлять новые. Объекты шаблонов не пересоздаются: загрузка файла обновляет их
+// на месте, поэтому ссылки пользователей остаются действительными.
+//
+// Формат файла (по строке на шаблон, # — комментарий):
+//   id,restrictionsEnabled,minLength;maxLength;minDigits;minSpecialChars;minUpper;minLower;maxRepeat;maxSequence
+final class PolicyTemplates {
+    static final String DEFAULT = "default";
+    static final String ADMIN = "admin";
+    static final String SERVICE_ACCOUNT = "service-account";
+
+    private static final Logger LOG = Logger.getLogger(PolicyTemplates.class.getName());
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9_-]{1,31}"); // Допустимые идентификаторы
+    private static final PolicyTemplates INSTANCE = new PolicyTemplates(); // Общий реестр процесса
+
+    private final ConcurrentHashMap<String, PolicyTemplate> templates = new ConcurrentHashMap<>(); // Шаблоны по идентификатору
+    private volatile Path file; // Файл шаблонов (null — шаблоны не сохраняются)
+
+    // Конструктор для создания реестра со встроенными шаблонами.
+    private PolicyTemplates() {
+        templates.put(DEFAULT, new PolicyTemplate(DEFAULT, PasswordPolicy.DEFAULT, true));
+        templates.put(ADMIN, new PolicyTemplate(ADMIN, PasswordPolicy.of(8, 64, 2, 2)
+                .with(PasswordRule.MIN_UPPER, 1).with(PasswordRule.MIN_LOWER, 1), true));
+        // Сервисные учетные записи используют длинные случайные секреты: важна только длина
+        templates.put(SERVICE_ACCOUNT, new PolicyTemplate(SERVICE_ACCOUNT, PasswordPolicy.of(24, 128, 0, 0), true));
+    }
+
+    // Метод для получения общего реестра шаблонов.
+    static PolicyTemplates getDefault() {
+        return INSTANCE;
+    }
+
+    // Метод для проверки идентификатора шаблона.
+    static boolean isValidId(String id) {
+        return id != null && ID.matcher(id).matches();
+    }
+
+    // Метод для получения шаблона по идентификатору; null, если шаблона нет.
+    public PolicyTemplate get(String id) {
+        return id == null ? null : templates.get(id);
+    }
+
+    // Метод для получения шаблона по идентификатору из файла пользователей; неизвестный шаблон
+    // создается с политикой по умолчанию, чтобы ссылка пользователя не потерялась. Некорректный
+    // идентификатор (его нельзя было бы сохранить) заменяется шаблоном по умолчанию.
+    public PolicyTemplate resolve(String id) {
+        if (id == null || id.isEmpty()) {
+            return defaultTemplate();
+        }
+        if (!isValidId(id)) {
+            LOG.log(Level.WARNING, "Некорректный идентификатор шаблона {0}, используется шаблон по умолчанию", id);
+            return defaultTemplate();
+        }
+        return templates.computeIfAbsent(id, key -> new PolicyTemplate(key, PasswordPolicy.DEFAULT, true));
+    }
+
+    // Метод для получения шаблона обычных пользователей.
+    public PolicyTemplate defaultTemplate() {
+        return templates.get(DEFAULT);
+    }
+
+    // Метод для получения шаблона администраторов.
+    public PolicyTemplate adminTemplate() {
+        return templates.get(ADMIN);
+    }
+
+    // Метод для получения списка шаблонов, отсортированного по идентификатору.
+    public List<PolicyTemplate> list() {
+        List<PolicyTemplate> list = new ArrayList<>(templates.values());
+        list.sort((a, b) -> a.getId().compareTo(b.getId()));
+        return list;
+    }
+
+    // Метод для создания шаблона или изменения его политики; участники видят изменение сразу.
+    public PolicyTemplate define(String id, PasswordPolicy policy) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Некорректный идентификатор шаблона: " + id);
+        }
+        PolicyTemplate template = templates.computeIfAbsent(id, key -> new PolicyTemplate(key, policy, true));
+        template.setPolicy(policy);
+        return template;
+    }
+
+    // Метод для включения/отключения ограничений во всех шаблонах: время не зависит от числа пользователей.
+    public void setRestrictionsEnabled(boolean enabled) {
+        for (PolicyTemplate template : templates.values()) {
+            template.setRestrictionsEnabled(enabled);
+        }
+    }
+
+    // Метод для чтения шаблонов из файла; отсутствующий файл оставляет встроенные шаблоны.
+    // Возвращает false, если файла еще нет (первый запуск или переход со старого формата).
+    public synchronized boolean load(Path file) throws IOException {
+        this.file = file;
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",", -1);
+                if (parts.length != 3 || !isValidId(parts[0])) {
+                    throw new IOException("Некорректная строка файла шаблонов: " + line);
+                }
+                try {
+                    PolicyTemplate template = resolve(parts[0]);
+                    template.setPolicy(PasswordPolicy.decode(parts[2]));
+                    template.setRestrictionsEnabled(Boolean.parseBoolean(parts[1]));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Некорректная политика в файле шаблонов: " + line);
+                }
+            }
+        }
+        return true;
+    }
+
+    // Метод для сохранения шаблонов: временный файл с force и атомарная замена.
+    public synchronized void save() throws IOException {
+        Path target = file;
+        if (target == null) {
+            return;
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# id,restrictionsEnabled,minLength;maxLength;minDigits;minSpecialChars;minUpper;minLower;maxRepeat;maxSequence");
+            writer.newLine();
+            for (PolicyTemplate template : list()) {
+                writer.write(template.getId() + "," + template.isRestrictionsEnabled() + "," + template.getPolicy().encode());
+                writer.newLine();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
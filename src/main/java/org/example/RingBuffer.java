@@ -0,0 +1,74 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Класс RingBuffer — ограниченная очередь без блокировок для многих производителей и одного потребителя
+// (схема Д. Вьюкова). У каждой ячейки есть номер последовательности: производитель занимает позицию
+// одним CAS и публикует элемент записью номера, потребитель забирает элементы пачкой без CAS.
+// Заполненный буфер не ожидает освобождения — offer возвращает false, а решение принимает вызывающий.
+final class RingBuffer<T> {
+    private final Object[] slots; // Ячейки с элементами
+    private final AtomicLongArray sequences; // Номера последовательности ячеек
+    private final int mask; // Маска индекса ячейки (емкость — степень двойки)
+    private final AtomicLong tail = new AtomicLong(); // Следующая позиция производителя
+    private volatile long head; // Следующая позиция потребителя (изменяет только потребитель)
+
+    // Конструктор для создания буфера; емкость округляется вверх до степени двойки.
+    RingBuffer(int capacity) {
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        slots = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    // Метод для добавления элемента; возвращает false, если буфер заполнен.
+    public boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = element;
+                    sequences.set(index, position + 1); // Публикация элемента для потребителя
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // Ячейка еще не освобождена потребителем
+            }
+            // Позицию занял другой производитель — повтор с новой позицией
+        }
+    }
+
+    // Метод для переноса до max опубликованных элементов в target; вызывается только потребителем.
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<? super T> target, int max) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break; // Элемент еще не опубликован
+            }
+            target.add((T) slots[index]);
+            slots[index] = null;
+            sequences.set(index, position + slots.length); // Ячейка свободна для следующего круга
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    public int capacity() {return slots.length;}
+    public long offered() {return tail.get();}
+    public long consumed() {return head;}
+}
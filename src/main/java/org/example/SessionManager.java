@@ -0,0 +1,138 @@
+package org.example;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// Класс SessionManager выдает сеансовые токены после успешного входа и проверяет их за O(1)
+// по таблице в памяти, не обращаясь к хранилищу пользователей. Токен — 32 случайных байта в base64url.
+// Число сеансов ограничено: при переполнении вытесняются самые старые, истекшие удаляются по TTL.
+class SessionManager {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    // Класс Session — выданный сеанс.
+    static final class Session {
+        final String token;    // Токен сеанса
+        final User user;       // Владелец сеанса
+        final long expiresAt;  // Момент истечения в миллисекундах
+
+        Session(String token, User user, long expiresAt) {
+            this.token = token;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>(); // Токен -> сеанс
+    private final ConcurrentHashMap<String, Set<String>> byUser = new ConcurrentHashMap<>(); // Имя -> токены для отзыва
+    private final ConcurrentLinkedQueue<Session> order = new ConcurrentLinkedQueue<>(); // Сеансы в порядке выдачи
+    private final AtomicInteger count = new AtomicInteger(); // Число действующих сеансов
+    private final int maxSessions; // Максимальное число сеансов
+    private final long ttlMillis;  // Время жизни сеанса
+    private final LongSupplier clock; // Источник времени в миллисекундах
+
+    // Конструктор для создания менеджера с параметрами из системных свойств auth.session.*.
+    public SessionManager() {
+        this(Integer.getInteger("auth.session.max", 100_000),
+                Long.getLong("auth.session.ttlSeconds", 1800) * 1000,
+                System::currentTimeMillis);
+    }
+
+    // Конструктор для создания менеджера с явными параметрами.
+    public SessionManager(int maxSessions, long ttlMillis, LongSupplier clock) {
+        this.maxSessions = maxSessions;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    // Метод для выдачи нового сеанса пользователю; возвращает токен.
+    public String issue(User user) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = ENCODER.encodeToString(bytes);
+        long now = clock.getAsLong();
+        Session session = new Session(token, user, now + ttlMillis);
+        byUser.computeIfAbsent(user.getUsername(), name -> ConcurrentHashMap.newKeySet()).add(token);
+        sessions.put(token, session);
+        order.add(session);
+        count.incrementAndGet();
+        evict(now);
+        return token;
+    }
+
+    // Метод для проверки токена; возвращает владельца сеанса или null, если сеанс недействителен.
+    public User validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.expiresAt <= clock.getAsLong() || session.user.isBlocked()) {
+            remove(session);
+            return null;
+        }
+        return session.user;
+    }
+
+    // Метод для завершения одного сеанса; возвращает false, если сеанс не найден.
+    public boolean revoke(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        return session != null && remove(session);
+    }
+
+    // Метод для завершения всех сеансов пользователя (при блокировке или смене пароля).
+    public int revokeAll(String username) {
+        Set<String> tokens = byUser.remove(username);
+        if (tokens == null) {
+            return 0;
+        }
+        int revoked = 0;
+        for (String token : tokens) {
+            Session session = sessions.get(token);
+            if (session != null && remove(session)) {
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    public int size() {return count.get();}
+
+    // Метод для удаления сеанса из таблиц; возвращает true, если сеанс удален этим вызовом.
+    private boolean remove(Session session) {
+        if (!sessions.remove(session.token, session)) {
+            return false;
+        }
+        count.decrementAndGet();
+        Set<String> tokens = byUser.get(session.user.getUsername());
+        if (tokens != null) {
+            tokens.remove(session.token);
+            if (tokens.isEmpty()) {
+                byUser.remove(session.user.getUsername(), tokens);
+            }
+        }
+        return true;
+    }
+
+    // Метод для вытеснения сеансов из начала очереди: истекших, а при переполнении — самых старых.
+    // Время жизни одинаково для всех сеансов, поэтому порядок выдачи совпадает с порядком истечения.
+    private void evict(long now) {
+        Session head;
+        while ((head = order.peek()) != null) {
+            boolean stale = !sessions.containsKey(head.token); // Уже отозван
+            if (!stale && head.expiresAt > now && count.get() <= maxSessions) {
+                return;
+            }
+            if (order.remove(head) && !stale) {
+                remove(head);
+            }
+        }
+    }
+}
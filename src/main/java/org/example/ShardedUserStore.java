@@ -0,0 +1,280 @@
+package org.example;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// Класс ShardedUserStore распределяет пользователей по N файлам-шардам в одном каталоге по хешу имени.
+// Шарды загружаются параллельно в пуле ForkJoin, а изменение пользователя записывается только в его шард:
+// у каждого шарда свое хранилище (CSV с пакетной записью или журнал), поэтому время запуска и конкуренция
+// записей делятся на число шардов. Собственных списков участников шарды не хранят: состояние для записи
+// отбирается по номеру шарда из всех пользователей (индекса системы), которых передает вызывающий.
+//
+// Структура каталога:
+//   shards.properties   число шардов (записывается последним, после данных)
+//   shard-000.txt ...   файлы шардов в формате users.txt
+class ShardedUserStore implements UserStore {
+    static final String MANIFEST = "shards.properties";
+
+    private final Path directory; // Каталог шардов
+    private final boolean journal; // Признак хранения шардов с журналом
+    private final ForkJoinPool pool; // Пул параллельной загрузки и полной записи
+    private volatile UserStore[] shards; // Хранилища шардов (создаются при загрузке или первой записи)
+
+    // Конструктор для создания хранилища в каталоге; режим шардов — CSV или журнал.
+    public ShardedUserStore(String directory, boolean journal) {
+        this(Paths.get(directory), journal, ForkJoinPool.commonPool());
+    }
+
+    // Конструктор для создания хранилища с заданным пулом.
+    public ShardedUserStore(Path directory, boolean journal, ForkJoinPool pool) {
+        this.directory = directory;
+        this.journal = journal;
+        this.pool = pool;
+    }
+
+    // Метод для определения шарда пользователя; хеш строки стабилен между запусками и перемешивается,
+    // чтобы похожие имена (user1, user2, ...) расходились по разным шардам.
+    static int shardOf(String username, int count) {
+        int hash = username.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return Math.floorMod(hash, count);
+    }
+
+    // Метод для отбора участников шарда index из всех пользователей с сохранением порядка добавления.
+    private static List<User> members(List<User> users, int index, int count) {
+        List<User> members = new ArrayList<>();
+        for (User user : users) {
+            if (shardOf(user.getUsername(), count) == index) {
+                members.add(user);
+            }
+        }
+        return members;
+    }
+
+    // Метод для получения пути файла шарда.
+    private Path shardFile(int index) {
+        return directory.resolve(String.format("shard-%03d.txt", index));
+    }
+
+    // Метод для чтения числа шардов из описания каталога; 0 — каталог еще не создан.
+    private int readCount() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            int count = Integer.parseInt(properties.getProperty("shards", "").trim());
+            if (count < 1) {
+                throw new NumberFormatException();
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IOException("Некорректное число шардов в " + manifest);
+        }
+    }
+
+    // Метод для получения шардов; при первом обращении число берется из описания каталога,
+    // а для нового каталога — из свойства auth.store.shards (по умолчанию число ядер).
+    private UserStore[] shards() throws IOException {
+        UserStore[] current = shards;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (shards == null) {
+                int count = readCount();
+                if (count == 0) {
+                    count = Integer.getInteger("auth.store.shards", Runtime.getRuntime().availableProcessors());
+                    Files.createDirectories(directory);
+                    writeManifest(count);
+                }
+                shards = open(count);
+            }
+            return shards;
+        }
+    }
+
+    // Метод для создания хранилищ шардов.
+    private UserStore[] open(int count) throws IOException {
+        if (count < 1) {
+            throw new IOException("Число шардов должно быть положительным.");
+        }
+        UserStore[] created = new UserStore[count];
+        for (int i = 0; i < count; i++) {
+            String file = shardFile(i).toString();
+            created[i] = journal ? new JournaledUserStore(file, Long.getLong("auth.journal.compactBytes", 1L << 20)) : new CsvUserStore(file);
+        }
+        return created;
+    }
+
+    // Метод для записи описания каталога с числом шардов.
+    private void writeManifest(int count) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("shards", Integer.toString(count));
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Число шардов; менять только командой reshard");
+        }
+        Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Метод для параллельной загрузки шардов; результат — участники шардов по порядку.
+    @Override
+    public List<User> load() throws IOException {
+        if (readCount() == 0) {
+            throw new FileNotFoundException(directory.resolve(MANIFEST).toString());
+        }
+        UserStore[] all = shards();
+        List<List<User>> loaded;
+        try {
+            loaded = pool.submit(() -> IntStream.range(0, all.length).parallel().mapToObj(i -> loadShard(all[i])).toList()).join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<User> users = new ArrayList<>();
+        for (List<User> shard : loaded) {
+            users.addAll(shard);
+        }
+        return users;
+    }
+
+    // Метод для загрузки одного шарда; отсутствующий файл означает пустой шард.
+    private static List<User> loadShard(UserStore shard) {
+        try {
+            return shard.load();
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return new ArrayList<>();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Метод для полной записи: пользователи распределяются по шардам, шарды пишутся параллельно.
+    @Override
+    public void saveAll(List<User> users) throws IOException {
+        await(saveAllAsync(() -> users));
+    }
+
+    // Метод для сохранения изменения одного пользователя: пишется только его шард.
+    @Override
+    public void saveUser(User user, Supplier<List<User>> allUsers) throws IOException {
+        await(saveUserAsync(user, allUsers));
+    }
+
+    // Метод для асинхронной полной записи всех шардов; пользователи распределяются за один проход.
+    @Override
+    public CompletableFuture<Void> saveAllAsync(Supplier<List<User>> allUsers) {
+        try {
+            UserStore[] all = shards();
+            List<List<User>> members = new ArrayList<>();
+            for (int i = 0; i < all.length; i++) {
+                members.add(new ArrayList<>());
+            }
+            for (User user : allUsers.get()) {
+                members.get(shardOf(user.getUsername(), all.length)).add(user);
+            }
+            CompletableFuture<?>[] writes = new CompletableFuture<?>[all.length];
+            for (int i = 0; i < all.length; i++) {
+                List<User> shard = members.get(i);
+                writes[i] = all[i].saveAllAsync(() -> shard);
+            }
+            return CompletableFuture.allOf(writes);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Метод для асинхронного сохранения изменения одного пользователя; остальные шарды не затрагиваются,
+    // а участники шарда отбираются из всех пользователей, только когда хранилище шарда переписывает файл.
+    @Override
+    public CompletableFuture<Void> saveUserAsync(User user, Supplier<List<User>> allUsers) {
+        try {
+            UserStore[] all = shards();
+            int index = shardOf(user.getUsername(), all.length);
+            return all[index].saveUserAsync(user, () -> members(allUsers.get(), index, all.length));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Метод для ожидания записи с пробросом ошибки ввода-вывода.
+    private static void await(CompletableFuture<Void> done) throws IOException {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Метод для закрытия хранилищ шардов.
+    @Override
+    public void close() throws IOException {
+        UserStore[] all = shards;
+        if (all != null) {
+            for (UserStore shard : all) {
+                shard.close();
+            }
+        }
+    }
+
+    // Метод для перераспределения пользователей из существующего хранилища (файла или каталога шардов)
+    // в новый каталог с заданным числом шардов; возвращает количество пользователей.
+    static int reshard(String source, String targetDirectory, int count) throws IOException {
+        Path target = Paths.get(targetDirectory);
+        if (Files.exists(target.resolve(MANIFEST))) {
+            throw new IOException("Каталог " + target + " уже содержит шарды.");
+        }
+        List<User> users;
+        try (UserStore from = UserStore.open(source)) {
+            users = readAll(from);
+        }
+        ShardedUserStore to = new ShardedUserStore(target, false, ForkJoinPool.commonPool());
+        try {
+            // Описание каталога записывается после данных: прерванное перераспределение не примет вид готового
+            to.shards = to.open(count);
+            Files.createDirectories(target);
+            to.saveAll(users);
+            to.writeManifest(count);
+        } finally {
+            to.close();
+        }
+        return users.size();
+    }
+
+    // Метод для чтения всех пользователей хранилища, включая ленивое.
+    private static List<User> readAll(UserStore store) throws IOException {
+        List<User> users = store.load();
+        if (store.isLazy()) {
+            for (String username : store.usernames()) {
+                users.add(store.lookup(username));
+            }
+        }
+        return users;
+    }
+}
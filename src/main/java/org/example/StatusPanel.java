@@ -0,0 +1,201 @@
+package org.example;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Класс StatusPanel — строка состояния окна, через которую операции сервиса выполняются в фоне.
+// Операция запускается как SwingWorker в отдельном пуле, поэтому поиск, хеширование паролей, запись
+// файла и импорт не занимают поток обработки событий. Индикатор хода и кнопка отмены показываются,
+// только если операция длится дольше PROGRESS_DELAY_MILLIS; результат и ошибки выводятся в строке
+// состояния, а не модальным окном. В окне одновременно выполняется одна операция.
+class StatusPanel extends JPanel {
+    static final int PROGRESS_DELAY_MILLIS = 250; // Задержка появления индикатора (быстрые операции не мерцают)
+
+    private static final AtomicInteger THREADS = new AtomicInteger(); // Счетчик имен потоков
+    // Пул фоновых операций интерфейса: в каждом окне не более одной операции, потоки-демоны
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "ui-worker-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Интерфейс Task — фоновая операция окна.
+    interface Task<T> {
+        T run(TaskProgress progress) throws Exception;
+    }
+
+    private final JLabel messageLabel = new JLabel(" "); // Сообщение о результате
+    private final JProgressBar progressBar = new JProgressBar(0, 100); // Индикатор хода
+    private final JButton cancelButton = new JButton("Отмена"); // Кнопка отмены операции
+    private final Color messageColor = messageLabel.getForeground(); // Цвет обычных сообщений
+    private Component[] busyComponents = new Component[0]; // Элементы, недоступные во время операции
+    private Worker<?> current; // Выполняемая операция (только в потоке интерфейса)
+
+    // Конструктор для создания строки состояния.
+    public StatusPanel() {
+        super(new BorderLayout(5, 0));
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+        controls.add(progressBar);
+        controls.add(cancelButton);
+        add(messageLabel, BorderLayout.CENTER);
+        add(controls, BorderLayout.EAST);
+
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (current != null) {
+                    current.cancel(true);
+                }
+            }
+        });
+    }
+
+    // Метод для задания элементов окна, которые отключаются на время операции.
+    public void setBusyComponents(Component... components) {
+        this.busyComponents = components;
+    }
+
+    public boolean isBusy() {return current != null;}
+
+    // Метод для вывода сообщения.
+    public void showMessage(String message) {
+        messageLabel.setForeground(messageColor);
+        messageLabel.setText(message);
+    }
+
+    // Метод для вывода сообщения об ошибке.
+    public void showError(String message) {
+        messageLabel.setForeground(Color.RED);
+        messageLabel.setText(message);
+    }
+
+    // Метод для вывода результата операции сервиса.
+    public void showResult(AuthResult result) {
+        if (result.isSuccess()) {
+            showMessage(result.getMessage());
+        } else {
+            showError(result.getMessage());
+        }
+    }
+
+    // Метод для запуска операции в фоне; done вызывается в потоке интерфейса с результатом операции.
+    // Возвращает false, если в окне уже выполняется другая операция.
+    public <T> boolean run(String title, Task<T> task, Consumer<T> done) {
+        if (current != null) {
+            showError("Дождитесь завершения операции: " + current.title + ".");
+            return false;
+        }
+        Worker<T> worker = new Worker<>(title, task, done);
+        current = worker;
+        setBusy(true);
+        showMessage(title + "...");
+        progressBar.setIndeterminate(true);
+        worker.timer.start();
+        EXECUTOR.execute(worker);
+        return true;
+    }
+
+    // Метод для переключения элементов окна на время операции.
+    private void setBusy(boolean busy) {
+        for (Component component : busyComponents) {
+            component.setEnabled(!busy);
+        }
+        if (!busy) {
+            progressBar.setVisible(false);
+            cancelButton.setVisible(false);
+        }
+    }
+
+    // Метод для завершения операции в потоке интерфейса: вывод результата, ошибки или отмены.
+    private <T> void finish(Worker<T> worker) {
+        worker.timer.stop();
+        if (current == worker) {
+            current = null;
+            setBusy(false);
+        }
+        if (worker.isCancelled()) {
+            // Запись, уже переданная хранилищу, завершится в фоне; отменяется ожидание и необработанная часть
+            showMessage(worker.title + ": отменено.");
+            return;
+        }
+        T result;
+        try {
+            result = worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof CancellationException) {
+                showMessage(worker.title + ": отменено.");
+            } else {
+                showError(worker.title + ": ошибка — " + (cause.getMessage() == null ? cause.toString() : cause.getMessage()));
+            }
+            return;
+        }
+        if (worker.done != null) {
+            worker.done.accept(result);
+        }
+    }
+
+    // Класс Worker — фоновая операция со своим индикатором хода.
+    private final class Worker<T> extends SwingWorker<T, Void> implements TaskProgress {
+        final String title; // Название операции для строки состояния
+        final Task<T> task; // Операция
+        final Consumer<T> done; // Обработчик результата в потоке интерфейса
+        final Timer timer; // Таймер появления индикатора
+
+        Worker(String title, Task<T> task, Consumer<T> done) {
+            this.title = title;
+            this.task = task;
+            this.done = done;
+            this.timer = new Timer(PROGRESS_DELAY_MILLIS, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    if (current == Worker.this) {
+                        progressBar.setVisible(true);
+                        cancelButton.setVisible(true);
+                        revalidate();
+                    }
+                }
+            });
+            timer.setRepeats(false);
+            addPropertyChangeListener(event -> {
+                if ("progress".equals(event.getPropertyName()) && current == this) {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setValue((Integer) event.getNewValue());
+                }
+            });
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return task.run(this);
+        }
+
+        @Override
+        public void setPercent(int percent) {
+            setProgress(Math.max(0, Math.min(100, percent)));
+        }
+
+        @Override
+        protected void done() {
+            finish(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example;
+
+// Интерфейс TaskProgress связывает длительную операцию (импорт, запись) с индикатором хода:
+// операция сообщает долю выполнения и проверяет, не отменил ли ее пользователь.
+interface TaskProgress {
+    // Пустой индикатор для операций без интерфейса
+    TaskProgress NONE = new TaskProgress() {
+        @Override
+        public void setPercent(int percent) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    // Метод для сообщения доли выполнения в процентах (0–100).
+    void setPercent(int percent);
+
+    // Метод для проверки отмены операции пользователем.
+    boolean isCancelled();
+}
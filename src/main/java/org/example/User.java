@@ -0,0 +1,105 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+
+// Класс User представляет обычного пользователя.
+class User {
+    private final String username; // Имя пользователя
+    private volatile String password; // Хеш пароля (или пароль старого формата в открытом виде)
+    private volatile boolean isBlocked; // Флаг блокировки пользователя
+
+    // Ограничения на пароль: шаблон и, только при отличиях от него, индивидуальные настройки
+    private volatile PolicyTemplate template; // Шаблон политики паролей (общий объект для всех участников)
+    private volatile PolicyOverride override; // Отличия от шаблона (null — настройки шаблона)
+
+    // Конструктор для создания объекта пользователя; password — сохраненная форма пароля.
+    public User(String username, String password) {
+        this.username = username;
+        this.password = password;
+        this.isBlocked = false; // По умолчанию пользователь не заблокирован
+        this.template = PolicyTemplates.getDefault().defaultTemplate(); // Ограничения берутся из шаблона по умолчанию
+    }
+
+    // Метод для проверки имени нового пользователя: непустое, без запятой (разделитель CSV) и не длиннее
+    // поля имени двоичного формата, чтобы запись сохранялась в любом хранилище.
+    static boolean isValidUsername(String username) {
+        return username != null && !username.isEmpty() && !username.contains(",")
+                && username.getBytes(StandardCharsets.UTF_8).length <= BinaryUserStore.MAX_USERNAME_BYTES;
+    }
+
+    // Геттеры и сеттеры для шаблона и индивидуальных отличий
+    public PolicyTemplate getTemplate() {return template;}
+    public void setTemplate(PolicyTemplate template) {this.template = template;}
+    public PolicyOverride getOverride() {return override;}
+    public void setOverride(PolicyOverride override) {this.override = override;}
+
+    // Метод для получения действующей политики: собственной или политики шаблона.
+    public PasswordPolicy getPasswordPolicy() {
+        PolicyOverride current = override;
+        return current != null && current.getPolicy() != null ? current.getPolicy() : template.getPolicy();
+    }
+
+    // Метод для установки собственной политики; политика, совпадающая с шаблоном, отличием не считается.
+    public synchronized void setPasswordPolicy(PasswordPolicy passwordPolicy) {
+        override = PolicyOverride.withPolicy(override, passwordPolicy.equals(template.getPolicy()) ? null : passwordPolicy);
+    }
+
+    // Геттеры и сеттеры для ограничений
+    public int getMinPasswordLength(){return getPasswordPolicy().get(PasswordRule.MIN_LENGTH);}
+    public void setMinPasswordLength(int minPasswordLength){setPasswordPolicy(getPasswordPolicy().with(PasswordRule.MIN_LENGTH, minPasswordLength));}
+    public int getMaxPasswordLength(){return getPasswordPolicy().get(PasswordRule.MAX_LENGTH);}
+    public void setMaxPasswordLength(int maxPasswordLength) {setPasswordPolicy(getPasswordPolicy().with(PasswordRule.MAX_LENGTH, maxPasswordLength));}
+    public int getMinDigit(){return getPasswordPolicy().get(PasswordRule.MIN_DIGITS);}
+    public void setMinDigit(int minDigit) {setPasswordPolicy(getPasswordPolicy().with(PasswordRule.MIN_DIGITS, minDigit));}
+    public int getMinSpecialChars(){return getPasswordPolicy().get(PasswordRule.MIN_SPECIAL);}
+    public void setMinSpecialChars(int minSpecialChars) {setPasswordPolicy(getPasswordPolicy().with(PasswordRule.MIN_SPECIAL, minSpecialChars));}
+
+    // Геттеры и сеттеры для основных полей
+    public String getUsername() {return username;}
+    public String getPassword() {return password;}
+    public synchronized void setPasswordHash(String passwordHash) {this.password = passwordHash;}
+    public boolean isBlocked() {return isBlocked;}
+    public synchronized void setBlocked(boolean blocked) {isBlocked = blocked;}
+
+    // Метод для проверки, включены ли ограничения на пароль: собственный флаг или флаг шаблона.
+    public boolean isPasswordRestrictionsEnabled() {
+        PolicyOverride current = override;
+        return current != null && current.getRestrictionsEnabled() != null ? current.getRestrictionsEnabled() : template.isRestrictionsEnabled();
+    }
+
+    // Метод для установки собственного флага ограничений; флаг, совпадающий с шаблоном, отличием не считается.
+    public synchronized void setPasswordRestrictionsEnabled(boolean passwordRestrictionsEnabled) {
+        override = PolicyOverride.withRestrictions(override, passwordRestrictionsEnabled == template.isRestrictionsEnabled() ? null : passwordRestrictionsEnabled);
+    }
+
+    // Метод для замены хеша, только если сохраненная форма пароля не изменилась с момента чтения expected;
+    // не дает пересчету хеша при входе вернуть пароль, который за это время сменили.
+    public synchronized boolean compareAndSetPassword(String expected, String passwordHash) {
+        if (!password.equals(expected)) {
+            return false;
+        }
+        password = passwordHash;
+        return true;
+    }
+
+    // Метод для синхронной проверки пароля пользователя; в интерфейсе используется AuthenticationSystem.verifyPassword.
+    public boolean login(String enteredPassword) {
+        return PasswordHasher.getDefault().verify(enteredPassword, password);
+    }
+
+    // Метод проверки пароля на соответствие индивидуальным ограничениям
+    public boolean isPasswordValid(String password){
+        return getPasswordPolicy().check(password) == 0;
+    }
+
+    // Метод проверки пароля; возвращает маску нарушенных правил PasswordRule (0 — пароль допустим).
+    public int checkPassword(CharSequence password) {
+        return getPasswordPolicy().check(password);
+    }
+
+    // Переопределенный метод toString для строкового представления пользователя.
+    @Override
+    public String toString() {
+        return "Пользователь: " + username + " | Заблокирован: " + isBlocked + " | Ограничения на пароль: " + isPasswordRestrictionsEnabled() + " | Шаблон: " + template.getId();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+// Класс UserExporter выполняет потоковый экспорт пользователей в CSV или JSON Lines.
+// Формат совпадает с форматом UserImporter, поэтому выгрузку можно импортировать обратно; пароли выгружаются хешами.
+class UserExporter {
+    private final AuthenticationSystem system; // Система аутентификации
+
+    // Конструктор для создания экспортера.
+    public UserExporter(AuthenticationSystem system) {
+        this.system = system;
+    }
+
+    // Метод для записи всех пользователей в поток; возвращает количество выгруженных пользователей.
+    public int export(Writer writer, UserImporter.Format format) throws IOException {
+        if (format == UserImporter.Format.CSV) {
+            writer.write(String.join(",", UserImporter.COLUMNS));
+            writer.write('\n');
+        }
+        int count = 0;
+        for (User user : system.getUsers()) {
+            writer.write(format == UserImporter.Format.JSON ? toJson(user) : toCsv(user));
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    // Метод для записи пользователя строкой CSV в порядке UserImporter.COLUMNS.
+    static String toCsv(User user) {
+        PasswordPolicy policy = user.getPasswordPolicy();
+        StringBuilder line = new StringBuilder();
+        line.append(user.getUsername()).append(',').append(user.getPassword()).append(',').append(user.isBlocked())
+                .append(',').append(user.isPasswordRestrictionsEnabled());
+        // Остальные колонки: правила политики и шаблон template
+        List<String> rules = Arrays.asList(UserImporter.RULE_FIELDS);
+        for (int i = 4; i < UserImporter.COLUMNS.length; i++) {
+            int rule = rules.indexOf(UserImporter.COLUMNS[i]);
+            line.append(',').append(rule < 0 ? user.getTemplate().getId() : String.valueOf(policy.get(PasswordRule.values()[rule])));
+        }
+        return line.toString();
+    }
+
+    // Метод для записи пользователя объектом JSON; выгружаются все правила политики.
+    static String toJson(User user) {
+        PasswordPolicy policy = user.getPasswordPolicy();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"username\":\"").append(AuthHttpServer.escape(user.getUsername()))
+                .append("\",\"password\":\"").append(AuthHttpServer.escape(user.getPassword()))
+                .append("\",\"isBlocked\":").append(user.isBlocked())
+                .append(",\"passwordRestrictionsEnabled\":").append(user.isPasswordRestrictionsEnabled());
+        for (PasswordRule rule : PasswordRule.values()) {
+            json.append(",\"").append(UserImporter.RULE_FIELDS[rule.ordinal()]).append("\":").append(policy.get(rule));
+        }
+        json.append(",\"template\":\"").append(AuthHttpServer.escape(user.getTemplate().getId())).append("\"}");
+        return json.toString();
+    }
+}
@@ -0,0 +1,341 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+// Класс UserImporter выполняет пакетный импорт пользователей из CSV или JSON Lines.
+// Строки читаются потоком, дубликаты отсеиваются по индексу и внутри пакета, пароли и политики
+// проверяются (и хешируются) параллельно на всех ядрах, а результат сохраняется одной записью в хранилище.
+//
+// Колонки CSV (как в выгрузке export, необязательные в конце можно опускать):
+//   username,password,isBlocked,passwordRestrictionsEnabled,minLength,maxLength,minDigits,minSpecialChars,template,
+//   minUpper,minLower,maxRepeat,maxSequence
+// Готовый хеш (pbkdf2$...) переносится без пересчета, если его формат корректен.
+// Не указанные ограничения берутся из шаблона template (по умолчанию — default), указанные
+// и отличающиеся от шаблона сохраняются как индивидуальные настройки пользователя.
+// В JSON Lines используются те же имена полей: {"username":"u1","password":"p@ss12!!","minLength":8}
+class UserImporter {
+    // Формат файла импорта/экспорта.
+    enum Format {
+        CSV, JSON;
+
+        // Метод для определения формата по расширению файла.
+        static Format forFile(String fileName) {
+            return fileName.endsWith(".json") || fileName.endsWith(".jsonl") ? JSON : CSV;
+        }
+    }
+
+    private static final int CHUNK_SIZE = 8192; // Размер порции строк для параллельной проверки
+
+    // Имена колонок в порядке CSV; дополнительные правила добавлены после template, чтобы старые файлы читались как прежде
+    static final String[] COLUMNS = {"username", "password", "isBlocked", "passwordRestrictionsEnabled",
+            "minLength", "maxLength", "minDigits", "minSpecialChars", "template",
+            "minUpper", "minLower", "maxRepeat", "maxSequence"};
+
+    // Имена полей ограничений в порядке PasswordRule
+    static final String[] RULE_FIELDS = {"minLength", "maxLength", "minDigits", "minSpecialChars",
+            "minUpper", "minLower", "maxRepeat", "maxSequence"};
+
+    private final AuthenticationSystem system; // Система аутентификации
+    private final PasswordHasher hasher; // Хешер паролей
+    private final ForkJoinPool pool; // Пул для параллельной проверки строк
+
+    // Конструктор для создания импортера, использующего общий пул ForkJoin.
+    public UserImporter(AuthenticationSystem system) {
+        this(system, PasswordHasher.getDefault(), ForkJoinPool.commonPool());
+    }
+
+    // Конструктор для создания импортера с заданным хешером и пулом.
+    public UserImporter(AuthenticationSystem system, PasswordHasher hasher, ForkJoinPool pool) {
+        this.system = system;
+        this.hasher = hasher;
+        this.pool = pool;
+    }
+
+    // Класс Row — строка входного файла после разбора.
+    private static final class Row {
+        final int line; // Номер строки во входном файле
+        final Map<String, String> fields; // Значения полей
+
+        Row(int line, Map<String, String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    // Класс Outcome — результат проверки строки: пользователь или ошибка.
+    private static final class Outcome {
+        final User user;
+        final ImportReport.Error error;
+
+        Outcome(User user, ImportReport.Error error) {
+            this.user = user;
+            this.error = error;
+        }
+    }
+
+    // Метод для импорта пользователей из потока.
+    public ImportReport importUsers(Reader input, Format format) throws IOException {
+        return importUsers(input, format, TaskProgress.NONE);
+    }
+
+    // Метод для импорта пользователей из потока с возможностью отмены: до сохранения импорт прерывается
+    // исключением CancellationException, и ни один пользователь не добавляется.
+    public ImportReport importUsers(Reader input, Format format, TaskProgress progress) throws IOException {
+        ImportReport report = new ImportReport();
+        List<Row> rows = new ArrayList<>();
+        List<User> accepted = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (progress.isCancelled()) {
+                throw new CancellationException("Импорт отменен.");
+            }
+            if (line.isBlank() || (number == 1 && format == Format.CSV && line.startsWith("username,"))) {
+                continue; // Пустые строки и заголовок CSV пропускаются
+            }
+            report.rowRead();
+            Map<String, String> fields;
+            try {
+                fields = format == Format.JSON ? parseJson(line) : parseCsv(line);
+            } catch (IllegalArgumentException e) {
+                report.reject(number, null, e.getMessage());
+                continue;
+            }
+            String username = fields.get("username");
+            if (!User.isValidUsername(username)) {
+                report.reject(number, username, "Некорректное имя пользователя.");
+            } else if (!seen.add(username)) {
+                report.reject(number, username, "Повтор имени в файле импорта.");
+            } else if (system.findUser(username) != null) {
+                report.reject(number, username, "Пользователь уже существует.");
+            } else {
+                rows.add(new Row(number, fields));
+                if (rows.size() == CHUNK_SIZE) {
+                    validate(rows, accepted, report);
+                }
+            }
+        }
+        validate(rows, accepted, report);
+        if (progress.isCancelled()) {
+            throw new CancellationException("Импорт отменен.");
+        }
+        // Все принятые пользователи сохраняются одной записью; после этого импорт не отменяется
+        List<User> rejected = system.addUsers(accepted);
+        for (User user : rejected) {
+            report.reject(0, user.getUsername(), "Пользователь уже существует.");
+        }
+        report.setImported(accepted.size() - rejected.size());
+        return report;
+    }
+
+    // Метод для параллельной проверки накопленной порции строк; порция после проверки очищается.
+    // Проверка политик и хеширование паролей — самая затратная часть импорта.
+    private void validate(List<Row> rows, List<User> accepted, ImportReport report) throws IOException {
+        List<Outcome> outcomes;
+        try {
+            outcomes = pool.submit(() -> rows.parallelStream().map(this::validate).toList()).join();
+        } catch (RuntimeException e) {
+            throw new IOException("Ошибка проверки строк импорта: " + e.getMessage(), e);
+        }
+        for (Outcome outcome : outcomes) {
+            if (outcome.error != null) {
+                report.reject(outcome.error);
+            } else {
+                accepted.add(outcome.user);
+            }
+        }
+        rows.clear();
+    }
+
+    // Метод для проверки строки и создания пользователя.
+    private Outcome validate(Row row) {
+        Map<String, String> fields = row.fields;
+        String username = fields.get("username");
+        try {
+            String templateId = fields.get("template");
+            PolicyTemplate template = templateId == null || templateId.isEmpty()
+                    ? PolicyTemplates.getDefault().defaultTemplate() : system.findTemplate(templateId);
+            if (template == null) {
+                return new Outcome(null, new ImportReport.Error(row.line, username, "Шаблон политики не найден."));
+            }
+            PasswordPolicy policy = template.getPolicy();
+            for (PasswordRule rule : PasswordRule.values()) {
+                String name = RULE_FIELDS[rule.ordinal()];
+                if (fields.containsKey(name)) {
+                    policy = policy.with(rule, number(fields, name));
+                }
+            }
+            if (policy.enabled(PasswordRule.MAX_LENGTH) && policy.get(PasswordRule.MAX_LENGTH) < policy.get(PasswordRule.MIN_LENGTH)) {
+                return new Outcome(null, new ImportReport.Error(row.line, username, "Некорректные значения ограничений."));
+            }
+            String restrictionsField = fields.get("passwordRestrictionsEnabled");
+            boolean restrictions = restrictionsField == null || restrictionsField.isEmpty()
+                    ? template.isRestrictionsEnabled() : !"false".equalsIgnoreCase(restrictionsField);
+            String password = fields.getOrDefault("password", "");
+            String stored;
+            if (password.startsWith(PasswordHasher.PREFIX)) {
+                if (!PasswordHasher.isWellFormed(password)) {
+                    return new Outcome(null, new ImportReport.Error(row.line, username, "Некорректный формат хеша пароля."));
+                }
+                stored = password; // Готовый хеш переносится как есть
+            } else {
+                // Пустой пароль задается при первом входе и ограничениями не проверяется, но тоже хранится хешем
+                int violations = restrictions && !password.isEmpty() ? policy.check(password) : 0;
+                if (violations != 0) {
+                    return new Outcome(null, new ImportReport.Error(row.line, username,
+                            "Пароль не соответствует ограничениям: " + policy.describe(violations) + "."));
+                }
+                stored = hasher.hash(password);
+            }
+            User user = new User(username, stored);
+            user.setTemplate(template);
+            user.setBlocked(Boolean.parseBoolean(fields.get("isBlocked")));
+            user.setPasswordRestrictionsEnabled(restrictions);
+            user.setPasswordPolicy(policy);
+            return new Outcome(user, null);
+        } catch (NumberFormatException e) {
+            return new Outcome(null, new ImportReport.Error(row.line, username, "Некорректное числовое значение."));
+        }
+    }
+
+    // Метод для чтения числового поля.
+    private static int number(Map<String, String> fields, String name) {
+        int value = Integer.parseInt(fields.get(name).trim());
+        if (value < 0) {
+            throw new NumberFormatException(name);
+        }
+        return value;
+    }
+
+    // Метод для разбора строки CSV в поля по порядку COLUMNS.
+    static Map<String, String> parseCsv(String line) {
+        String[] parts = line.split(",", -1);
+        if (parts.length > COLUMNS.length) {
+            throw new IllegalArgumentException("Слишком много колонок: " + parts.length + ".");
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < parts.length; i++) {
+            if (i == 0 || !parts[i].isEmpty()) {
+                fields.put(COLUMNS[i], parts[i].trim());
+            }
+        }
+        if (parts.length > 1) {
+            fields.put("password", parts[1]); // Пароль не обрезается: пробелы допустимы
+        }
+        return fields;
+    }
+
+    // Метод для разбора плоского объекта JSON: строки, числа и логические значения.
+    static Map<String, String> parseJson(String line) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] position = {skipSpaces(line, 0)};
+        expect(line, position, '{');
+        if (peek(line, position) == '}') {
+            return fields;
+        }
+        while (true) {
+            String key = readString(line, position);
+            expect(line, position, ':');
+            String value = peek(line, position) == '"' ? readString(line, position) : readLiteral(line, position);
+            if (value != null) {
+                fields.put(key, value);
+            }
+            char next = peek(line, position);
+            position[0]++;
+            if (next == '}') {
+                return fields;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("Некорректный JSON в позиции " + position[0] + ".");
+            }
+        }
+    }
+
+    // Метод для пропуска пробелов.
+    private static int skipSpaces(String line, int i) {
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // Метод для получения следующего значимого символа.
+    private static char peek(String line, int[] position) {
+        position[0] = skipSpaces(line, position[0]);
+        if (position[0] >= line.length()) {
+            throw new IllegalArgumentException("Неожиданный конец строки JSON.");
+        }
+        return line.charAt(position[0]);
+    }
+
+    // Метод для проверки ожидаемого символа.
+    private static void expect(String line, int[] position, char expected) {
+        if (peek(line, position) != expected) {
+            throw new IllegalArgumentException("Ожидался символ '" + expected + "' в позиции " + position[0] + ".");
+        }
+        position[0]++;
+    }
+
+    // Метод для чтения строки JSON с экранированием.
+    private static String readString(String line, int[] position) {
+        expect(line, position, '"');
+        StringBuilder value = new StringBuilder();
+        int i = position[0];
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c == '"') {
+                position[0] = i;
+                return value.toString();
+            }
+            if (c == '\\' && i < line.length()) {
+                char escaped = line.charAt(i++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 't': value.append('\t'); break;
+                    case 'r': value.append('\r'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (i + 4 > line.length()) {
+                            throw new IllegalArgumentException("Некорректная escape-последовательность.");
+                        }
+                        value.append((char) Integer.parseInt(line.substring(i, i + 4), 16));
+                        i += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Незакрытая строка JSON.");
+    }
+
+    // Метод для чтения числа, true/false или null; null возвращается как отсутствующее значение.
+    private static String readLiteral(String line, int[] position) {
+        int start = skipSpaces(line, position[0]);
+        int end = start;
+        while (end < line.length() && ",}".indexOf(line.charAt(end)) < 0 && !Character.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        if (end == start) {
+            throw new IllegalArgumentException("Ожидалось значение в позиции " + start + ".");
+        }
+        position[0] = end;
+        String literal = line.substring(start, end);
+        return literal.equals("null") ? null : literal;
+    }
+}
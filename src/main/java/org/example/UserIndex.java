@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Класс UserIndex хранит пользователей в хеш-индексе по имени и сохраняет порядок добавления.
+// Порядок хранится в массиве, который только дописывается (copy-on-write при росте), и публикуется
+// неизменяемым снимком UserSnapshot: читатели получают его без блокировок и копирования.
+class UserIndex {
+    private final ConcurrentHashMap<String, User> byName; // Индекс: ключ имени -> пользователь
+    private final Object appendLock = new Object(); // Блокировка дописывания в массив порядка
+    private User[] ordered; // Пользователи в порядке добавления (заполнены первые snapshot.size() элементов)
+    private volatile UserSnapshot snapshot; // Последний опубликованный снимок
+    private final boolean caseInsensitive; // Флаг нормализации регистра ключей
+
+    // Конструктор для создания индекса с учетом регистра имен.
+    public UserIndex() {
+        this(false);
+    }
+
+    // Конструктор для создания индекса; при caseInsensitive ключи приводятся к нижнему регистру.
+    public UserIndex(boolean caseInsensitive) {
+        this.byName = new ConcurrentHashMap<>();
+        this.ordered = new User[16];
+        this.snapshot = new UserSnapshot(ordered, 0, 0);
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    // Метод для получения ключа индекса по имени пользователя.
+    private String key(String username) {
+        return caseInsensitive ? username.toLowerCase(Locale.ROOT) : username;
+    }
+
+    // Метод для поиска пользователя по имени за O(1).
+    public User get(String username) {
+        if (username == null) {
+            return null;
+        }
+        return byName.get(key(username));
+    }
+
+    // Метод для атомарного добавления пользователя; возвращает false, если имя уже занято.
+    public boolean add(User user) {
+        return add(user, 1);
+    }
+
+    // Метод для добавления пользователя, прочитанного из ленивого хранилища при обращении: набор
+    // пользователей не меняется, поэтому версия снимка остается прежней.
+    public boolean addLoaded(User user) {
+        return add(user, 0);
+    }
+
+    // Метод для добавления пользователя с увеличением версии снимка на step.
+    private boolean add(User user, int step) {
+        if (byName.putIfAbsent(key(user.getUsername()), user) != null) {
+            return false;
+        }
+        synchronized (appendLock) {
+            int size = snapshot.size();
+            if (size == ordered.length) {
+                // Старый массив остается у выданных снимков, новый получает копию
+                ordered = Arrays.copyOf(ordered, size * 2);
+            }
+            ordered[size] = user;
+            snapshot = new UserSnapshot(ordered, size + 1, snapshot.getVersion() + step);
+        }
+        return true;
+    }
+
+    // Метод для отметки изменения пользователей: увеличивает версию снимка.
+    public void touch() {
+        synchronized (appendLock) {
+            snapshot = new UserSnapshot(ordered, snapshot.size(), snapshot.getVersion() + 1);
+        }
+    }
+
+    // Метод для получения текущего снимка пользователей за O(1).
+    public UserSnapshot snapshot() {
+        return snapshot;
+    }
+
+    // Метод для получения количества пользователей.
+    public int size() {
+        return byName.size();
+    }
+
+    // Метод для получения неизменяемого списка пользователей в порядке добавления (без копирования).
+    public List<User> values() {
+        return snapshot.asList();
+    }
+}
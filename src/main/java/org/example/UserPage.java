@@ -0,0 +1,25 @@
+package org.example;
+
+import java.util.List;
+
+// Класс UserPage — страница списка пользователей вместе с общим числом подходящих записей и версией снимка.
+final class UserPage {
+    private final List<User> users; // Пользователи страницы
+    private final int offset;       // Смещение первой записи страницы
+    private final int total;        // Общее число пользователей, подходящих под запрос
+    private final long version;     // Версия снимка, по которому построена страница
+
+    // Конструктор для создания страницы.
+    UserPage(List<User> users, int offset, int total, long version) {
+        this.users = users;
+        this.offset = offset;
+        this.total = total;
+        this.version = version;
+    }
+
+    public List<User> getUsers() {return users;}
+    public int getOffset() {return offset;}
+    public int getTotal() {return total;}
+    public long getVersion() {return version;}
+    public boolean hasNext() {return offset + users.size() < total;}
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+// Класс UserQuery — фильтр списка пользователей по статусу блокировки, роли и началу имени.
+// Неуказанные условия (null, Role.ANY, пустой префикс) не ограничивают выборку.
+final class UserQuery {
+    // Роль пользователя в фильтре.
+    enum Role {
+        ANY, ADMIN, USER
+    }
+
+    static final UserQuery ALL = new UserQuery(null, Role.ANY, ""); // Запрос без условий
+
+    private final Boolean blocked; // Статус блокировки (null — любой)
+    private final Role role;       // Роль
+    private final String prefix;   // Начало имени без учета регистра
+
+    // Конструктор для создания запроса.
+    public UserQuery(Boolean blocked, Role role, String prefix) {
+        this.blocked = blocked;
+        this.role = role == null ? Role.ANY : role;
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    public Boolean getBlocked() {return blocked;}
+    public Role getRole() {return role;}
+    public String getPrefix() {return prefix;}
+
+    // Метод для проверки отсутствия условий.
+    public boolean isEmpty() {
+        return blocked == null && role == Role.ANY && prefix.isEmpty();
+    }
+
+    // Метод для проверки, задано ли только условие на имя (пользователя для проверки не нужно загружать).
+    public boolean isNameOnly() {
+        return blocked == null && role == Role.ANY;
+    }
+
+    // Метод для проверки имени пользователя по началу имени без учета регистра.
+    public boolean matchesName(String username) {
+        return prefix.isEmpty() || username.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    // Метод для проверки пользователя по всем условиям.
+    public boolean matches(User user) {
+        if (blocked != null && user.isBlocked() != blocked) {
+            return false;
+        }
+        if (role != Role.ANY && (user instanceof Admin) != (role == Role.ADMIN)) {
+            return false;
+        }
+        return matchesName(user.getUsername());
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+// Класс UserSearchPanel — поле выбора пользователя с поиском при вводе.
+// При каждом изменении текста запрашивается не больше LIMIT подсказок из префиксного индекса имен,
+// поэтому диалог одинаково быстро открывается и для десятка, и для сотен тысяч пользователей.
+class UserSearchPanel extends JPanel {
+    private static final int LIMIT = 20; // Число подсказок в списке
+
+    private final AuthService authService; // Сервис аутентификации
+    private final JTextField queryField = new JTextField(20); // Поле ввода имени
+    private final DefaultListModel<String> suggestions = new DefaultListModel<>(); // Подсказки
+    private final JList<String> suggestionList = new JList<>(suggestions); // Список подсказок
+
+    // Конструктор для создания панели с подписью message.
+    public UserSearchPanel(AuthService authService, String message) {
+        super(new BorderLayout(5, 5));
+        this.authService = authService;
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setVisibleRowCount(8);
+
+        JPanel top = new JPanel(new BorderLayout(5, 5));
+        top.add(new JLabel(message), BorderLayout.NORTH);
+        top.add(queryField, BorderLayout.CENTER);
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(suggestionList), BorderLayout.CENTER);
+
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                refresh();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                refresh();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                refresh();
+            }
+        });
+        // Двойной щелчок переносит подсказку в поле ввода
+        suggestionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && suggestionList.getSelectedValue() != null) {
+                    queryField.setText(suggestionList.getSelectedValue());
+                }
+            }
+        });
+        refresh();
+    }
+
+    // Метод для обновления списка подсказок по тексту поля ввода.
+    private void refresh() {
+        suggestions.clear();
+        for (String name : authService.suggestUsernames(queryField.getText(), LIMIT)) {
+            suggestions.addElement(name);
+        }
+    }
+
+    // Метод для получения выбранного имени: выделенная подсказка или введенный текст.
+    // Подсказка не выделяется автоматически, чтобы похожее имя не подменило введенное.
+    public String getSelectedUsername() {
+        String selected = suggestionList.getSelectedValue();
+        return selected != null ? selected : queryField.getText().trim();
+    }
+
+    // Метод для показа диалога выбора пользователя; возвращает null при отмене или пустом выборе.
+    public static String choose(AuthService authService, String message, String title) {
+        UserSearchPanel panel = new UserSearchPanel(authService, message);
+        int result = JOptionPane.showConfirmDialog(null, panel, title, JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return null;
+        }
+        String username = panel.getSelectedUsername();
+        return username.isEmpty() ? null : username;
+    }
+}
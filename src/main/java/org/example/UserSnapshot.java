@@ -0,0 +1,130 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+// Класс UserSnapshot — неизменяемый снимок множества пользователей в порядке добавления с номером версии.
+// Пользователи только добавляются, поэтому снимок разделяет массив с индексом и видит первые size элементов,
+// которые после публикации уже не меняются: получение снимка ничего не копирует.
+// Версия увеличивается при каждом добавлении и сохранении изменений, по ней читатели узнают об устаревании.
+// Для ленивого хранилища снимок строится по именам из индекса файла (lazy): пользователь декодируется
+// при первом обращении к его позиции, поэтому страница таблицы или фильтр по имени не читают весь файл.
+final class UserSnapshot {
+    private final User[] users; // Общий массив пользователей (используются первые size элементов); в ленивом снимке — кэш
+    private final int size;     // Число пользователей в снимке
+    private final long version; // Номер версии
+    private final String[] names; // Имена по позициям (только в ленивом снимке, иначе null)
+    private final Function<String, User> resolver; // Загрузка пользователя по имени (только в ленивом снимке)
+
+    // Конструктор для создания снимка над массивом.
+    UserSnapshot(User[] users, int size, long version) {
+        this(users, size, version, null, null);
+    }
+
+    // Конструктор для создания снимка с именами и загрузчиком пользователей.
+    private UserSnapshot(User[] users, int size, long version, String[] names, Function<String, User> resolver) {
+        this.users = users;
+        this.size = size;
+        this.version = version;
+        this.names = names;
+        this.resolver = resolver;
+    }
+
+    // Метод для создания снимка из готового списка (например, для ленивого хранилища).
+    static UserSnapshot of(List<User> users, long version) {
+        return new UserSnapshot(users.toArray(new User[0]), users.size(), version);
+    }
+
+    // Метод для создания ленивого снимка по именам; resolver должен возвращать один и тот же объект
+    // для имени (как AuthenticationSystem.findUser), поэтому одновременная загрузка позиции безопасна.
+    static UserSnapshot lazy(List<String> names, Function<String, User> resolver, long version) {
+        return new UserSnapshot(new User[names.size()], names.size(), version, names.toArray(new String[0]), resolver);
+    }
+
+    public int size() {return size;}
+    public long getVersion() {return version;}
+
+    // Метод для получения пользователя по позиции в порядке добавления.
+    public User get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Позиция " + position + ", размер " + size);
+        }
+        User user = users[position];
+        if (user == null && resolver != null) {
+            user = resolver.apply(names[position]);
+            users[position] = user;
+        }
+        return user;
+    }
+
+    // Метод для проверки позиции по запросу; в ленивом снимке фильтр по имени не загружает пользователя.
+    private boolean matches(UserQuery query, int position) {
+        if (names != null && query.isNameOnly()) {
+            return query.matchesName(names[position]);
+        }
+        User user = get(position);
+        return user != null && query.matches(user);
+    }
+
+    // Метод для получения снимка как неизменяемого списка без копирования.
+    public List<User> asList() {
+        return new Users();
+    }
+
+    // Метод для получения позиций пользователей, подходящих под запрос; объекты строк не создаются.
+    public int[] positions(UserQuery query) {
+        if (query.isEmpty()) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] matches = new int[Math.min(size, 1024)];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (matches(query, i)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.min(size, count * 2));
+                }
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // Метод для получения страницы пользователей, подходящих под запрос.
+    public UserPage page(UserQuery query, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Смещение и размер страницы не могут быть отрицательными.");
+        }
+        List<User> page = new ArrayList<>(Math.min(limit, 256));
+        int matched = 0;
+        for (int i = 0; i < size; i++) {
+            if (matches(query, i)) {
+                if (matched >= offset && page.size() < limit) {
+                    page.add(get(i));
+                }
+                matched++;
+            }
+        }
+        return new UserPage(page, offset, matched, version);
+    }
+
+    // Класс Users — представление снимка в виде списка только для чтения.
+    private final class Users extends AbstractList<User> implements RandomAccess {
+        @Override
+        public User get(int index) {
+            return UserSnapshot.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
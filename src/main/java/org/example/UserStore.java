@@ -0,0 +1,91 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Интерфейс UserStore описывает способ хранения пользователей на диске.
+interface UserStore extends Closeable {
+    // Метод для загрузки всех пользователей из хранилища.
+    List<User> load() throws IOException;
+
+    // Метод для полной записи всех пользователей в хранилище.
+    void saveAll(List<User> users) throws IOException;
+
+    // Метод для сохранения изменения одного пользователя; по умолчанию переписывает все хранилище.
+    default void saveUser(User user, Supplier<List<User>> allUsers) throws IOException {
+        saveAll(allUsers.get());
+    }
+
+    // Метод для асинхронной полной записи; future завершается, когда данные записаны на диск.
+    default CompletableFuture<Void> saveAllAsync(Supplier<List<User>> allUsers) {
+        try {
+            saveAll(allUsers.get());
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Метод для асинхронного сохранения изменения одного пользователя; future завершается после записи на диск.
+    default CompletableFuture<Void> saveUserAsync(User user, Supplier<List<User>> allUsers) {
+        try {
+            saveUser(user, allUsers);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Признак ленивого хранилища: load возвращает пустой список, а пользователи читаются через lookup.
+    default boolean isLazy() {
+        return false;
+    }
+
+    // Метод для получения количества пользователей в ленивом хранилище.
+    default int lazySize() {
+        return 0;
+    }
+
+    // Метод для чтения одного пользователя из ленивого хранилища.
+    default User lookup(String username) throws IOException {
+        return null;
+    }
+
+    // Метод для получения имен пользователей ленивого хранилища в порядке добавления.
+    default List<String> usernames() throws IOException {
+        return new ArrayList<>();
+    }
+
+    // Метод для освобождения ресурсов хранилища.
+    @Override
+    default void close() throws IOException {
+    }
+
+    // Метод для открытия хранилища; файлы *.bin открываются в двоичном формате, каталог —
+    // как набор шардов, для остальных режим выбирается системным свойством auth.storage (csv, journal, sharded).
+    // Существующий файл в режиме sharded не открывается: иначе система начала бы с пустого списка.
+    static UserStore open(String dataFile) {
+        String mode = System.getProperty("auth.storage", "csv");
+        if (mode.equals("sharded") && Files.isRegularFile(Paths.get(dataFile))) {
+            throw new IllegalStateException("Файл " + dataFile + " не является каталогом шардов. Перенесите пользователей командой "
+                    + "reshard " + dataFile + " <каталог> и укажите -Dauth.dataFile=<каталог>.");
+        }
+        if (mode.equals("sharded") || Files.isDirectory(Paths.get(dataFile))) {
+            // Шарды хранятся в CSV или, при -Dauth.shard.storage=journal, с журналом
+            return new ShardedUserStore(dataFile, System.getProperty("auth.shard.storage", "csv").equals("journal"));
+        }
+        if (dataFile.endsWith(".bin") || mode.equals("binary")) {
+            return new BinaryUserStore(dataFile);
+        }
+        if (mode.equals("journal")) {
+            return new JournaledUserStore(dataFile, Long.getLong("auth.journal.compactBytes", 1L << 20));
+        }
+        return new CsvUserStore(dataFile);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Класс UserTableModel — модель JTable над снимком пользователей.
+// При смене фильтра вычисляется только массив позиций подходящих пользователей; значения ячеек
+// формируются в getValueAt, который JTable вызывает лишь для видимых строк. Позиции вычисляются
+// в фоне (фильтр не по имени в ленивом снимке декодирует записи), а в потоке интерфейса публикуются
+// только готовые позиции. Одновременно выполняется одно вычисление: изменения, сделанные за это время
+// (например, ввод нескольких символов), объединяются в одно следующее вычисление.
+class UserTableModel extends AbstractTableModel {
+    private static final Logger LOG = Logger.getLogger(UserTableModel.class.getName());
+    private static final String[] COLUMNS = {"Имя пользователя", "Роль", "Заблокирован", "Ограничения", "Шаблон", "Политика пароля"};
+
+    private UserSnapshot snapshot; // Опубликованный снимок пользователей
+    private UserQuery query = UserQuery.ALL; // Опубликованный фильтр
+    private int[] positions; // Позиции подходящих пользователей в опубликованном снимке
+    private UserSnapshot requestedSnapshot; // Снимок, для которого запрошено вычисление
+    private UserQuery requestedQuery = UserQuery.ALL; // Фильтр, для которого запрошено вычисление
+    private boolean filtering; // Признак выполняющегося вычисления позиций (только в потоке интерфейса)
+
+    // Конструктор для создания модели над снимком; без фильтра позиции не требуют чтения записей.
+    public UserTableModel(UserSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.requestedSnapshot = snapshot;
+        this.positions = snapshot.positions(query);
+    }
+
+    // Метод для смены фильтра; таблица обновится, когда позиции будут вычислены.
+    public void setQuery(UserQuery query) {
+        this.requestedQuery = query;
+        filter();
+    }
+
+    // Метод для замены снимка более новым с сохранением фильтра.
+    public void setSnapshot(UserSnapshot snapshot) {
+        this.requestedSnapshot = snapshot;
+        filter();
+    }
+
+    public boolean isFiltering() {return filtering;}
+
+    // Метод для запуска вычисления позиций по последнему запросу, если оно не выполняется и запрос изменился.
+    private void filter() {
+        UserSnapshot target = requestedSnapshot;
+        UserQuery targetQuery = requestedQuery;
+        if (filtering || (target == snapshot && targetQuery == query)) {
+            return;
+        }
+        filtering = true;
+        new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return target.positions(targetQuery);
+            }
+
+            @Override
+            protected void done() {
+                filtering = false;
+                try {
+                    positions = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    LOG.log(Level.WARNING, "Ошибка фильтрации пользователей", e);
+                    positions = new int[0];
+                }
+                snapshot = target;
+                query = targetQuery;
+                fireTableDataChanged();
+                filter(); // Запросы, поступившие во время вычисления
+            }
+        }.execute();
+    }
+
+    public UserSnapshot getSnapshot() {return snapshot;}
+
+    // Метод для получения пользователя строки таблицы.
+    public User getUser(int row) {
+        return snapshot.get(positions[row]);
+    }
+
+    @Override
+    public int getRowCount() {
+        return positions.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 2 || column == 3 ? Boolean.class : String.class;
+    }
+
+    // Метод для получения значения ячейки; состояние пользователя читается в момент отрисовки.
+    @Override
+    public Object getValueAt(int row, int column) {
+        User user = getUser(row);
+        switch (column) {
+            case 0: return user.getUsername();
+            case 1: return user instanceof Admin ? "Администратор" : "Пользователь";
+            case 2: return user.isBlocked();
+            case 3: return user.isPasswordRestrictionsEnabled();
+            case 4: return user.getTemplate().getId() + (user.getOverride() != null ? " (свои настройки)" : "");
+            default: return user.getPasswordPolicy().toString();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditReaderTest {
+    @TempDir
+    Path directory;
+
+    // Метод для записи count событий входа пользователей user0, user1, ...; каждое открытие начинает новый файл.
+    private void write(int count) {
+        AuditLog log = AuditLog.open(directory);
+        assertTrue(log.isEnabled());
+        for (int i = 0; i < count; i++) {
+            log.record(AuditLog.Type.LOGIN, null, "user" + i, "local", "OK", null);
+        }
+        log.release();
+    }
+
+    // Метод для замены строки number (с 1) файла на результат replacement; null удаляет строку.
+    private void edit(Path file, int number, String replacement) throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(file, StandardCharsets.UTF_8));
+        if (replacement == null) {
+            lines.remove(number - 1);
+        } else {
+            lines.set(number - 1, replacement);
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void chainSpansFiles() throws IOException {
+        write(5);
+        write(3);
+        AuditReader.Result result = AuditReader.verify(directory);
+        assertTrue(result.isValid(), result.toString());
+        assertEquals(2, result.files);
+        assertEquals(10, result.records); // События и по записи FILE_START в каждом файле
+        assertEquals(result.records, result.lastSequence - result.firstSequence + 1);
+        assertEquals(AuditLog.GENESIS, result.anchor);
+        assertNotEquals(AuditLog.GENESIS, result.head);
+
+        AuditReader.Filter filter = new AuditReader.Filter();
+        filter.parse("subject=user2");
+        List<String> found = new ArrayList<>();
+        assertEquals(2, AuditReader.read(directory, filter, found::add));
+        assertTrue(found.get(0).contains("\tuser2\t"), found.get(0));
+    }
+
+    @Test
+    void modifiedRecordIsDetected() throws IOException {
+        write(5);
+        Path file = AuditReader.files(directory).get(0);
+        String line = Files.readAllLines(file, StandardCharsets.UTF_8).get(2);
+        assertTrue(line.contains("\tuser1\t"), line);
+        edit(file, 3, line.replace("\tuser1\t", "\tadmin\t"));
+
+        AuditReader.Result result = AuditReader.verify(directory);
+        assertFalse(result.isValid());
+        assertTrue(result.error.contains("строка 3") && result.error.contains("хеш не совпадает"), result.error);
+    }
+
+    @Test
+    void removedRecordIsDetected() throws IOException {
+        write(5);
+        edit(AuditReader.files(directory).get(0), 3, null);
+        AuditReader.Result result = AuditReader.verify(directory);
+        assertFalse(result.isValid());
+        assertTrue(result.error.contains("пропуск номеров"), result.error);
+    }
+
+    @Test
+    void removedFileIsDetected() throws IOException {
+        write(2);
+        write(2);
+        write(2);
+        Files.delete(AuditReader.files(directory).get(1));
+        AuditReader.Result result = AuditReader.verify(directory);
+        assertFalse(result.isValid());
+        assertTrue(result.error.contains("не продолжает цепочку"), result.error);
+
+        // Удаление ранних файлов допустимо: цепочка проверяется от объявленного хеша
+        Files.delete(AuditReader.files(directory).get(0));
+        result = AuditReader.verify(directory);
+        assertTrue(result.isValid(), result.toString());
+        assertNotEquals(AuditLog.GENESIS, result.anchor);
+    }
+
+    @Test
+    void truncatedTailIsWarning() throws IOException {
+        write(3);
+        Path file = AuditReader.files(directory).get(0);
+        Files.writeString(file, "5\t2026-01-01T00:00:00.000Z\tLOGIN", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        AuditReader.Result result = AuditReader.verify(directory);
+        assertTrue(result.isValid(), result.toString());
+        assertEquals(4, result.records);
+        assertEquals(1, result.warnings.size());
+
+        // Новый файл продолжает цепочку от последней полной записи
+        write(1);
+        result = AuditReader.verify(directory);
+        assertTrue(result.isValid(), result.toString());
+        assertEquals(6, result.records);
+    }
+}
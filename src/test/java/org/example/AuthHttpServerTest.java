@@ -0,0 +1,133 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthHttpServerTest {
+    @TempDir
+    Path directory;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private AuthHttpServer server;
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private DefaultAuthService service() throws IOException {
+        return new DefaultAuthService(system());
+    }
+
+    // Метод для создания системы над файлом с администратором (пароль Adm1n#$pass) и пользователем alice.
+    private AuthenticationSystem system() throws IOException {
+        Path file = directory.resolve("users.txt");
+        Files.writeString(file, "admin," + PasswordHasher.getDefault().hash("Adm1n#$pass") + ",false,,admin\n"
+                + "alice," + PasswordHasher.getDefault().hash("") + ",false,,default\n", StandardCharsets.UTF_8);
+        return new AuthenticationSystem(file.toString());
+    }
+
+    // Метод для запуска сервера на свободном порту локального интерфейса.
+    private void start(AuthService service) throws IOException {
+        server = new AuthHttpServer(service, 0);
+        server.start();
+    }
+
+    // Метод для отправки POST-запроса; возвращает код ответа и тело.
+    private HttpResponse<String> post(String pathAndQuery, String body) throws IOException, InterruptedException {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + pathAndQuery);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void bindsToLoopbackByDefault() throws IOException {
+        start(service());
+        assertTrue(server.getAddress().getAddress().isLoopbackAddress());
+    }
+
+    @Test
+    void rejectsPasswordInQueryString() throws Exception {
+        start(service());
+        HttpResponse<String> response = post("/login?username=admin&password=Adm1n%23%24pass", "");
+        assertEquals(400, response.statusCode());
+        assertFalse(response.body().contains("token"));
+        assertEquals(400, post("/block?adminPassword=Adm1n%23%24pass", "admin=admin&username=alice").statusCode());
+
+        HttpResponse<String> body = post("/login", "username=admin&password=Adm1n%23%24pass");
+        assertEquals(200, body.statusCode(), body.body());
+        assertTrue(body.body().contains("\"token\""));
+    }
+
+    @Test
+    void adminPasswordDoesNotCreateSession() throws Exception {
+        DefaultAuthService service = service();
+        start(service);
+        HttpResponse<String> response = post("/block", "admin=admin&adminPassword=Adm1n%23%24pass&username=alice");
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(service.findUser("alice").isBlocked());
+        assertEquals(0, service.getSessionManager().size());
+        assertEquals(401, post("/block", "admin=admin&adminPassword=wrong&username=admin").statusCode());
+        assertEquals(0, service.getSessionManager().size());
+    }
+
+    @Test
+    void adminCredentialChecksAreAudited() throws Exception {
+        AuthenticationSystem system = system();
+        start(new DefaultAuthService(system));
+        assertEquals(401, post("/block", "admin=admin&adminPassword=wrong&username=alice").statusCode());
+        assertEquals(401, post("/policy", "admin=admin&adminPassword=wrong2&username=alice&enabled=false").statusCode());
+        assertEquals(200, post("/block", "admin=admin&adminPassword=Adm1n%23%24pass&username=alice").statusCode());
+        system.getAudit().flush();
+
+        AuditReader.Filter filter = new AuditReader.Filter();
+        filter.parse("type=CREDENTIALS");
+        List<String> records = new ArrayList<>();
+        AuditReader.read(system.getAudit().getDirectory(), filter, records::add);
+        assertEquals(3, records.size(), records.toString());
+        assertTrue(records.get(0).contains("\tWRONG_PASSWORD"), records.get(0));
+        assertTrue(records.get(2).contains("\tOK"), records.get(2));
+        assertTrue(records.get(0).contains("\t127.0.0.1\t"), records.get(0));
+    }
+
+    @Test
+    void malformedEncodingIsBadRequest() throws Exception {
+        start(service());
+        HttpResponse<String> body = post("/login", "username=admin&password=%zz");
+        assertEquals(400, body.statusCode(), body.body());
+        assertTrue(body.body().contains("INVALID_INPUT"), body.body());
+        assertEquals(400, post("/register", "username=%E").statusCode());
+    }
+
+    @Test
+    void unexpectedErrorIsInternalError() throws Exception {
+        start(new DefaultAuthService(system()) {
+            @Override
+            public AuthResult register(String username) {
+                throw new IllegalStateException("сбой");
+            }
+        });
+        HttpResponse<String> response = post("/register", "username=bob");
+        assertEquals(500, response.statusCode());
+        assertTrue(response.body().contains("INTERNAL_ERROR"), response.body());
+    }
+}
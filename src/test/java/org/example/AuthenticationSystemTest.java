@@ -0,0 +1,91 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthenticationSystemTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void plaintextPasswordsAreHashedOnLoad() throws IOException {
+        Path file = directory.resolve("users.txt");
+        Files.writeString(file, "admin,,false,true\nalice,secret,false,true\n", StandardCharsets.UTF_8);
+        AuthenticationSystem system = new AuthenticationSystem(file.toString());
+        assertEquals(2, system.getPlaintextMigration().join()); // Перенос идет в фоне после запуска
+
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        assertFalse(content.contains(",secret,"), content);
+        assertFalse(content.contains("admin,,"), content);
+        assertTrue(system.verifyPassword(system.findUser("alice"), "secret").join());
+        assertTrue(system.verifyPassword(system.findUser("admin"), "").join());
+    }
+
+    @Test
+    void uniformLegacyFlagFollowsGlobalToggle() throws IOException {
+        // Файл старого формата после «отключить для всех»: флаг false у каждого пользователя
+        Path file = directory.resolve("users.txt");
+        String hash = PasswordHasher.getDefault().hash("");
+        Files.writeString(file, "admin," + hash + ",false,false\nalice," + hash + ",false,false\n", StandardCharsets.UTF_8);
+        AuthenticationSystem system = new AuthenticationSystem(file.toString());
+        try {
+            User alice = system.findUser("alice");
+            assertFalse(alice.isPasswordRestrictionsEnabled());
+            assertNull(alice.getOverride()); // Флаг перенесен в шаблон, а не в каждого пользователя
+            assertTrue(Files.exists(directory.resolve("policies.txt")));
+
+            system.togglePasswordRestrictions(true);
+            assertTrue(alice.isPasswordRestrictionsEnabled());
+            assertTrue(system.findUser("admin").isPasswordRestrictionsEnabled());
+            assertTrue(CsvUserStore.parse(CsvUserStore.format(alice)).isPasswordRestrictionsEnabled());
+        } finally {
+            system.togglePasswordRestrictions(true); // Шаблоны общие для процесса
+            system.close();
+        }
+    }
+
+    @Test
+    void newUsersAndFirstAdminGetHashedEmptyPassword() throws IOException {
+        Path file = directory.resolve("users.txt");
+        AuthenticationSystem system = new AuthenticationSystem(file.toString());
+        assertTrue(system.addUser("bob"));
+        assertFalse(system.addUser("bob"));
+        for (String name : new String[]{"admin", "bob"}) {
+            String stored = system.findUser(name).getPassword();
+            assertTrue(PasswordHasher.isHashed(stored), name);
+            assertTrue(system.verifyPassword(system.findUser(name), "").join());
+        }
+        assertFalse(Files.readString(file, StandardCharsets.UTF_8).contains("bob,,"));
+    }
+
+    @Test
+    void closeReleasesSharedAuditLog() throws IOException {
+        Path file = directory.resolve("users.txt");
+        AuthenticationSystem first = new AuthenticationSystem(file.toString());
+        AuthenticationSystem second = new AuthenticationSystem(file.toString());
+        assertSame(first.getAudit(), second.getAudit()); // Один журнал на каталог
+        AuditLog audit = first.getAudit();
+        first.close();
+        // Журнал остается открытым, пока им пользуется вторая система
+        long written = audit.getWritten();
+        audit.record(AuditLog.Type.REGISTER, "admin", "bob", "local", "OK", null);
+        audit.flush();
+        assertEquals(written + 1, audit.getWritten());
+        second.close();
+        audit.record(AuditLog.Type.REGISTER, "admin", "carol", "local", "OK", null);
+        assertEquals(written + 1, audit.getWritten());
+
+        // После закрытия последней системы каталог открывается заново
+        try (AuthenticationSystem reopened = new AuthenticationSystem(file.toString())) {
+            assertNotSame(audit, reopened.getAudit());
+            assertTrue(reopened.verifyPassword(reopened.findUser("admin"), "").join());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryUserStoreTest {
+    @TempDir
+    Path directory;
+
+    // Метод для создания файла с одним администратором и добавления count пользователей по одному.
+    private BinaryUserStore fill(Path file, int count) throws IOException {
+        BinaryUserStore store = new BinaryUserStore(file.toString());
+        List<User> users = new ArrayList<>(List.of(new Admin("admin", "")));
+        store.saveAll(users);
+        for (int i = 0; i < count; i++) {
+            // Имена в обратном порядке, чтобы новые записи вставлялись в начало индекса
+            User user = new User(String.format("user%05d", count - i), "");
+            users.add(user);
+            store.saveUser(user, () -> users);
+        }
+        return store;
+    }
+
+    @Test
+    void appendedUsersAreFoundBeforeAndAfterReopen() throws IOException {
+        Path file = directory.resolve("users.bin");
+        BinaryUserStore store = fill(file, 1000);
+        assertEquals(1001, store.lazySize());
+        for (int i = 1; i <= 1000; i++) {
+            assertNotNull(store.lookup(String.format("user%05d", i)), "user" + i);
+        }
+        assertNull(store.lookup("missing"));
+        store.close();
+
+        BinaryUserStore reopened = new BinaryUserStore(file.toString());
+        reopened.load();
+        assertEquals(1001, reopened.lazySize());
+        List<String> names = reopened.usernames();
+        assertEquals("admin", names.get(0));
+        assertEquals("user01000", names.get(1)); // Порядок добавления сохраняется
+        for (int i = 1; i <= 1000; i++) {
+            assertNotNull(reopened.lookup(String.format("user%05d", i)), "user" + i);
+        }
+        assertInstanceOf(Admin.class, reopened.lookup("admin"));
+        reopened.close();
+    }
+
+    @Test
+    void appendsWriteLinearNumberOfBytes() throws IOException {
+        int count = 4000;
+        long before = AuthMetrics.getDefault().getPersistBytesWritten();
+        BinaryUserStore store = fill(directory.resolve("users.bin"), count);
+        long written = AuthMetrics.getDefault().getPersistBytesWritten() - before;
+        store.close();
+        // Перезапись индекса при каждом добавлении дала бы 4 * count^2 / 2 = 32 МБ
+        assertTrue(written < count * 1024L, "записано байтов: " + written);
+    }
+
+    @Test
+    void updatesInIndexAndTailAreKept() throws IOException {
+        Path file = directory.resolve("users.bin");
+        BinaryUserStore store = fill(file, 100);
+        User indexed = store.lookup("admin");
+        User inTail = store.lookup("user00001");
+        indexed.setBlocked(true);
+        inTail.setBlocked(true);
+        store.saveUser(indexed, List::of);
+        store.saveUser(inTail, List::of);
+        store.close();
+
+        BinaryUserStore reopened = new BinaryUserStore(file.toString());
+        reopened.load();
+        assertTrue(reopened.lookup("admin").isBlocked());
+        assertTrue(reopened.lookup("user00001").isBlocked());
+        assertFalse(reopened.lookup("user00002").isBlocked());
+        assertEquals(101, reopened.lazySize());
+        reopened.close();
+    }
+
+    @Test
+    void corruptIndexIsRebuilt() throws IOException {
+        Path file = directory.resolve("users.bin");
+        fill(file, 300).close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer offset = ByteBuffer.allocate(8);
+            channel.read(offset, 12);
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), offset.getLong(0));
+        }
+        BinaryUserStore reopened = new BinaryUserStore(file.toString());
+        reopened.load();
+        for (int i = 1; i <= 300; i++) {
+            assertNotNull(reopened.lookup(String.format("user%05d", i)), "user" + i);
+        }
+        User user = new User("late", "");
+        reopened.saveUser(user, List::of);
+        assertNotNull(reopened.lookup("late"));
+        reopened.close();
+    }
+
+    @Test
+    void readsVersionOneFiles() throws IOException {
+        Path file = directory.resolve("users.bin");
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(new User("u" + i, ""));
+        }
+        BinaryUserStore.write(file, users);
+        // Файл версии 1: без поля indexedCount, индекс охватывает все записи
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1), 4);
+            channel.write(ByteBuffer.allocate(4), 24);
+        }
+        BinaryUserStore store = new BinaryUserStore(file.toString());
+        store.load();
+        assertNotNull(store.lookup("u49"));
+        store.saveUser(new User("new", ""), () -> users);
+        assertNotNull(store.lookup("new"));
+        assertNotNull(store.lookup("u0"));
+        store.close();
+    }
+}
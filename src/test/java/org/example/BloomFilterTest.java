@@ -0,0 +1,56 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    // Метод для вычисления хеша строки так же, как для строк списка паролей.
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return BloomFilter.hash(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    @Test
+    void addedElementsAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(hash("password" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(hash("password" + i)), "password" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsNearTarget() {
+        BloomFilter filter = new BloomFilter(20_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put(hash("in" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(hash("out" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "ложных срабатываний: " + falsePositives); // Не больше удвоенной цели
+        assertEquals(7, filter.getHashes()); // ln 2 * 9,6 бита на элемент
+    }
+
+    @Test
+    void hashDependsOnlyOnRange() {
+        byte[] bytes = "xxsecretyy".getBytes(StandardCharsets.UTF_8);
+        assertEquals(hash("secret"), BloomFilter.hash(ByteBuffer.wrap(bytes), 2, 6));
+        assertNotEquals(hash("secret"), hash("secreT"));
+    }
+
+    @Test
+    void rejectsInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
@@ -0,0 +1,54 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvUserStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void legacyFlagBecomesUserOverride() {
+        PolicyTemplate template = PolicyTemplates.getDefault().defaultTemplate();
+        assertTrue(template.isRestrictionsEnabled());
+
+        User relaxed = CsvUserStore.parse("alice,,false,false");
+        User strict = CsvUserStore.parse("bob,,false,true");
+        // Строка старого формата не меняет общий шаблон
+        assertTrue(template.isRestrictionsEnabled());
+        assertSame(template, relaxed.getTemplate());
+        assertFalse(relaxed.isPasswordRestrictionsEnabled());
+        assertEquals(Boolean.FALSE, relaxed.getOverride().getRestrictionsEnabled());
+        assertTrue(strict.isPasswordRestrictionsEnabled());
+        assertNull(strict.getOverride()); // Совпадает с шаблоном — собственный флаг не нужен
+
+        User reread = CsvUserStore.parse(CsvUserStore.format(relaxed));
+        assertFalse(reread.isPasswordRestrictionsEnabled());
+        assertTrue(template.isRestrictionsEnabled());
+    }
+
+    @Test
+    void invalidTemplateIdFallsBackToDefault() throws IOException {
+        PolicyTemplates templates = PolicyTemplates.getDefault();
+        String overlong = "t".repeat(40);
+        User user = CsvUserStore.parse("carol,,false,," + overlong);
+        User spaced = CsvUserStore.parse("dave,,false,,bad id");
+        assertSame(templates.defaultTemplate(), user.getTemplate());
+        assertSame(templates.defaultTemplate(), spaced.getTemplate());
+        assertNull(templates.get(overlong));
+
+        // Запись в двоичный формат ограничивает идентификатор 31 байтом
+        Path file = directory.resolve("users.bin");
+        BinaryUserStore.write(file, List.of(user, spaced));
+        BinaryUserStore store = new BinaryUserStore(file.toString());
+        store.load();
+        assertEquals(PolicyTemplates.DEFAULT, store.lookup("carol").getTemplate().getId());
+        store.close();
+    }
+}
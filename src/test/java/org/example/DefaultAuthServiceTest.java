@@ -0,0 +1,175 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultAuthServiceTest {
+    @TempDir
+    Path directory;
+
+    // Метод для создания сервиса над файлом с администратором и пользователем alice с паролем stored.
+    private DefaultAuthService service(String stored) throws IOException {
+        Path file = directory.resolve("users.txt");
+        Files.writeString(file, "admin," + PasswordHasher.getDefault().hash("") + ",false,,admin\n"
+                + "alice," + stored + ",false,,default\n", StandardCharsets.UTF_8);
+        return new DefaultAuthService(new AuthenticationSystem(file.toString()));
+    }
+
+    @Test
+    void loginIssuesSessionAndLogoutRevokesIt() throws IOException {
+        DefaultAuthService service = service(PasswordHasher.getDefault().hash("Secr3t#$12"));
+        AuthResult result = service.authenticate("alice", "Secr3t#$12").join();
+        assertTrue(result.isSuccess(), result.getMessage());
+        assertTrue(service.validateSession(result.getToken()).isSuccess());
+        assertEquals(AuthResult.Status.WRONG_PASSWORD, service.authenticate("alice", "nope").join().getStatus());
+        assertTrue(service.logout(result.getToken()).isSuccess());
+        assertFalse(service.validateSession(result.getToken()).isSuccess());
+    }
+
+    @Test
+    void blockDuringVerificationLeavesNoSession() throws IOException {
+        // Медленный хеш: блокировка завершается, пока пароль еще проверяется
+        DefaultAuthService service = service(new PasswordHasher(400_000).hash("Secr3t#$12"));
+        var login = service.authenticate("alice", "Secr3t#$12");
+        assertTrue(service.block("alice").isSuccess());
+        AuthResult result = login.join();
+        assertNull(result.getToken(), result.getMessage());
+        assertEquals(AuthResult.Status.BLOCKED, result.getStatus());
+    }
+
+    @Test
+    void passwordChangeDuringVerificationLeavesNoSession() throws IOException {
+        DefaultAuthService service = service(new PasswordHasher(400_000).hash("Secr3t#$12"));
+        var login = service.authenticate("alice", "Secr3t#$12");
+        // Смена пароля, завершившаяся во время проверки: новый хеш и отзыв сеансов
+        service.findUser("alice").setPasswordHash(PasswordHasher.getDefault().hash("An0ther#$56"));
+        service.getSessionManager().revokeAll("alice");
+        AuthResult result = login.join();
+        assertNull(result.getToken(), result.getMessage());
+        assertTrue(service.authenticate("alice", "An0ther#$56").join().isSuccess());
+    }
+
+    @Test
+    void sessionsAreRevokedBeforeFailedSave() throws IOException {
+        Path file = directory.resolve("users.txt");
+        Files.writeString(file, "admin," + PasswordHasher.getDefault().hash("") + ",false,,admin\n"
+                + "alice," + PasswordHasher.getDefault().hash("Secr3t#$12") + ",false,,default\n", StandardCharsets.UTF_8);
+        DefaultAuthService[] service = new DefaultAuthService[1];
+        String[] token = new String[1];
+        List<Boolean> validDuringSave = new ArrayList<>();
+        // Запись пользователя завершается ошибкой; до нее запоминается, действителен ли еще сеанс
+        AuthenticationSystem system = new AuthenticationSystem(file.toString()) {
+            @Override
+            public CompletableFuture<Void> saveUserAsync(User user) {
+                if (token[0] == null) {
+                    return super.saveUserAsync(user);
+                }
+                validDuringSave.add(service[0].validateSession(token[0]).isSuccess());
+                return CompletableFuture.failedFuture(new IOException("диск недоступен"));
+            }
+        };
+        service[0] = new DefaultAuthService(system);
+
+        token[0] = service[0].authenticate("alice", "Secr3t#$12").join().getToken();
+        AuthResult change = service[0].changePassword("alice", "Secr3t#$12", "An0ther#$56").join();
+        assertEquals(AuthResult.Status.BUSY, change.getStatus(), change.getMessage());
+        assertFalse(service[0].validateSession(token[0]).isSuccess());
+
+        token[0] = service[0].authenticate("alice", "An0ther#$56").join().getToken();
+        assertNotNull(token[0]);
+        service[0].block("alice");
+        assertFalse(service[0].validateSession(token[0]).isSuccess());
+        assertEquals(List.of(false, false), validDuringSave);
+    }
+
+    @Test
+    void concurrentWrongPasswordsAreLimitedBeforeVerification() throws IOException {
+        DefaultAuthService service = service(new PasswordHasher(100_000).hash("Secr3t#$12"));
+        // Все попытки начинаются до завершения первой проверки хеша
+        List<CompletableFuture<AuthResult>> attempts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            attempts.add(service.authenticate("alice", "wrong" + i));
+        }
+        int lockedOut = 0;
+        for (CompletableFuture<AuthResult> attempt : attempts) {
+            if (attempt.join().getStatus() == AuthResult.Status.LOCKED_OUT) {
+                lockedOut++;
+            }
+        }
+        assertEquals(3, service.getLockoutTracker().getFailures()); // Пароль проверялся только до порога
+        assertTrue(lockedOut >= 8, "заблокировано попыток: " + lockedOut);
+        assertEquals(AuthResult.Status.LOCKED_OUT, service.authenticate("alice", "Secr3t#$12").join().getStatus());
+    }
+
+    @Test
+    void wrongOldPasswordCountsAsFailedAttempt() throws IOException {
+        DefaultAuthService service = service(PasswordHasher.getDefault().hash("Secr3t#$12"));
+        assertEquals(AuthResult.Status.WRONG_PASSWORD, service.changePassword("alice", "wrong1", "An0ther#$56").join().getStatus());
+        assertEquals(AuthResult.Status.WRONG_PASSWORD, service.authenticate("alice", "wrong2").join().getStatus());
+        // Третья неудача подряд (смена пароля или вход) включает блокировку для обоих путей
+        assertEquals(AuthResult.Status.LOCKED_OUT, service.changePassword("alice", "wrong3", "An0ther#$56").join().getStatus());
+        assertEquals(AuthResult.Status.LOCKED_OUT, service.changePassword("alice", "Secr3t#$12", "An0ther#$56").join().getStatus());
+        assertEquals(AuthResult.Status.LOCKED_OUT, service.authenticate("alice", "Secr3t#$12").join().getStatus());
+        assertEquals(3, service.getLockoutTracker().getFailures());
+    }
+
+    @Test
+    void overlongUsernameIsRejectedOnRegister() throws IOException {
+        DefaultAuthService service = service(PasswordHasher.getDefault().hash("Secr3t#$12"));
+        String longest = "я".repeat(BinaryUserStore.MAX_USERNAME_BYTES / 2); // Два байта на символ в UTF-8
+        assertTrue(service.register(longest).isSuccess());
+        AuthResult overlong = service.register(longest + "a");
+        assertEquals(AuthResult.Status.INVALID_INPUT, overlong.getStatus());
+        assertNull(service.findUser(longest + "a"));
+    }
+
+    @Test
+    void resetPasswordReplacesPassword() throws IOException {
+        DefaultAuthService service = service(PasswordHasher.getDefault().hash("Secr3t#$12"));
+        AuthResult reset = service.resetPassword("alice", "An0ther#$56").join();
+        assertTrue(reset.isSuccess(), reset.getMessage());
+        assertFalse(service.authenticate("alice", "Secr3t#$12").join().isSuccess());
+        assertTrue(service.authenticate("alice", "An0ther#$56").join().isSuccess());
+    }
+
+    @Test
+    void blocklistAppliesWithoutRestrictions() throws IOException {
+        Path list = directory.resolve("blocklist.txt");
+        Files.writeString(list, "Passw0rd#$1\nqwerty\n", StandardCharsets.UTF_8);
+        Path file = directory.resolve("users.txt");
+        Files.writeString(file, "admin," + PasswordHasher.getDefault().hash("") + ",false,,admin\n"
+                + "alice," + PasswordHasher.getDefault().hash("Secr3t#$12") + ",false,false,default\n", StandardCharsets.UTF_8);
+        DefaultAuthService service = new DefaultAuthService(new AuthenticationSystem(file.toString()), new LockoutTracker(),
+                new SessionManager(), PasswordBlocklist.load(list, 0.001, true));
+        assertFalse(service.findUser("alice").isPasswordRestrictionsEnabled());
+
+        // Политика не проверяется, а список запрещенных паролей — проверяется на обоих путях
+        assertEquals(AuthResult.Status.POLICY_VIOLATION, service.changePassword("alice", "Secr3t#$12", "qwerty").join().getStatus());
+        assertEquals(AuthResult.Status.POLICY_VIOLATION, service.resetPassword("alice", "qwerty").join().getStatus());
+        assertTrue(service.changePassword("alice", "Secr3t#$12", "short").join().isSuccess());
+        assertTrue(service.resetPassword("alice", "abc").join().isSuccess());
+
+        service.findUser("alice").setPasswordRestrictionsEnabled(true);
+        assertEquals(AuthResult.Status.POLICY_VIOLATION, service.resetPassword("alice", "abc").join().getStatus());
+        assertEquals(AuthResult.Status.POLICY_VIOLATION, service.resetPassword("alice", "Passw0rd#$1").join().getStatus());
+    }
+
+    @Test
+    void setPolicyValidatesAndSaves() throws IOException {
+        DefaultAuthService service = service(PasswordHasher.getDefault().hash("Secr3t#$12"));
+        assertEquals(AuthResult.Status.INVALID_INPUT, service.setPolicy("alice", 10, 5, 0, 0).getStatus());
+        assertTrue(service.setPolicy("alice", 10, 20, 1, 1).isSuccess());
+        assertEquals(10, service.findUser("alice").getMinPasswordLength());
+        assertEquals(AuthResult.Status.UNKNOWN_USER, service.setPolicy("nobody", 10, 20, 1, 1).getStatus());
+    }
+}
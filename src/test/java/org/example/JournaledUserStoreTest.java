@@ -0,0 +1,85 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledUserStoreTest {
+    @TempDir
+    Path directory;
+
+    private static List<String> names(List<User> users) {
+        List<String> names = new ArrayList<>();
+        for (User user : users) {
+            names.add(user.getUsername());
+        }
+        return names;
+    }
+
+    @Test
+    void replaysJournalOverSnapshot() throws IOException {
+        String dataFile = directory.resolve("users.txt").toString();
+        JournaledUserStore store = new JournaledUserStore(dataFile, Long.MAX_VALUE);
+        List<User> users = new ArrayList<>(List.of(new User("alice", ""), new User("bob", "")));
+        store.saveAll(users);
+        User bob = users.get(1);
+        bob.setBlocked(true);
+        store.saveUser(bob, () -> users);
+        store.saveUser(new User("carol", ""), () -> users);
+        store.close();
+
+        JournaledUserStore reopened = new JournaledUserStore(dataFile, Long.MAX_VALUE);
+        List<User> loaded = reopened.load();
+        assertEquals(List.of("alice", "bob", "carol"), names(loaded));
+        assertTrue(loaded.get(1).isBlocked());
+        assertFalse(Files.exists(Path.of(dataFile + ".journal")));
+        reopened.close();
+    }
+
+    @Test
+    void recordAfterTornOnlyJournalSurvivesNextLoad() throws IOException {
+        String dataFile = directory.resolve("users.txt").toString();
+        JournaledUserStore store = new JournaledUserStore(dataFile, Long.MAX_VALUE);
+        List<User> users = new ArrayList<>(List.of(new User("alice", "")));
+        store.saveAll(users);
+        store.close();
+        // Сбой во время записи: в журнале только начало записи без перевода строки
+        Files.writeString(Path.of(dataFile + ".journal"), "bob,,false,", StandardCharsets.UTF_8);
+
+        long corrupt = AuthMetrics.getDefault().getPersistCorruptRecords();
+        store = new JournaledUserStore(dataFile, Long.MAX_VALUE);
+        List<User> loaded = store.load();
+        assertEquals(List.of("alice"), names(loaded));
+        assertEquals(corrupt + 1, AuthMetrics.getDefault().getPersistCorruptRecords());
+        store.saveUser(new User("carol", ""), () -> loaded);
+        store.close();
+
+        store = new JournaledUserStore(dataFile, Long.MAX_VALUE);
+        assertEquals(List.of("alice", "carol"), names(store.load()));
+        store.close();
+    }
+
+    @Test
+    void appendAfterTornTailStartsNewLine() throws IOException {
+        String dataFile = directory.resolve("users.txt").toString();
+        JournaledUserStore store = new JournaledUserStore(dataFile, Long.MAX_VALUE);
+        store.saveAll(List.of(new User("alice", "")));
+        // Журнал с оборванной записью, не прочитанный load перед записью
+        Files.writeString(Path.of(dataFile + ".journal"), "bob,,fa", StandardCharsets.UTF_8, StandardOpenOption.CREATE);
+        store.saveUser(new User("carol", ""), List::of);
+        store.close();
+
+        store = new JournaledUserStore(dataFile, Long.MAX_VALUE);
+        assertEquals(List.of("alice", "carol"), names(store.load()));
+        store.close();
+    }
+}
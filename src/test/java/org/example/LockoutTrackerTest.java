@@ -0,0 +1,144 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockoutTrackerTest {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    // Метод для создания трекера: 3 попытки на пользователя, 5 на источник, окно 60 с, блокировка 10–40 с.
+    private LockoutTracker tracker() {
+        return new LockoutTracker(3, 5, 60_000, 10_000, 40_000, 1024, now::get);
+    }
+
+    // Метод для неудачной попытки: учет до проверки и подтверждение после.
+    private static int fail(LockoutTracker tracker, String username, String source) {
+        assertTrue(tracker.tryAcquire(username, source));
+        return tracker.recordFailure(username, source);
+    }
+
+    @Test
+    void locksAfterThresholdWithGrowingDelay() {
+        LockoutTracker tracker = tracker();
+        assertEquals(2, fail(tracker, "alice", "a"));
+        assertEquals(1, fail(tracker, "alice", "b"));
+        assertEquals(0, fail(tracker, "alice", "c"));
+        assertEquals(10_000, tracker.lockedFor("alice", "d"));
+        assertEquals(0, tracker.lockedFor("bob", "d"));
+
+        now.addAndGet(10_000);
+        assertEquals(0, tracker.lockedFor("alice", "d"));
+        fail(tracker, "alice", "d");
+        fail(tracker, "alice", "e");
+        fail(tracker, "alice", "f");
+        assertEquals(20_000, tracker.lockedFor("alice", "g")); // Повторная блокировка вдвое дольше
+    }
+
+    @Test
+    void concurrentAttemptsAreCountedBeforeVerification() {
+        LockoutTracker tracker = tracker();
+        int acquired = 0;
+        for (int i = 0; i < 10; i++) {
+            if (tracker.tryAcquire("alice", "source" + i)) {
+                acquired++;
+            }
+        }
+        assertEquals(3, acquired); // Остальные отклонены, не дожидаясь итогов проверки
+        assertTrue(tracker.lockedFor("alice", "other") > 0);
+    }
+
+    @Test
+    void successClearsUserAndReleasesSource() {
+        LockoutTracker tracker = tracker();
+        fail(tracker, "alice", "office");
+        fail(tracker, "alice", "office");
+        assertTrue(tracker.tryAcquire("alice", "office"));
+        tracker.recordSuccess("alice", "office");
+        assertEquals(2, fail(tracker, "alice", "office")); // Счетчик пользователя сброшен
+        // Успешные входы с одного адреса не расходуют попытки источника
+        for (int i = 0; i < 20; i++) {
+            assertTrue(tracker.tryAcquire("user" + i, "office"));
+            tracker.recordSuccess("user" + i, "office");
+        }
+        assertEquals(0, tracker.lockedFor("carol", "office"));
+    }
+
+    @Test
+    void releasedAttemptIsNotCounted() {
+        LockoutTracker tracker = tracker();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(tracker.tryAcquire("alice", "a"));
+            tracker.release("alice", "a");
+        }
+        assertEquals(2, fail(tracker, "alice", "a"));
+    }
+
+    @Test
+    void sourceIsLimitedAcrossUsernames() {
+        LockoutTracker tracker = tracker();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(tracker.recordUnknownUser("attacker") > 0);
+        }
+        assertEquals(0, tracker.recordUnknownUser("attacker"));
+        assertTrue(tracker.lockedFor("anyone", "attacker") > 0);
+        assertEquals(0, tracker.lockedFor("anyone", "elsewhere"));
+    }
+
+    @Test
+    void failuresExpireWithSlidingWindow() {
+        LockoutTracker tracker = tracker();
+        now.set(120_000); // Начало окна
+        fail(tracker, "alice", "a");
+        fail(tracker, "alice", "a");
+        now.addAndGet(120_000); // Через два окна прошлые попытки не учитываются
+        assertEquals(2, fail(tracker, "alice", "a"));
+    }
+
+    @Test
+    void successOfAnotherUserKeepsFailures() {
+        // Маленькая таблица: в общих ячейках счетчики пользователей раньше сбрасывали друг друга
+        LockoutTracker tracker = new LockoutTracker(3, 100, 60_000, 10_000, 40_000, 4, now::get);
+        fail(tracker, "victim", "attacker");
+        fail(tracker, "victim", "attacker");
+        for (int i = 0; i < 50; i++) {
+            assertTrue(tracker.tryAcquire("user" + i, "office"));
+            tracker.recordSuccess("user" + i, "office");
+        }
+        assertEquals(0, fail(tracker, "victim", "attacker"));
+        assertTrue(tracker.lockedFor("victim", "elsewhere") > 0);
+    }
+
+    @Test
+    void collidingSourceDoesNotClearCounts() {
+        LockoutTracker.SlotTable table = new LockoutTracker.SlotTable(4, 5, 60_000, 10_000, 40_000);
+        // Подбор двух ключей, попадающих в те же две ячейки
+        String first = "source0";
+        String second = null;
+        for (int i = 1; second == null; i++) {
+            if (cells(table, "source" + i) == cells(table, first)) {
+                second = "source" + i;
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(table.acquire(second, now.get()));
+        }
+        assertTrue(table.acquire(first, now.get()));
+        assertEquals(0, table.recordFailure(first, now.get())); // Оценка включает попытки second
+        assertTrue(table.lockedFor(second, now.get()) > 0);
+
+        now.addAndGet(10_000);
+        // Блокировка first не обнулила попытки second: они по-прежнему учитываются в окне
+        assertEquals(0, table.lockedFor(second, now.get()));
+        assertFalse(table.acquire(second, now.get()));
+        assertEquals(20_000, table.lockedFor(second, now.get())); // Повторная блокировка вдвое дольше
+    }
+
+    // Метод для получения пары ячеек ключа в таблице из четырех ячеек.
+    private static int cells(LockoutTracker.SlotTable table, String key) {
+        long h = table.hash(key);
+        return ((int) h & 3) << 2 | ((int) (h >>> 32) & 3);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+    // Метод для вычисления расстояния Левенштейна полной таблицей (эталон без отсечений).
+    private static int levenshtein(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            table[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            table[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                table[i][j] = Math.min(Math.min(table[i - 1][j] + 1, table[i][j - 1] + 1), table[i - 1][j - 1] + cost);
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+
+    // Метод для вычисления эталонного расстояния: до всего имени или до лучшего его префикса.
+    private static int reference(String query, String name, boolean prefix) {
+        String a = query.toLowerCase(Locale.ROOT);
+        String b = name.toLowerCase(Locale.ROOT);
+        if (!prefix) {
+            return levenshtein(a, b);
+        }
+        int best = Integer.MAX_VALUE;
+        for (int length = 0; length <= b.length(); length++) {
+            best = Math.min(best, levenshtein(a, b.substring(0, length)));
+        }
+        return best;
+    }
+
+    // Метод для нечеткого поиска перебором: порядок по расстоянию, затем по ключу и имени, как в NameIndex.
+    private static List<String> bruteForce(List<String> names, String query, int maxDistance, int limit, boolean prefix) {
+        List<String> matches = new ArrayList<>();
+        for (String name : names) {
+            if (reference(query, name, prefix) <= maxDistance) {
+                matches.add(name);
+            }
+        }
+        matches.sort(Comparator.<String>comparingInt(name -> reference(query, name, prefix))
+                .thenComparing(name -> name.toLowerCase(Locale.ROOT)).thenComparing(name -> name));
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+
+    // Метод для создания различных имен с общими префиксами, чтобы отсечение веток срабатывало часто.
+    private static List<String> randomNames(Random random, int count) {
+        String[] stems = {"alex", "alexa", "andrey", "anna", "boris", "ivan", "ivanov", "maria", "user", "olga"};
+        Set<String> names = new LinkedHashSet<>();
+        while (names.size() < count) {
+            StringBuilder name = new StringBuilder(stems[random.nextInt(stems.length)]);
+            int suffix = random.nextInt(4);
+            for (int k = 0; k < suffix; k++) {
+                name.append((char) ('a' + random.nextInt(6)));
+            }
+            if (random.nextInt(5) == 0) {
+                name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            }
+            names.add(name.toString() + (random.nextInt(3) == 0 ? String.valueOf(random.nextInt(100)) : ""));
+        }
+        return new ArrayList<>(names);
+    }
+
+    @Test
+    void fuzzyMatchesBruteForceWithPruning() {
+        Random random = new Random(42);
+        List<String> names = randomNames(random, 3000);
+        NameIndex index = new NameIndex();
+        index.addAll(names.subList(0, 2500));
+        for (String name : names.subList(2500, names.size())) {
+            index.add(name); // Часть имен остается в дельте
+        }
+        String[] queries = {"alx", "ivna", "marai", "Anrey", "usr1", "bors", "olgaa", "zzz", "a", "alexab"};
+        for (String query : queries) {
+            for (boolean prefix : new boolean[]{false, true}) {
+                for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                    for (int limit : new int[]{5, Integer.MAX_VALUE}) {
+                        assertEquals(bruteForce(names, query, maxDistance, limit, prefix),
+                                index.fuzzy(query, maxDistance, limit, prefix),
+                                query + " prefix=" + prefix + " d=" + maxDistance + " limit=" + limit);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void distanceStopsEarlyAboveLimit() {
+        assertEquals(1, NameIndex.distance("ivan", "ivn", 2, false));
+        assertEquals(3, NameIndex.distance("ivan", "boris", 2, false)); // Больше предела: maxDistance + 1
+        assertEquals(0, NameIndex.distance("iva", "ivanov", 1, true));
+        assertEquals(1, NameIndex.distance("ivb", "ivanov", 1, true));
+    }
+
+    @Test
+    void prefixSearchMergesBaseAndDelta() {
+        NameIndex index = new NameIndex();
+        index.addAll(List.of("bob", "Alice", "alfred", "carol"));
+        index.add("ALBERT");
+        index.add("alina");
+        assertEquals(6, index.size());
+        assertEquals(List.of("ALBERT", "alfred", "Alice", "alina"), index.prefix("AL", 10));
+        assertEquals(List.of("ALBERT", "alfred"), index.prefix("al", 2));
+        assertEquals(List.of(), index.prefix("dave", 10));
+        assertEquals(6, index.prefix("", 10).size());
+    }
+
+    @Test
+    void deltaIsMergedWhenItGrows() {
+        NameIndex index = new NameIndex();
+        for (int i = 0; i < 5000; i++) {
+            index.add(String.format("user%04d", i));
+        }
+        assertEquals(5000, index.size());
+        assertEquals(List.of("user0999", "user1000", "user1001"), index.prefix("user", 3000).subList(999, 1002));
+        assertEquals(List.of("user4999"), index.fuzzy("usr4999", 1, 10, false));
+    }
+}
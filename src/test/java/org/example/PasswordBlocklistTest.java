@@ -0,0 +1,57 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordBlocklistTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void containsListedPasswords() throws IOException {
+        Path file = directory.resolve("blocklist.txt");
+        Files.writeString(file, "123456\r\nqwerty\n\nпароль\nletmein", StandardCharsets.UTF_8);
+        PasswordBlocklist blocklist = PasswordBlocklist.load(file, 0.001, false);
+        assertEquals(4, blocklist.size());
+        assertFalse(blocklist.isExact());
+        for (String password : new String[]{"123456", "qwerty", "пароль", "letmein"}) {
+            assertTrue(blocklist.contains(password), password);
+        }
+        assertFalse(blocklist.contains("Secr3t#$12"));
+        assertFalse(blocklist.contains(null));
+        assertFalse(PasswordBlocklist.EMPTY.contains("123456"));
+    }
+
+    @Test
+    void exactCheckRemovesFalsePositives() throws IOException {
+        Path file = directory.resolve("sorted.txt");
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            list.append(String.format("pass%04d\n", i)); // Побайтно отсортировано
+        }
+        Files.writeString(file, list, StandardCharsets.UTF_8);
+        // Вероятность ошибки 0,5: без точной проверки почти половина чужих паролей считалась бы запрещенной
+        PasswordBlocklist exact = PasswordBlocklist.load(file, 0.5, true);
+        assertTrue(exact.isExact());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(exact.contains(String.format("pass%04d", i)));
+            assertFalse(exact.contains(String.format("other%04d", i)));
+        }
+    }
+
+    @Test
+    void unsortedFileFallsBackToFilter() throws IOException {
+        Path file = directory.resolve("unsorted.txt");
+        Files.writeString(file, "zebra\napple\n", StandardCharsets.UTF_8);
+        PasswordBlocklist blocklist = PasswordBlocklist.load(file, 0.001, true);
+        assertFalse(blocklist.isExact());
+        assertTrue(blocklist.contains("apple"));
+    }
+}
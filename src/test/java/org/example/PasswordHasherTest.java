@@ -0,0 +1,51 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+    private final PasswordHasher hasher = new PasswordHasher(1000);
+
+    @Test
+    void hashVerifiesOnlyItsPassword() {
+        String stored = hasher.hash("p@ssw0rd");
+        assertTrue(PasswordHasher.isHashed(stored));
+        assertTrue(hasher.verify("p@ssw0rd", stored));
+        assertFalse(hasher.verify("p@ssw0rD", stored));
+        assertNotEquals(stored, hasher.hash("p@ssw0rd")); // Соль случайна
+        assertEquals(1000, PasswordHasher.iterationsOf(stored));
+    }
+
+    @Test
+    void plaintextAndWeakerHashesNeedRehash() {
+        assertTrue(hasher.verify("old", "old"));
+        assertFalse(hasher.verify("old", "other"));
+        assertTrue(hasher.needsRehash("old"));
+        assertTrue(hasher.needsRehash(new PasswordHasher(10).hash("x")));
+        assertFalse(hasher.needsRehash(hasher.hash("x")));
+    }
+
+    @Test
+    void hashPlaintextReplacesOnlyPlaintext() {
+        String hashed = hasher.hash("kept");
+        User legacy = new User("legacy", "secret");
+        User empty = new User("empty", "");
+        User modern = new User("modern", hashed);
+        assertEquals(2, hasher.hashPlaintext(List.of(legacy, empty, modern)));
+        assertTrue(hasher.verify("secret", legacy.getPassword()));
+        assertTrue(hasher.verify("", empty.getPassword()));
+        assertSame(hashed, modern.getPassword());
+    }
+
+    @Test
+    void compareAndSetPasswordRejectsStaleValue() {
+        User user = new User("u", "first");
+        assertTrue(user.compareAndSetPassword("first", "second"));
+        // Пересчет хеша по устаревшему значению не должен вернуть старый пароль
+        assertFalse(user.compareAndSetPassword("first", "rehash-of-first"));
+        assertEquals("second", user.getPassword());
+    }
+}
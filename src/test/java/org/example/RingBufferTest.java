@@ -0,0 +1,85 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+    @Test
+    void capacityIsRoundedToPowerOfTwo() {
+        assertEquals(2, new RingBuffer<Integer>(1).capacity());
+        assertEquals(8, new RingBuffer<Integer>(5).capacity());
+        assertEquals(1024, new RingBuffer<Integer>(1024).capacity());
+    }
+
+    @Test
+    void fullBufferRejectsUntilDrained() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.offered());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, ring.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertEquals(3, ring.consumed());
+
+        // Освобожденные ячейки используются на следующем круге, порядок сохраняется
+        for (int i = 4; i < 7; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(7));
+        drained.clear();
+        assertEquals(4, ring.drainTo(drained, 100));
+        assertEquals(List.of(3, 4, 5, 6), drained);
+        assertEquals(0, ring.drainTo(drained, 100));
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        RingBuffer<long[]> ring = new RingBuffer<>(256);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element)) {
+                        Thread.yield(); // Буфер заполнен — ждем потребителя
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        int[] next = new int[producers]; // Ожидаемый номер следующего элемента каждого производителя
+        List<long[]> batch = new ArrayList<>();
+        long total = 0;
+        while (total < (long) producers * perProducer) {
+            batch.clear();
+            if (ring.drainTo(batch, 64) == 0) {
+                Thread.yield();
+                continue;
+            }
+            for (long[] element : batch) {
+                int producer = (int) element[0];
+                assertEquals(next[producer], element[1], "производитель " + producer);
+                next[producer]++;
+            }
+            total += batch.size();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, ring.drainTo(batch, 64));
+        assertEquals(ring.offered(), ring.consumed());
+    }
+}
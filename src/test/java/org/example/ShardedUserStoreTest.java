@@ -0,0 +1,63 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedUserStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void existingFileIsNotOpenedAsShards() throws IOException {
+        Path file = directory.resolve("users.txt");
+        Files.writeString(file, "admin," + PasswordHasher.getDefault().hash("") + ",false,,admin\n", StandardCharsets.UTF_8);
+        System.setProperty("auth.storage", "sharded");
+        try {
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> UserStore.open(file.toString()));
+            assertTrue(error.getMessage().contains("reshard " + file), error.getMessage());
+        } finally {
+            System.clearProperty("auth.storage");
+        }
+        assertTrue(Files.isRegularFile(file)); // Файл не тронут
+    }
+
+    @Test
+    void shardIsWrittenFromAllUsers() throws IOException {
+        Path shards = directory.resolve("users");
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            users.add(new User("user" + i, PasswordHasher.getDefault().hash("")));
+        }
+        System.setProperty("auth.store.shards", "4");
+        try (ShardedUserStore store = new ShardedUserStore(shards, false, ForkJoinPool.commonPool())) {
+            store.saveAll(users);
+            // Новый пользователь попадает в свой шард вместе с остальными участниками из общего списка
+            User added = new User("late", PasswordHasher.getDefault().hash(""));
+            users.add(added);
+            store.saveUser(added, () -> users);
+        } finally {
+            System.clearProperty("auth.store.shards");
+        }
+
+        try (ShardedUserStore reopened = new ShardedUserStore(shards, false, ForkJoinPool.commonPool())) {
+            List<User> loaded = reopened.load();
+            assertEquals(41, loaded.size());
+            int shard = ShardedUserStore.shardOf("late", 4);
+            List<String> lines = Files.readAllLines(shards.resolve(String.format("shard-%03d.txt", shard)), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                assertEquals(shard, ShardedUserStore.shardOf(line.substring(0, line.indexOf(',')), 4), line);
+            }
+            assertTrue(lines.stream().anyMatch(line -> line.startsWith("late,")));
+        }
+    }
+}
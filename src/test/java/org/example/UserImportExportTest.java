@@ -0,0 +1,115 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportExportTest {
+    @TempDir
+    Path directory;
+
+    private static final String HASH = PasswordHasher.getDefault().hash("Secr3t#$12");
+
+    // Метод для создания системы в отдельном каталоге.
+    private AuthenticationSystem system(String name) {
+        return new AuthenticationSystem(directory.resolve(name).resolve("users.txt").toString());
+    }
+
+    // Метод для выгрузки и загрузки пользователя carol с дополнительными правилами в новую систему.
+    private void roundTrip(UserImporter.Format format) throws IOException {
+        AuthenticationSystem source = system("source-" + format);
+        String csv = "carol," + HASH + ",true,,10,20,1,2,,2,3,2,4\n";
+        ImportReport imported = new UserImporter(source).importUsers(new StringReader(csv), UserImporter.Format.CSV);
+        assertEquals(1, imported.getImported(), imported.getErrors().toString());
+
+        StringWriter exported = new StringWriter();
+        new UserExporter(source).export(exported, format);
+        AuthenticationSystem target = system("target-" + format);
+        ImportReport report = new UserImporter(target).importUsers(new StringReader(exported.toString()), format);
+        // admin уже есть в новой системе; остальные перенесены
+        assertEquals(1, report.getImported(), report.getErrors().toString());
+
+        User carol = target.findUser("carol");
+        assertEquals(HASH, carol.getPassword());
+        assertTrue(carol.isBlocked());
+        assertEquals(source.findUser("carol").getPasswordPolicy(), carol.getPasswordPolicy());
+        assertEquals(2, carol.getPasswordPolicy().get(PasswordRule.MIN_UPPER));
+        assertEquals(4, carol.getPasswordPolicy().get(PasswordRule.MAX_SEQUENCE));
+        assertTrue(target.verifyPassword(carol, "Secr3t#$12").join());
+    }
+
+    @Test
+    void csvRoundTripKeepsEveryRule() throws IOException {
+        roundTrip(UserImporter.Format.CSV);
+    }
+
+    @Test
+    void jsonRoundTripKeepsEveryRule() throws IOException {
+        roundTrip(UserImporter.Format.JSON);
+    }
+
+    @Test
+    void exportWritesEveryRule() {
+        User user = new User("dave", HASH);
+        user.setPasswordPolicy(PasswordPolicy.DEFAULT.with(PasswordRule.MIN_LOWER, 3).with(PasswordRule.MAX_REPEAT, 2));
+        String json = UserExporter.toJson(user);
+        for (String field : UserImporter.RULE_FIELDS) {
+            assertTrue(json.contains("\"" + field + "\":"), field);
+        }
+        assertEquals(UserImporter.COLUMNS.length, UserExporter.toCsv(user).split(",", -1).length);
+        assertEquals("3", UserImporter.parseJson(json).get("minLower"));
+        assertEquals("2", UserImporter.parseCsv(UserExporter.toCsv(user)).get("maxRepeat"));
+    }
+
+    @Test
+    void malformedHashesAreRejected() throws IOException {
+        AuthenticationSystem system = system("bad");
+        String salt = HASH.split("\\$")[2];
+        String hash = HASH.split("\\$")[3];
+        List<String> bad = List.of(
+                "pbkdf2$",
+                "pbkdf2$abc$" + salt + "$" + hash,
+                "pbkdf2$0$" + salt + "$" + hash,
+                "pbkdf2$-5$" + salt + "$" + hash,
+                "pbkdf2$999999999999$" + salt + "$" + hash,
+                "pbkdf2$1000$$" + hash,
+                "pbkdf2$1000$не-base64$" + hash,
+                "pbkdf2$1000$" + salt + "$" + salt, // Хеш неверной длины
+                "pbkdf2$1000$" + salt + "$" + hash + "$extra");
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < bad.size(); i++) {
+            csv.append("user").append(i).append(',').append(bad.get(i)).append('\n');
+        }
+        csv.append("good,").append(HASH).append('\n');
+        ImportReport report = new UserImporter(system).importUsers(new StringReader(csv.toString()), UserImporter.Format.CSV);
+        assertEquals(1, report.getImported(), report.getErrors().toString());
+        Set<String> rejected = new HashSet<>();
+        for (ImportReport.Error error : report.getErrors()) {
+            rejected.add(error.username);
+        }
+        assertEquals(bad.size(), rejected.size());
+        assertNotNull(system.findUser("good"));
+        assertNull(system.findUser("user0"));
+    }
+
+    @Test
+    void overlongUsernameIsRejected() throws IOException {
+        AuthenticationSystem system = system("long");
+        String overlong = "u".repeat(BinaryUserStore.MAX_USERNAME_BYTES + 1);
+        String csv = overlong + "," + HASH + "\nshort," + HASH + "\n";
+        ImportReport report = new UserImporter(system).importUsers(new StringReader(csv), UserImporter.Format.CSV);
+        assertEquals(1, report.getImported(), report.getErrors().toString());
+        assertEquals(overlong, report.getErrors().get(0).username);
+        assertNull(system.findUser(overlong));
+        assertNotNull(system.findUser("short"));
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIndexTest {
+
+    @Test
+    void keepsInsertionOrderAndRejectsDuplicates() {
+        UserIndex index = new UserIndex();
+        for (int i = 0; i < 40; i++) { // Больше начальной емкости массива порядка
+            assertTrue(index.add(new User("user" + i, "")));
+        }
+        assertFalse(index.add(new User("user7", "")));
+        assertEquals(40, index.size());
+        assertEquals("user0", index.values().get(0).getUsername());
+        assertEquals("user39", index.values().get(39).getUsername());
+        assertSame(index.values().get(7), index.get("user7"));
+        assertNull(index.get(null));
+    }
+
+    @Test
+    void caseInsensitiveKeys() {
+        UserIndex index = new UserIndex(true);
+        assertTrue(index.add(new User("Alice", "")));
+        assertFalse(index.add(new User("ALICE", "")));
+        assertEquals("Alice", index.get("alice").getUsername());
+        assertNull(new UserIndex().get("alice"));
+    }
+
+    @Test
+    void snapshotIsNotAffectedByLaterAdds() {
+        UserIndex index = new UserIndex();
+        index.add(new User("a", ""));
+        UserSnapshot before = index.snapshot();
+        for (int i = 0; i < 100; i++) {
+            index.add(new User("u" + i, ""));
+        }
+        assertEquals(1, before.size());
+        assertEquals(101, index.snapshot().size());
+        long version = index.snapshot().getVersion();
+        index.touch();
+        assertEquals(version + 1, index.snapshot().getVersion());
+    }
+
+    @Test
+    void concurrentAddsOfSameNameWinOnce() throws InterruptedException {
+        UserIndex index = new UserIndex();
+        AtomicInteger added = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (index.add(new User("user" + i, ""))) {
+                        added.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(500, added.get());
+        assertEquals(500, index.snapshot().size());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotTest {
+    @TempDir
+    Path directory;
+
+    // Метод для создания загрузчика, считающего обращения; для имени всегда возвращается один объект.
+    private static Function<String, User> counting(AtomicInteger loads) {
+        Map<String, User> loaded = new HashMap<>();
+        return name -> {
+            loads.incrementAndGet();
+            return loaded.computeIfAbsent(name, n -> n.startsWith("admin") ? new Admin(n, "") : new User(n, ""));
+        };
+    }
+
+    // Метод для создания списка имен user0..user(count-1).
+    private static List<String> names(int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("user" + i);
+        }
+        return names;
+    }
+
+    @Test
+    void lazySnapshotLoadsOnlyRequestedPage() {
+        AtomicInteger loads = new AtomicInteger();
+        UserSnapshot snapshot = UserSnapshot.lazy(names(10_000), counting(loads), 7);
+        assertEquals(10_000, snapshot.size());
+        assertEquals(7, snapshot.getVersion());
+        assertEquals(0, loads.get());
+
+        UserPage page = snapshot.page(UserQuery.ALL, 100, 20);
+        assertEquals(20, page.getUsers().size());
+        assertEquals("user100", page.getUsers().get(0).getUsername());
+        assertEquals(10_000, page.getTotal());
+        assertEquals(20, loads.get());
+        assertSame(page.getUsers().get(0), snapshot.get(100)); // Загруженная позиция кэшируется
+        assertEquals(20, loads.get());
+    }
+
+    @Test
+    void nameFilterDoesNotLoadUsers() {
+        AtomicInteger loads = new AtomicInteger();
+        UserSnapshot snapshot = UserSnapshot.lazy(names(10_000), counting(loads), 1);
+        int[] positions = snapshot.positions(new UserQuery(null, UserQuery.Role.ANY, "USER99"));
+        assertEquals(111, positions.length); // user99, user990..user999, user9900..user9999
+        assertEquals(0, loads.get());
+        // Условия на состояние пользователя требуют загрузки
+        assertEquals(0, snapshot.positions(new UserQuery(null, UserQuery.Role.ADMIN, "")).length);
+        assertEquals(10_000, loads.get());
+    }
+
+    @Test
+    void binaryStoreSnapshotIsBuiltFromIndex() throws IOException {
+        Path file = directory.resolve("users.bin");
+        List<User> users = new ArrayList<>(List.of(new Admin("admin", PasswordHasher.getDefault().hash(""))));
+        for (int i = 0; i < 500; i++) {
+            users.add(new User("user" + i, PasswordHasher.getDefault().hash("")));
+        }
+        BinaryUserStore.write(file, users);
+        try (AuthenticationSystem system = new AuthenticationSystem(file.toString())) {
+            assertTrue(system.addUser("late"));
+            UserSnapshot snapshot = system.snapshot();
+            assertEquals(502, snapshot.size());
+            assertInstanceOf(Admin.class, snapshot.get(0));
+            assertEquals("user499", snapshot.get(500).getUsername());
+            assertEquals("late", snapshot.get(501).getUsername());
+            assertSame(system.findUser("user7"), snapshot.get(8));
+            UserPage page = snapshot.page(new UserQuery(null, UserQuery.Role.ANY, "user4"), 0, 5);
+            assertEquals(111, page.getTotal());
+
+            // Снимок переиспользуется до изменения; чтение записей при обращении изменением не считается
+            assertSame(snapshot, system.snapshot());
+            assertNotNull(system.findUser("user300"));
+            assertSame(snapshot, system.snapshot());
+            assertTrue(system.addUser("later"));
+            UserSnapshot changed = system.snapshot();
+            assertNotSame(snapshot, changed);
+            assertTrue(changed.getVersion() > snapshot.getVersion());
+            assertEquals("later", changed.get(502).getUsername());
+            assertSame(changed, system.snapshot());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserTableModelTest {
+    // Метод для выполнения действия в потоке интерфейса с ожиданием.
+    private static void onEdt(Runnable action) throws Exception {
+        SwingUtilities.invokeAndWait(action);
+    }
+
+    // Метод для ожидания публикации позиций моделью.
+    private static void awaitFiltered(UserTableModel model) throws Exception {
+        boolean[] filtering = {true};
+        for (int i = 0; i < 500 && filtering[0]; i++) {
+            Thread.sleep(10);
+            onEdt(() -> filtering[0] = model.isFiltering());
+        }
+        assertFalse(filtering[0], "фильтрация не завершилась");
+    }
+
+    @Test
+    void recordsAreDecodedOffEventThread() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            names.add("user" + i);
+        }
+        ConcurrentHashMap<String, User> loaded = new ConcurrentHashMap<>();
+        AtomicInteger onEventThread = new AtomicInteger();
+        UserSnapshot snapshot = UserSnapshot.lazy(names, name -> {
+            if (SwingUtilities.isEventDispatchThread()) {
+                onEventThread.incrementAndGet();
+            }
+            return loaded.computeIfAbsent(name, n -> {
+                User user = new User(n, "");
+                user.setBlocked(n.endsWith("7"));
+                return user;
+            });
+        }, 1);
+
+        UserTableModel[] model = new UserTableModel[1];
+        onEdt(() -> {
+            model[0] = new UserTableModel(snapshot);
+            // Несколько изменений подряд объединяются; публикуется результат последнего
+            model[0].setQuery(new UserQuery(true, UserQuery.Role.ANY, ""));
+            model[0].setQuery(new UserQuery(false, UserQuery.Role.ANY, ""));
+            model[0].setQuery(new UserQuery(true, UserQuery.Role.ANY, "user1"));
+            assertTrue(model[0].isFiltering());
+        });
+        awaitFiltered(model[0]);
+        assertEquals(0, onEventThread.get()); // Записи для фильтра читались в фоне
+        onEdt(() -> {
+            assertEquals(111, model[0].getRowCount()); // user17, user1?7 и user1??7
+            assertTrue(model[0].getUser(0).isBlocked());
+        });
+    }
+}